@@ -31,9 +31,12 @@ public class WebSecurityConfig {
             .authorizeHttpRequests(auth -> auth
                 .requestMatchers("/", "/auth/login", "/auth/register", "/auth/activate", "/auth/resend-activation").permitAll()
                 .requestMatchers("/auth/me").authenticated()
+                .requestMatchers("/actuator/health").permitAll()
+                .requestMatchers("/actuator/**").hasRole("ADMIN")
                 .requestMatchers("/users/**").hasRole("ADMIN")
                 .requestMatchers(HttpMethod.GET, "/companies").hasRole("ADMIN")
                 .requestMatchers(HttpMethod.PATCH, "/companies/*/admin").hasRole("ADMIN")
+                .requestMatchers(HttpMethod.POST, "/kpds/import").hasRole("ADMIN")
                 .anyRequest().authenticated()
             )
             .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS));
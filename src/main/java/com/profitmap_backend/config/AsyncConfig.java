@@ -1,25 +1,125 @@
 package com.profitmap_backend.config;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
-import java.util.concurrent.Executor;
+import java.util.Locale;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
 
+/**
+ * One bounded pool per workload, sized by {@link ExecutorProperties}.
+ *
+ * <p>Full pools either reject (callers get {@link org.springframework.core.task.TaskRejectedException},
+ * answered with 429 for web requests) or run the task on the caller, depending on the pool's
+ * rejection policy. Spring Boot publishes pool size, active threads and queue depth of every pool
+ * as {@code executor.*} metrics tagged with the bean name; rejections are counted in
+ * {@code executor.rejected}.
+ */
 @Configuration
 @EnableAsync
 public class AsyncConfig {
 
+    /**
+     * Default executor for {@code @Async} methods.
+     */
     @Bean(name = "taskExecutor")
-    public Executor taskExecutor() {
+    public ThreadPoolTaskExecutor taskExecutor(ExecutorProperties executorProperties, MeterRegistry meterRegistry) {
+        return newExecutor("taskExecutor", "async-", executorProperties.getBackground(), meterRegistry);
+    }
+
+    /**
+     * Delivery of system mail from the outbox. Kept apart from customer mail so activation emails
+     * go out even while a bulk send keeps the customer workers busy. MailOutboxWorker never submits
+     * more tasks than there are threads, so the queue only absorbs hand-off.
+     */
+    @Bean(name = "systemMailExecutor")
+    public ThreadPoolTaskExecutor systemMailExecutor(ExecutorProperties executorProperties, MeterRegistry meterRegistry) {
+        ThreadPoolTaskExecutor executor = newExecutor("systemMailExecutor", "mail-system-",
+                executorProperties.getSystemMail(), meterRegistry);
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+
+    /**
+     * Delivery of customer mail from the outbox.
+     */
+    @Bean(name = "customerMailExecutor")
+    public ThreadPoolTaskExecutor customerMailExecutor(ExecutorProperties executorProperties, MeterRegistry meterRegistry) {
+        ThreadPoolTaskExecutor executor = newExecutor("customerMailExecutor", "mail-customer-",
+                executorProperties.getCustomerMail(), meterRegistry);
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+
+    /**
+     * Document PDF rendering. Requests beyond the queue are rejected instead of piling up.
+     */
+    @Bean(name = "reportExecutor")
+    public ThreadPoolTaskExecutor reportExecutor(ExecutorProperties executorProperties, MeterRegistry meterRegistry) {
+        return newExecutor("reportExecutor", "report-", executorProperties.getReports(), meterRegistry);
+    }
+
+    /**
+     * Fiscalisation requests to the tax authority.
+     */
+    @Bean(name = "fiscalisationExecutor")
+    public ThreadPoolTaskExecutor fiscalisationExecutor(ExecutorProperties executorProperties, MeterRegistry meterRegistry) {
+        return newExecutor("fiscalisationExecutor", "fiscal-", executorProperties.getFiscalisation(), meterRegistry);
+    }
+
+    /**
+     * Bulk document sends. Jobs are long running and persisted, so the queue only holds jobs
+     * waiting for a thread; they are resumed from the database after a restart.
+     */
+    @Bean(name = "bulkMailExecutor")
+    public ThreadPoolTaskExecutor bulkMailExecutor(ExecutorProperties executorProperties, MeterRegistry meterRegistry) {
+        return newExecutor("bulkMailExecutor", "bulk-mail-", executorProperties.getBulkMail(), meterRegistry);
+    }
+
+    /**
+     * Password hashing for login and registration, see PasswordHashingService.
+     */
+    @Bean(name = "passwordHashExecutor")
+    public ThreadPoolTaskExecutor passwordHashExecutor(ExecutorProperties executorProperties, MeterRegistry meterRegistry) {
+        return newExecutor("passwordHashExecutor", "password-hash-", executorProperties.getPasswordHashing(), meterRegistry);
+    }
+
+    private static ThreadPoolTaskExecutor newExecutor(String name,
+                                                      String threadNamePrefix,
+                                                      ExecutorProperties.Pool pool,
+                                                      MeterRegistry meterRegistry) {
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
-        executor.setCorePoolSize(4);
-        executor.setMaxPoolSize(8);
-        executor.setQueueCapacity(100);
-        executor.setThreadNamePrefix("mail-async-");
+        executor.setCorePoolSize(pool.getCoreSize());
+        executor.setMaxPoolSize(Math.max(pool.getMaxSize(), pool.getCoreSize()));
+        executor.setQueueCapacity(pool.getQueueCapacity());
+        executor.setKeepAliveSeconds((int) pool.getKeepAlive().toSeconds());
+        executor.setThreadNamePrefix(threadNamePrefix);
+        executor.setRejectedExecutionHandler(rejectionHandler(name, pool, meterRegistry));
         executor.initialize();
         return executor;
     }
-}
 
+    private static RejectedExecutionHandler rejectionHandler(String name,
+                                                             ExecutorProperties.Pool pool,
+                                                             MeterRegistry meterRegistry) {
+        RejectedExecutionHandler policy = pool.getRejectionPolicy() == ExecutorProperties.RejectionPolicy.CALLER_RUNS
+                ? new ThreadPoolExecutor.CallerRunsPolicy()
+                : new ThreadPoolExecutor.AbortPolicy();
+        Counter rejected = Counter.builder("executor.rejected")
+                .description("Tasks the pool had no thread or queue slot for")
+                .tag("name", name)
+                .tag("policy", pool.getRejectionPolicy().name().toLowerCase(Locale.ROOT))
+                .register(meterRegistry);
+        return (task, executor) -> {
+            rejected.increment();
+            policy.rejectedExecution(task, executor);
+        };
+    }
+}
@@ -0,0 +1,94 @@
+package com.profitmap_backend.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Request authentication settings.
+ *
+ * <p>Example {@code application.yml} snippet:
+ *
+ * <pre>
+ * auth:
+ *   stateless: true
+ *   revocation:
+ *     refresh-interval: PT5S
+ *   hashing:
+ *     attempts-per-account: 10
+ *     attempts-per-ip: 30
+ * </pre>
+ */
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "auth")
+public class AuthProperties {
+
+    /**
+     * Trust the user id, roles and company signed into the token instead of looking the user up.
+     * Deactivated users and companies are cut off through RevocationRegistry within refresh-interval.
+     */
+    private boolean stateless = false;
+
+    private Revocation revocation = new Revocation();
+
+    private Hashing hashing = new Hashing();
+
+    @Getter
+    @Setter
+    public static class Revocation {
+        /**
+         * How often changed users and companies are read from the database.
+         */
+        private Duration refreshInterval = Duration.ofSeconds(5);
+
+        /**
+         * How often the revocation set is rebuilt from scratch, dropping entries no live token can match.
+         */
+        private Duration fullRefreshInterval = Duration.ofMinutes(15);
+
+        /**
+         * Changes are read from this long before the previous refresh, covering clock skew between
+         * nodes and transactions that committed late.
+         */
+        private Duration overlap = Duration.ofSeconds(30);
+
+        /**
+         * Bloom filter false positive rate; a false positive only costs an exact set lookup.
+         */
+        private double falsePositiveRate = 0.01;
+    }
+
+    /**
+     * Throttling of password hashing (login and registration); see PasswordHashingService.
+     */
+    @Getter
+    @Setter
+    public static class Hashing {
+        /**
+         * Password checks allowed per account (username or email as entered) per attempts-period.
+         */
+        private int attemptsPerAccount = 10;
+
+        /**
+         * Password hashes and checks allowed per client IP per attempts-period.
+         */
+        private int attemptsPerIp = 30;
+
+        private Duration attemptsPeriod = Duration.ofMinutes(1);
+
+        /**
+         * Accounts and IPs tracked at most; the least recently seen are forgotten first.
+         */
+        private int maxTracked = 100_000;
+
+        /**
+         * How long a request waits for its hash, including time in the queue.
+         */
+        private Duration timeout = Duration.ofSeconds(10);
+    }
+}
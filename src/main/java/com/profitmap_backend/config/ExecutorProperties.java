@@ -0,0 +1,109 @@
+package com.profitmap_backend.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Sizing of the background thread pools, one per workload so a burst in one (e.g. a bulk send)
+ * cannot starve another (e.g. activation emails). See {@link AsyncConfig}.
+ *
+ * <p>Example {@code application.yml} snippet:
+ *
+ * <pre>
+ * executors:
+ *   system-mail:
+ *     core-size: 2
+ *     max-size: 2
+ *   customer-mail:
+ *     core-size: 4
+ *     max-size: 4
+ *   reports:
+ *     core-size: 4
+ *     max-size: 4
+ *     queue-capacity: 200
+ *   fiscalisation:
+ *     rejection-policy: caller-runs
+ * </pre>
+ */
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "executors")
+public class ExecutorProperties {
+
+    public enum RejectionPolicy {
+        /** Reject the task; callers get TaskRejectedException, answered with 429 for web requests. */
+        ABORT,
+        /** Run the task on the submitting thread, slowing the producer down to the pool's pace. */
+        CALLER_RUNS
+    }
+
+    /**
+     * Delivery of system mail (activation, password reset) from the mail outbox.
+     */
+    private Pool systemMail = Pool.of(2, 2, RejectionPolicy.ABORT);
+
+    /**
+     * Delivery of customer mail (invoices, offers, reminders) from the mail outbox.
+     */
+    private Pool customerMail = Pool.of(4, 4, RejectionPolicy.ABORT);
+
+    /**
+     * Document PDF rendering. CPU bound, so no more threads than cores.
+     */
+    private Pool reports = Pool.of(Runtime.getRuntime().availableProcessors(), 200, RejectionPolicy.ABORT);
+
+    /**
+     * Calls to the tax authority fiscalisation service. Caller-runs, because a receipt must never be dropped.
+     */
+    private Pool fiscalisation = Pool.of(2, 50, RejectionPolicy.CALLER_RUNS);
+
+    /**
+     * Bulk document send jobs. Jobs are persisted, so a rejected job is simply started later.
+     */
+    private Pool bulkMail = Pool.of(1, 50, RejectionPolicy.ABORT);
+
+    /**
+     * BCrypt hashing and verification for login and registration. Kept below the core count so a
+     * login burst cannot take every CPU; a full queue rejects the login with 429.
+     */
+    private Pool passwordHashing = Pool.of(Math.max(1, Runtime.getRuntime().availableProcessors() / 2), 50, RejectionPolicy.ABORT);
+
+    /**
+     * Default executor for {@code @Async} methods without an explicit executor.
+     */
+    private Pool background = Pool.of(2, 100, RejectionPolicy.ABORT);
+
+    @Getter
+    @Setter
+    public static class Pool {
+        private int coreSize;
+
+        private int maxSize;
+
+        /**
+         * Tasks allowed to wait for a thread. The pool only grows beyond core-size once the queue is full.
+         */
+        private int queueCapacity;
+
+        /**
+         * Threads above core-size are stopped after being idle this long.
+         */
+        private Duration keepAlive = Duration.ofSeconds(60);
+
+        private RejectionPolicy rejectionPolicy;
+
+        static Pool of(int threads, int queueCapacity, RejectionPolicy rejectionPolicy) {
+            Pool pool = new Pool();
+            pool.coreSize = threads;
+            pool.maxSize = threads;
+            pool.queueCapacity = queueCapacity;
+            pool.rejectionPolicy = rejectionPolicy;
+            return pool;
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.profitmap_backend.config;
 
+import com.profitmap_backend.util.PooledJavaMailSender;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
@@ -34,11 +35,12 @@ public class MailConfig {
     /**
      * Primary mail sender bean configured explicitly to ensure Zoho compatibility.
      * This ensures the envelope sender (MAIL FROM) matches the SMTP username.
+     * Connections are pooled and reused across sends (see PooledJavaMailSender).
      */
     @Bean
     @Primary
     public JavaMailSender javaMailSender() {
-        JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+        JavaMailSenderImpl mailSender = pooledMailSender();
         mailSender.setHost(mailHost);
         mailSender.setPort(mailPort);
         mailSender.setUsername(mailUsername);
@@ -50,6 +52,7 @@ public class MailConfig {
         props.put("mail.smtp.starttls.enable", "true");
         props.put("mail.smtp.starttls.required", "true");
         props.put("mail.debug", "false");
+        applyTimeouts(props);
         
         // CRITICAL: Set the envelope sender (MAIL FROM) to match SMTP username
         // This is required by Zoho to prevent "553 Sender is not allowed to relay emails" error
@@ -70,7 +73,7 @@ public class MailConfig {
             throw new IllegalStateException("Second mail account is not properly configured");
         }
 
-        JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+        JavaMailSenderImpl mailSender = pooledMailSender();
         mailSender.setHost(secondAccount.getHost() != null ? secondAccount.getHost() : "smtp.zoho.eu");
         mailSender.setPort(secondAccount.getPort() != null ? secondAccount.getPort() : 587);
         mailSender.setUsername(secondAccount.getUsername());
@@ -82,11 +85,29 @@ public class MailConfig {
         props.put("mail.smtp.starttls.enable", "true");
         props.put("mail.smtp.starttls.required", "true");
         props.put("mail.debug", "false");
+        applyTimeouts(props);
         
         // Set envelope sender for second account as well
         props.put("mail.smtp.from", secondAccount.getUsername());
 
         return mailSender;
     }
-}
 
+    private PooledJavaMailSender pooledMailSender() {
+        MailProperties.Pool pool = mailProperties.getPool();
+        return new PooledJavaMailSender(
+                pool.getMaxConnections(),
+                pool.getMaxMessagesPerConnection(),
+                pool.getMaxIdle(),
+                pool.getBorrowTimeout());
+    }
+
+    /**
+     * Pooled connections live long, so a stalled server must not hang a worker forever.
+     */
+    private void applyTimeouts(Properties props) {
+        props.put("mail.smtp.connectiontimeout", "10000");
+        props.put("mail.smtp.timeout", "30000");
+        props.put("mail.smtp.writetimeout", "60000");
+    }
+}
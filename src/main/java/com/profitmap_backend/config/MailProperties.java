@@ -1,10 +1,16 @@
 package com.profitmap_backend.config;
 
+import com.profitmap_backend.model.MailAccount;
 import lombok.Getter;
 import lombok.Setter;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
 /**
  * Mail configuration properties.
  *
@@ -29,6 +35,19 @@ import org.springframework.stereotype.Component;
  *   system-from-address: "no-reply@myapp.com"
  *   app-name: "MyApp"
  *   activation-base-url: "https://app.myapp.com/auth/activate"
+ *   pool:
+ *     max-connections: 3
+ *     max-messages-per-connection: 100
+ *   routing:
+ *     accounts:
+ *       primary:
+ *         weight: 2
+ *         max-per-minute: 60
+ *       second:
+ *         weight: 1
+ *   outbox:
+ *     poll-interval: PT2S
+ *     max-attempts: 8
  * </pre>
  */
 @Getter
@@ -70,6 +89,36 @@ public class MailProperties {
      */
     private SecondAccount secondAccount;
 
+    /**
+     * SMTP connection pool settings, applied to every mail account.
+     */
+    private Pool pool = new Pool();
+
+    /**
+     * How customer-facing mail is spread over the configured accounts (see MailRouter).
+     */
+    private Routing routing = new Routing();
+
+    /**
+     * Delivery settings for the persistent mail outbox.
+     */
+    private Outbox outbox = new Outbox();
+
+    /**
+     * Mail template rendering settings.
+     */
+    private Templates templates = new Templates();
+
+    /**
+     * Bulk document send settings.
+     */
+    private Bulk bulk = new Bulk();
+
+    /**
+     * Deduplication of repeated send requests.
+     */
+    private Idempotency idempotency = new Idempotency();
+
     @Getter
     @Setter
     public static class SecondAccount {
@@ -79,5 +128,196 @@ public class MailProperties {
         private String password;
         private String fromAddress;
     }
-}
 
+    @Getter
+    @Setter
+    public static class Pool {
+        /**
+         * Connected SMTP transports kept per account.
+         */
+        private int maxConnections = 3;
+
+        /**
+         * A connection is closed and replaced after this many messages.
+         */
+        private int maxMessagesPerConnection = 100;
+
+        /**
+         * Idle connections are closed after this long (Zoho drops idle sessions after about a minute).
+         */
+        private Duration maxIdle = Duration.ofSeconds(30);
+
+        /**
+         * How long a sender waits for a free connection before failing.
+         */
+        private Duration borrowTimeout = Duration.ofSeconds(30);
+    }
+
+    @Getter
+    @Setter
+    public static class Routing {
+        /**
+         * Per-account weight and rate limit. Accounts not listed get the defaults.
+         */
+        private Map<MailAccount, AccountRoute> accounts = new EnumMap<>(MailAccount.class);
+
+        /**
+         * Consecutive connection failures after which an account is taken out of rotation.
+         */
+        private int failureThreshold = 3;
+
+        /**
+         * How long an account stays out of rotation after repeated failures or rejected credentials.
+         */
+        private Duration failureCooldown = Duration.ofMinutes(2);
+
+        /**
+         * How long an account stays out of rotation after the server throttled it.
+         */
+        private Duration throttleCooldown = Duration.ofMinutes(5);
+
+        /**
+         * Times one email is handed to another account after throttling without spending an attempt;
+         * further throttling counts as a failed attempt, so mail the server keeps refusing ends up dead.
+         */
+        private int maxThrottleFailovers = 2;
+
+        public AccountRoute forAccount(MailAccount account) {
+            return accounts.getOrDefault(account, new AccountRoute());
+        }
+    }
+
+    @Getter
+    @Setter
+    public static class AccountRoute {
+        /**
+         * Share of customer mail relative to the other accounts; 0 keeps the account out of customer routing.
+         */
+        private int weight = 1;
+
+        /**
+         * Messages per minute this account may send; 0 means unlimited.
+         */
+        private int maxPerMinute = 0;
+    }
+
+    @Getter
+    @Setter
+    public static class Outbox {
+        /**
+         * How often workers look for due emails (read by the @Scheduled poller).
+         */
+        private Duration pollInterval = Duration.ofSeconds(2);
+
+        /**
+         * Attempts before an email is dead-lettered.
+         */
+        private int maxAttempts = 8;
+
+        /**
+         * Delay before the first retry; doubled on every further attempt up to maxBackoff.
+         */
+        private Duration initialBackoff = Duration.ofSeconds(30);
+
+        private Duration maxBackoff = Duration.ofHours(1);
+
+        /**
+         * Rows left SENDING for longer than this (e.g. node crashed mid-send) are retried.
+         */
+        private Duration stuckTimeout = Duration.ofMinutes(10);
+
+        /**
+         * Directory attachments are written to until the email is sent. Must be shared storage
+         * when several nodes drain the same outbox.
+         */
+        private Path spoolDir = Path.of(System.getProperty("java.io.tmpdir"), "profitmap-mail-spool");
+
+        /**
+         * Spool files older than this that no outbox row references are deleted.
+         * Must be longer than the whole retry window.
+         */
+        private Duration spoolOrphanAge = Duration.ofDays(2);
+
+        private Retention retention = new Retention();
+    }
+
+    /**
+     * Deletion of sent and dead-lettered outbox rows (MailOutboxPurgeService).
+     */
+    @Getter
+    @Setter
+    public static class Retention {
+        private boolean enabled = true;
+
+        /**
+         * SENT and DEAD rows last updated longer ago than this are deleted. Must be longer than
+         * mail.idempotency.window, or repeats of old sends would be sent again.
+         */
+        private Duration keepFor = Duration.ofDays(30);
+
+        private String cron = "0 45 3 * * *";
+
+        /**
+         * Rows deleted per statement (and transaction).
+         */
+        private int batchSize = 500;
+
+        /**
+         * Pause between batches, giving replicas and the outbox workers room.
+         */
+        private Duration pause = Duration.ofMillis(200);
+
+        /**
+         * A run stops after this long; the rest is deleted by the next run.
+         */
+        private Duration maxRunTime = Duration.ofMinutes(10);
+    }
+
+    @Getter
+    @Setter
+    public static class Templates {
+        /**
+         * Maximum number of per-company template lookups kept (including "no variant" results).
+         */
+        private int companyVariantCacheSize = 1000;
+    }
+
+    @Getter
+    @Setter
+    public static class Bulk {
+        /**
+         * Document ids loaded per query.
+         */
+        private int chunkSize = 100;
+
+        /**
+         * A job pauses while this many of its emails are still waiting in the outbox, so a large
+         * send neither fills the spool directory nor starves other mail of outbox capacity.
+         */
+        private int maxOutboxBacklog = 500;
+
+        /**
+         * How often a paused job checks its outbox backlog again.
+         */
+        private Duration backlogPollInterval = Duration.ofSeconds(5);
+    }
+
+    @Getter
+    @Setter
+    public static class Idempotency {
+        /**
+         * A repeated send with the same key within this window returns the original email instead of sending again.
+         */
+        private Duration window = Duration.ofHours(24);
+
+        /**
+         * Recently used keys kept in memory in front of the outbox lookup.
+         */
+        private int cacheSize = 10_000;
+
+        /**
+         * Retry-After given to a duplicate request that arrives while the original one is still in progress.
+         */
+        private Duration inFlightRetryAfter = Duration.ofSeconds(2);
+    }
+}
@@ -0,0 +1,82 @@
+package com.profitmap_backend.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Server-side document PDF rendering settings.
+ *
+ * <p>Example {@code application.yml} snippet:
+ *
+ * <pre>
+ * pdf:
+ *   logo-dir: /var/profitmap/logos
+ *   logo-hosts:
+ *     - cdn.profitmap.hr
+ *   fonts:
+ *     - path: /usr/share/fonts/truetype/dejavu/DejaVuSans-Bold.ttf
+ *       family: Document Sans
+ *       weight: 700
+ * </pre>
+ */
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "pdf")
+public class PdfProperties {
+
+    /**
+     * How long a request waits for its PDF before giving up.
+     */
+    private Duration renderTimeout = Duration.ofSeconds(30);
+
+    /**
+     * Directory company logos stored as file paths are read from; paths resolving outside it are ignored.
+     */
+    private Path logoDir = Path.of(".");
+
+    /**
+     * Hosts logos may be fetched from over https. Empty (the default) disables remote logos, so a
+     * tenant-supplied URL can never make the server call into its own network.
+     */
+    private List<String> logoHosts = new ArrayList<>();
+
+    /**
+     * Logos larger than this are left out of the PDF.
+     */
+    private int logoMaxBytes = 1024 * 1024;
+
+    private int logoCacheSize = 500;
+
+    /**
+     * How long a loaded logo is reused before it is read again (picks up replaced logos).
+     */
+    private Duration logoCacheTtl = Duration.ofHours(1);
+
+    /**
+     * Maximum number of per-company layout lookups kept (including "no variant" results).
+     */
+    private int layoutCacheSize = 1000;
+
+    /**
+     * Extra fonts registered with the renderer, e.g. a bold face. The "Document Sans" regular face
+     * (Liberation Sans, shipped with PDFBox, covers Croatian diacritics) is always available.
+     */
+    private List<Font> fonts = new ArrayList<>();
+
+    @Getter
+    @Setter
+    public static class Font {
+        private Path path;
+        private String family;
+        private int weight = 400;
+        private boolean italic;
+    }
+}
@@ -0,0 +1,67 @@
+package com.profitmap_backend.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Overdue invoice reminder settings.
+ *
+ * <p>Example {@code application.yml} snippet:
+ *
+ * <pre>
+ * reminders:
+ *   cron: "0 0 8 * * MON-FRI"
+ *   grace-days: 3
+ *   interval: P7D
+ *   max-reminders: 3
+ * </pre>
+ */
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "reminders")
+public class ReminderProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * When the reminder run starts (Spring cron, evaluated in {@link #zone}).
+     */
+    private String cron = "0 0 8 * * *";
+
+    private String zone = "Europe/Zagreb";
+
+    /**
+     * Days after the expiration date before an unpaid invoice is reminded about.
+     */
+    private int graceDays = 3;
+
+    /**
+     * Minimum time between two reminders for the same invoice.
+     */
+    private Duration interval = Duration.ofDays(7);
+
+    /**
+     * Invoices stop being reminded about after this many reminders.
+     */
+    private int maxReminders = 3;
+
+    /**
+     * Overdue invoices loaded per query.
+     */
+    private int chunkSize = 500;
+
+    /**
+     * Per-company throttle: at most this many clients are reminded per run; the rest follow in later runs.
+     */
+    private int maxClientsPerCompany = 200;
+
+    /**
+     * Invoices listed individually in one reminder; further ones only count towards the total.
+     */
+    private int maxInvoicesPerEmail = 50;
+}
@@ -0,0 +1,68 @@
+package com.profitmap_backend.config;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+
+/**
+ * Settings for emailed one-time tokens (account activation, password reset, email change).
+ *
+ * <p>Example {@code application.yml} snippet:
+ *
+ * <pre>
+ * tokens:
+ *   verifier-secret: ${TOKEN_VERIFIER_SECRET}
+ *   purge:
+ *     cron: "0 15 * * * *"
+ *     batch-size: 500
+ * </pre>
+ */
+@Getter
+@Setter
+@Component
+@Validated
+@ConfigurationProperties(prefix = "tokens")
+public class TokenProperties {
+
+    /**
+     * Key for the HMAC-SHA256 of token verifiers. Changing it invalidates all outstanding tokens.
+     * Required, with no default, so no deployment runs with a key that is public in the repository.
+     */
+    @NotBlank(message = "tokens.verifier-secret must be set (TOKEN_VERIFIER_SECRET)")
+    @Size(min = 32, message = "tokens.verifier-secret must be at least 32 characters")
+    private String verifierSecret;
+
+    private Purge purge = new Purge();
+
+    /**
+     * Deletion of expired and used tokens (TokenPurgeService).
+     */
+    @Getter
+    @Setter
+    public static class Purge {
+        private boolean enabled = true;
+
+        private String cron = "0 15 * * * *";
+
+        /**
+         * Rows deleted per statement (and transaction).
+         */
+        private int batchSize = 500;
+
+        /**
+         * Pause between batches, giving replicas and concurrent writers room.
+         */
+        private Duration pause = Duration.ofMillis(200);
+
+        /**
+         * A run stops after this long; the rest is deleted by the next run.
+         */
+        private Duration maxRunTime = Duration.ofMinutes(10);
+    }
+}
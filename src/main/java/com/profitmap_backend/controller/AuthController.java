@@ -4,7 +4,9 @@ import com.profitmap_backend.dto.UserDto;
 import com.profitmap_backend.model.User;
 import com.profitmap_backend.repository.UserRepository;
 import com.profitmap_backend.service.AuthService;
+import com.profitmap_backend.util.AuthPrincipal;
 import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
@@ -23,8 +25,8 @@ public class AuthController {
     private final UserRepository userRepository;
 
     @PostMapping("/login")
-    public ResponseEntity<?> login(@RequestBody LoginRequest loginRequest, HttpServletResponse response) {
-        ResponseEntity<?> result = authService.login(loginRequest);
+    public ResponseEntity<?> login(@RequestBody LoginRequest loginRequest, HttpServletRequest request, HttpServletResponse response) {
+        ResponseEntity<?> result = authService.login(loginRequest, request.getRemoteAddr());
         if (result.getStatusCode() == HttpStatus.OK) {
             Map<String, Object> body = (Map<String, Object>) result.getBody();
             String token = (String) body.get("token");
@@ -34,8 +36,8 @@ public class AuthController {
     }
 
     @PostMapping("/register")
-    public ResponseEntity<?> register(@RequestBody RegisterRequest registerRequest, HttpServletResponse response) {
-        ResponseEntity<?> result = authService.register(registerRequest);
+    public ResponseEntity<?> register(@RequestBody RegisterRequest registerRequest, HttpServletRequest request, HttpServletResponse response) {
+        ResponseEntity<?> result = authService.register(registerRequest, request.getRemoteAddr());
         if (result.getStatusCode() == HttpStatus.CREATED) {
             Map<String, Object> body = (Map<String, Object>) result.getBody();
             String token = (String) body.get("token");
@@ -60,9 +62,9 @@ public class AuthController {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         String username = authentication.getName();
 
-        User user = userRepository.findByUsername(username)
-                .or(() -> userRepository.findByEmail(username))
-                .orElse(null);
+        User user = authentication.getPrincipal() instanceof AuthPrincipal principal
+                ? userRepository.findByIdWithCompany(principal.id()).orElse(null)
+                : userRepository.findByLogin(username).orElse(null);
 
         if (user == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("User not found");
@@ -0,0 +1,53 @@
+package com.profitmap_backend.controller;
+
+import com.profitmap_backend.service.IdempotencyConflictException;
+import com.profitmap_backend.service.TooManyAttemptsException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Answers requests that could not get a slot in a full worker pool (e.g. PDF rendering)
+ * with 429, so clients back off and retry instead of seeing a server error. Repeats of a request
+ * that is still running get 409, also with Retry-After.
+ */
+@RestControllerAdvice
+@Slf4j
+public class BackpressureExceptionHandler {
+
+    private static final String RETRY_AFTER_SECONDS = "5";
+
+    @ExceptionHandler(TaskRejectedException.class)
+    public ResponseEntity<Map<String, String>> handleTaskRejected(TaskRejectedException ex) {
+        log.warn("Rejected request, worker pool full: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS)
+                .body(Map.of("error", "Server is busy, please retry shortly"));
+    }
+
+    @ExceptionHandler(TooManyAttemptsException.class)
+    public ResponseEntity<Map<String, String>> handleTooManyAttempts(TooManyAttemptsException ex) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, retryAfterSeconds(ex.getRetryAfter()))
+                .body(Map.of("error", ex.getMessage()));
+    }
+
+    @ExceptionHandler(IdempotencyConflictException.class)
+    public ResponseEntity<Map<String, String>> handleIdempotencyConflict(IdempotencyConflictException ex) {
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .header(HttpHeaders.RETRY_AFTER, retryAfterSeconds(ex.getRetryAfter()))
+                .body(Map.of("error", ex.getMessage()));
+    }
+
+    // Rounded up, so a client honouring the header does not come back a moment too early
+    private static String retryAfterSeconds(Duration retryAfter) {
+        return String.valueOf(Math.max(1, (retryAfter.toMillis() + 999) / 1000));
+    }
+}
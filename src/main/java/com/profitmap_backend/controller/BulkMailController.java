@@ -0,0 +1,52 @@
+package com.profitmap_backend.controller;
+
+import com.profitmap_backend.dto.BulkMailJobDto;
+import com.profitmap_backend.model.BulkMailJob;
+import com.profitmap_backend.service.BulkMailService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.net.URI;
+
+@RestController
+@RequestMapping("/documents/bulk-send")
+@RequiredArgsConstructor
+public class BulkMailController {
+
+    private final BulkMailService bulkMailService;
+
+    /**
+     * Emails every matching document to its client in the background.
+     * Returns 202 with the job to poll for progress.
+     */
+    @PostMapping
+    public ResponseEntity<BulkMailJobDto> startBulkSend(@RequestBody BulkSendRequest request) {
+        if (request.getCompanyId() == null) {
+            throw new RuntimeException("companyId is required");
+        }
+        BulkMailJob job = bulkMailService.createJob(
+                request.getCompanyId(),
+                request.getDocumentType(),
+                request.getStatus(),
+                request.getDateFrom(),
+                request.getDateTo()
+        );
+        return ResponseEntity.accepted()
+                .location(URI.create("/documents/bulk-send/" + job.getId()))
+                .body(bulkMailService.getProgress(job.getId(), 0, 50).orElseThrow());
+    }
+
+    /**
+     * Job status with queued, skipped, failed and delivered counts plus one page of documents
+     */
+    @GetMapping("/{jobId}")
+    public ResponseEntity<BulkMailJobDto> getProgress(
+            @PathVariable Long jobId,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size) {
+        return bulkMailService.getProgress(jobId, page, size)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+}
@@ -0,0 +1,23 @@
+package com.profitmap_backend.controller;
+
+import com.profitmap_backend.model.DocumentStatus;
+import com.profitmap_backend.model.DocumentType;
+import lombok.*;
+
+import java.time.LocalDate;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BulkSendRequest {
+    private Long companyId;
+    
+    // Documents to send: type (defaults to invoices), optional status and document date range (inclusive)
+    @Builder.Default
+    private DocumentType documentType = DocumentType.INVOICE;
+    private DocumentStatus status;
+    private LocalDate dateFrom;
+    private LocalDate dateTo;
+}
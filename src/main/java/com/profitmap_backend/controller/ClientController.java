@@ -1,8 +1,10 @@
 package com.profitmap_backend.controller;
 
 import com.profitmap_backend.dto.ClientDto;
+import com.profitmap_backend.dto.ClientStatementDto;
 import com.profitmap_backend.model.ClientType;
 import com.profitmap_backend.service.ClientService;
+import com.profitmap_backend.service.ClientStatementService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -16,6 +18,7 @@ import java.util.List;
 public class ClientController {
     
     private final ClientService clientService;
+    private final ClientStatementService clientStatementService;
     
     @PostMapping
     public ResponseEntity<ClientDto> createClient(@RequestBody ClientDto clientDto) {
@@ -55,6 +58,17 @@ public class ClientController {
         return ResponseEntity.ok(client);
     }
     
+    /**
+     * Account statement: all offers and invoices issued to the client with open, paid and overdue totals
+     */
+    @GetMapping("/{id}/statement")
+    public ResponseEntity<ClientStatementDto> getClientStatement(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size) {
+        return ResponseEntity.ok(clientStatementService.getStatement(id, page, size));
+    }
+    
     @PutMapping("/{id}")
     public ResponseEntity<ClientDto> updateClient(@PathVariable Long id, @RequestBody ClientDto clientDto) {
         ClientDto updatedClient = clientService.updateClient(id, clientDto);
@@ -2,8 +2,11 @@ package com.profitmap_backend.controller;
 
 import com.profitmap_backend.dto.CompanyAdminUpdateRequest;
 import com.profitmap_backend.dto.CompanyCreationResponse;
+import com.profitmap_backend.dto.CompanySummaryDto;
+import com.profitmap_backend.dto.PageResponse;
+import com.profitmap_backend.dto.UserSummaryDto;
 import com.profitmap_backend.model.Company;
-import com.profitmap_backend.model.User;
+import com.profitmap_backend.model.CompanyStatus;
 import jakarta.servlet.http.Cookie;
 import jakarta.servlet.http.HttpServletResponse;
 import com.profitmap_backend.service.CompanyService;
@@ -11,7 +14,6 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
 import java.util.Optional;
 
 @RestController
@@ -20,9 +22,20 @@ import java.util.Optional;
 public class CompanyController {
     private final CompanyService companyService;
 
+    /**
+     * Admin company listing, one page at a time.
+     *
+     * @param q      searches company name, OIB and email
+     * @param sort   {@code property[,asc|desc]}, e.g. {@code createdAt,desc} (the default)
+     */
     @GetMapping
-    public ResponseEntity<List<Company>> getAll() {
-        return ResponseEntity.ok(companyService.getAll());
+    public ResponseEntity<PageResponse<CompanySummaryDto>> getCompanies(
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) CompanyStatus status,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size,
+            @RequestParam(required = false) String sort) {
+        return ResponseEntity.ok(companyService.getCompanies(status, q, page, size, sort));
     }
 
     @GetMapping("/{id}")
@@ -31,8 +44,13 @@ public class CompanyController {
     }
 
     @GetMapping("/{id}/users")
-    public ResponseEntity<List<User>> getUsersByCompanyId(@PathVariable Long id) {
-        return ResponseEntity.ok(companyService.getUsersByCompanyId(id));
+    public ResponseEntity<PageResponse<UserSummaryDto>> getUsersByCompanyId(
+            @PathVariable Long id,
+            @RequestParam(required = false) String q,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size,
+            @RequestParam(required = false) String sort) {
+        return ResponseEntity.ok(companyService.getUsersByCompanyId(id, q, page, size, sort));
     }
 
     @GetMapping("/user/{userId}")
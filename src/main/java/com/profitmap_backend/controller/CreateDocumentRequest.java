@@ -15,6 +15,9 @@ public class CreateDocumentRequest {
     // Company ID - required to specify which company the document belongs to
     private Long companyId;
     
+    // Optional saved client the data below was taken from (links the snapshot for client statements)
+    private Long clientId;
+    
     // Client data - always provided directly
     private String name;
     private String contact;
@@ -1,21 +1,32 @@
 package com.profitmap_backend.controller;
 
-import com.profitmap_backend.config.MailProperties;
 import com.profitmap_backend.dto.DocumentDto;
+import com.profitmap_backend.dto.MailOutboxStatusDto;
 import com.profitmap_backend.model.*;
+import com.profitmap_backend.service.DocumentMailService;
+import com.profitmap_backend.service.DocumentPdfService;
 import com.profitmap_backend.service.DocumentService;
-import com.profitmap_backend.service.MailService;
+import com.profitmap_backend.service.MailAttachmentSpool;
+import com.profitmap_backend.service.MailIdempotencyService;
+import com.profitmap_backend.service.MailOutboxService;
 import com.profitmap_backend.util.DocumentMapper;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
-import java.util.HashMap;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.file.Path;
 import java.util.List;
-import java.util.Map;
+import java.util.Locale;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -25,8 +36,11 @@ import java.util.stream.Collectors;
 public class DocumentController {
     
     private final DocumentService documentService;
-    private final MailService mailService;
-    private final MailProperties mailProperties;
+    private final DocumentMailService documentMailService;
+    private final MailOutboxService mailOutboxService;
+    private final MailAttachmentSpool mailAttachmentSpool;
+    private final MailIdempotencyService mailIdempotencyService;
+    private final DocumentPdfService documentPdfService;
     
     @PostMapping("/offers")
     @Transactional
@@ -34,6 +48,7 @@ public class DocumentController {
         Document createdDocument = documentService.createDocument(
                 request.getDocument(), 
                 request.getCompanyId(),
+                request.getClientId(),
                 request.getName(),
                 request.getContact(),
                 request.getEmail(),
@@ -52,6 +67,7 @@ public class DocumentController {
         Document createdDocument = documentService.createDocument(
                 request.getDocument(), 
                 request.getCompanyId(),
+                request.getClientId(),
                 request.getName(),
                 request.getContact(),
                 request.getEmail(),
@@ -75,90 +91,88 @@ public class DocumentController {
     }
 
     /**
-     * Send email with PDF attachment for an existing document
+     * Renders the document PDF on the server.
+     * Not transactional, so no database connection is held while waiting for the render.
      */
-    @PostMapping(value = "/{documentId}/send-email", consumes = "multipart/form-data")
-    @Transactional(readOnly = true)
-    public ResponseEntity<Void> sendDocumentEmail(
+    @GetMapping("/{documentId}/pdf")
+    public ResponseEntity<byte[]> getDocumentPdf(@PathVariable Long documentId) {
+        Document document = documentService.getDocumentById(documentId);
+        byte[] pdf = documentPdfService.render(documentId);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_PDF)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.inline()
+                        .filename(documentPdfService.fileName(document))
+                        .build()
+                        .toString())
+                .body(pdf);
+    }
+
+    /**
+     * Send email with PDF attachment for an existing document.
+     * The PDF part is optional; without it the PDF is rendered on the server.
+     * The email is queued in the mail outbox; returns 202 with the outbox status to poll.
+     * Sends are idempotent: a repeat with the same Idempotency-Key header (or, without one, for the
+     * same document, recipient and PDF) returns the original email instead of sending it again.
+     * Not transactional: the PDF is rendered or spooled first, and only queueing the email opens a
+     * transaction.
+     */
+    @PostMapping("/{documentId}/send-email")
+    public ResponseEntity<MailOutboxStatusDto> sendDocumentEmail(
             @PathVariable Long documentId,
-            @RequestPart("pdf") MultipartFile pdfFile) {
+            @RequestPart(value = "pdf", required = false) @Nullable MultipartFile pdfFile,
+            @RequestHeader(value = "Idempotency-Key", required = false) @Nullable String idempotencyKey) {
         
         // Get document with company and client info
         Document document = documentService.getDocumentByIdWithCompanyAndClient(documentId);
-        
-        // Get client email from document
-        String clientEmail = document.getDocumentClient().getEmail();
-        if (clientEmail == null || clientEmail.isBlank()) {
+        if (!DocumentMailService.hasClientEmail(document)) {
             throw new RuntimeException("Document client email is not set");
         }
         
         try {
-            byte[] pdfBytes = pdfFile.getBytes();
-            String pdfFileName = pdfFile.getOriginalFilename();
-            if (pdfFileName == null || pdfFileName.isBlank()) {
-                pdfFileName = document.getDocumentType() == DocumentType.INVOICE 
-                    ? "Racun-" + document.getDocumentNumber() + ".pdf"
-                    : "Ponuda-" + document.getDocumentNumber() + ".pdf";
+            boolean uploaded = pdfFile != null && !pdfFile.isEmpty();
+            String key;
+            if (idempotencyKey != null && !idempotencyKey.isBlank()) {
+                key = MailIdempotencyService.key("send-email", documentId.toString(), idempotencyKey);
+            } else {
+                // Server-rendered PDFs change only with the document
+                String content;
+                if (uploaded) {
+                    try (InputStream in = pdfFile.getInputStream()) {
+                        content = MailIdempotencyService.contentHash(in);
+                    }
+                } else {
+                    content = "server:" + document.getUpdatedAt();
+                }
+                key = MailIdempotencyService.key("send-email", documentId.toString(),
+                        document.getDocumentClient().getEmail().trim().toLowerCase(Locale.ROOT), content);
             }
             
-            // Get company info
-            Company company = document.getCompany();
-            String issuerCompanyName = company.getCompanyName();
-            String issuerEmail = company.getEmail() != null ? company.getEmail() : null;
-            
-            // Get client info
-            DocumentClient documentClient = document.getDocumentClient();
-            String customerName = documentClient.getName();
-            if (documentClient.getSurname() != null && !documentClient.getSurname().isBlank()) {
-                customerName = customerName + " " + documentClient.getSurname();
+            Optional<Long> replay = mailIdempotencyService.findReplay(key);
+            if (replay.isPresent()) {
+                return accepted(replay.get(), true);
             }
-            
-            // Prepare template variables
-            Map<String, Object> templateVariables = new HashMap<>();
-            templateVariables.put("customerName", customerName);
-            templateVariables.put("issuerCompanyName", issuerCompanyName);
-            templateVariables.put("appName", mailProperties.getAppName());
-            
-            // Send email based on document type
-            if (document.getDocumentType() == DocumentType.INVOICE) {
-                templateVariables.put("invoiceNumber", document.getDocumentNumber());
-                String subject = String.format("Račun br. %s – %s", document.getDocumentNumber(), issuerCompanyName);
-                String personalName = issuerCompanyName + " (via " + mailProperties.getAppName() + ")";
-                
-                mailService.sendHtmlMailWithPdfAttachmentSecondAccount(
-                        clientEmail,
-                        subject,
-                        "invoice-email",
-                        templateVariables,
-                        pdfBytes,
-                        pdfFileName,
-                        issuerEmail,
-                        personalName
-                );
-            } else if (document.getDocumentType() == DocumentType.OFFER) {
-                templateVariables.put("documentNumber", document.getDocumentNumber());
-                String subject = "Ponuda br. " + document.getDocumentNumber() + " – " + issuerCompanyName;
-                
-                mailService.sendHtmlMailWithPdfAttachmentSecondAccount(
-                        clientEmail,
-                        subject,
-                        "offer-email",
-                        templateVariables,
-                        pdfBytes,
-                        pdfFileName,
-                        issuerEmail,
-                        issuerCompanyName
-                );
-            } else {
-                throw new RuntimeException("Unsupported document type: " + document.getDocumentType());
+
+            // Spooled to disk once and streamed into SMTP later, never held in memory
+            Path pdfPath = uploaded ? mailAttachmentSpool.spool(pdfFile) : documentMailService.renderPdf(document);
+            String pdfFileName = uploaded ? pdfFile.getOriginalFilename() : null;
+            MailIdempotencyService.Result result;
+            try {
+                result = mailIdempotencyService.sendOnce(key,
+                        () -> documentMailService.queueDocumentEmail(document, pdfPath, pdfFileName));
+            } catch (RuntimeException e) {
+                mailAttachmentSpool.discard(pdfPath);
+                throw e;
             }
-            
-            return ResponseEntity.ok().build();
-        } catch (IOException e) {
+            if (result.replayed()) {
+                // Queued by a concurrent request meanwhile
+                mailAttachmentSpool.discard(pdfPath);
+            }
+            return accepted(result.outboxId(), result.replayed());
+        } catch (IOException | UncheckedIOException e) {
             throw new RuntimeException("Failed to process PDF file for email", e);
         }
     }
-    
+
     @GetMapping("/company/{companyId}")
     @Transactional(readOnly = true)
     public ResponseEntity<List<DocumentDto>> getDocumentsByCompany(@PathVariable Long companyId) {
@@ -294,4 +308,12 @@ public class DocumentController {
         boolean areRelated = documentService.areDocumentsRelated(documentId1, documentId2);
         return ResponseEntity.ok(areRelated);
     }
+
+    private ResponseEntity<MailOutboxStatusDto> accepted(Long outboxId, boolean replayed) {
+        MailOutboxStatusDto status = mailOutboxService.getStatus(outboxId).orElseThrow();
+        return ResponseEntity.accepted()
+                .location(URI.create("/mail/outbox/" + outboxId))
+                .header("Idempotent-Replayed", String.valueOf(replayed))
+                .body(status);
+    }
 }
@@ -1,12 +1,21 @@
 package com.profitmap_backend.controller;
 
 import com.profitmap_backend.dto.KpdBatchResult;
+import com.profitmap_backend.dto.KpdImportResult;
 import com.profitmap_backend.model.Kpd;
+import com.profitmap_backend.service.KpdCatalog;
+import com.profitmap_backend.service.KpdImportService;
+import com.profitmap_backend.service.KpdSearchIndex;
 import com.profitmap_backend.service.KpdService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 
 @RestController
@@ -14,10 +23,42 @@ import java.util.List;
 @RequiredArgsConstructor
 public class KpdController {
     private final KpdService kpdService;
+    private final KpdImportService kpdImportService;
+    private final KpdCatalog kpdCatalog;
+    private final KpdSearchIndex kpdSearchIndex;
 
+    /**
+     * The whole classification, ordered by code, as serialised once per catalog version. Clients
+     * sending the ETag back in If-None-Match get 304 while it is unchanged.
+     */
     @GetMapping
-    public ResponseEntity<List<Kpd>> getAll() {
-        return ResponseEntity.ok(kpdService.getAll());
+    public ResponseEntity<byte[]> getAll(WebRequest request) {
+        KpdCatalog.Snapshot catalog = kpdCatalog.snapshot();
+        if (request.checkNotModified(catalog.etag())) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .eTag(catalog.etag())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(catalog.json());
+    }
+
+    /**
+     * Up to {@code limit} entries for the product form: codes starting with {@code q} when it is a
+     * code such as "62.01", otherwise names containing words starting with each word of {@code q}.
+     */
+    @GetMapping("/search")
+    public ResponseEntity<List<Kpd>> search(@RequestParam String q,
+                                            @RequestParam(defaultValue = "" + KpdSearchIndex.DEFAULT_LIMIT) int limit) {
+        return ResponseEntity.ok(kpdSearchIndex.search(q, limit));
+    }
+
+    /**
+     * The next level of the code hierarchy below {@code code}, or the top level without it.
+     */
+    @GetMapping("/children")
+    public ResponseEntity<List<Kpd>> children(@RequestParam(required = false) String code) {
+        return ResponseEntity.ok(kpdSearchIndex.children(code));
     }
 
     @GetMapping("/{id}")
@@ -40,6 +81,19 @@ public class KpdController {
         return ResponseEntity.ok(kpdService.createBatch(kpds));
     }
 
+    /**
+     * Imports the official KPD classification file: CSV with code and name columns (headers such as
+     * "Šifra;Naziv" are recognised). Existing codes get the file's name unless
+     * {@code updateExisting=false}, in which case they are reported as errors.
+     */
+    @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<KpdImportResult> importCsv(@RequestPart("file") MultipartFile file,
+                                                     @RequestParam(defaultValue = "true") boolean updateExisting) throws IOException {
+        try (InputStream in = file.getInputStream()) {
+            return ResponseEntity.ok(kpdImportService.importCsv(in, updateExisting));
+        }
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<Kpd> update(@PathVariable Long id, @RequestBody Kpd kpd) {
         return ResponseEntity.ok(kpdService.update(id, kpd));
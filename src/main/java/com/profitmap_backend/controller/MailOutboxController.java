@@ -0,0 +1,25 @@
+package com.profitmap_backend.controller;
+
+import com.profitmap_backend.dto.MailOutboxStatusDto;
+import com.profitmap_backend.service.MailOutboxService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/mail/outbox")
+@RequiredArgsConstructor
+public class MailOutboxController {
+
+    private final MailOutboxService mailOutboxService;
+
+    /**
+     * Delivery status of a queued email (PENDING, SENDING, SENT or DEAD)
+     */
+    @GetMapping("/{id}")
+    public ResponseEntity<MailOutboxStatusDto> getStatus(@PathVariable Long id) {
+        return mailOutboxService.getStatus(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+}
@@ -1,11 +1,17 @@
 package com.profitmap_backend.controller;
 
+import com.profitmap_backend.dto.ProductImportResult;
 import com.profitmap_backend.model.Product;
+import com.profitmap_backend.service.ProductImportService;
 import com.profitmap_backend.service.ProductService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 
 @RestController
@@ -13,6 +19,7 @@ import java.util.List;
 @RequiredArgsConstructor
 public class ProductController {
     private final ProductService productService;
+    private final ProductImportService productImportService;
 
     @GetMapping
     public ResponseEntity<List<Product>> getAll() {
@@ -34,6 +41,19 @@ public class ProductController {
         return ResponseEntity.ok(productService.create(product));
     }
 
+    /**
+     * Imports the company's products from a CSV price list: name, price and KPD code columns, or a
+     * header naming them ("Naziv;Cijena;KPD"; a "KPD id" column is accepted instead of the code).
+     * Invalid rows are reported by line and skipped.
+     */
+    @PostMapping(value = "/company/{companyId}/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<ProductImportResult> importCsv(@PathVariable Long companyId,
+                                                         @RequestPart("file") MultipartFile file) throws IOException {
+        try (InputStream in = file.getInputStream()) {
+            return ResponseEntity.ok(productImportService.importCsv(companyId, in));
+        }
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<Product> update(@PathVariable Long id, @RequestBody Product product) {
         return ResponseEntity.ok(productService.update(id, product));
@@ -1,7 +1,10 @@
 package com.profitmap_backend.controller;
 
+import com.profitmap_backend.dto.PageResponse;
 import com.profitmap_backend.dto.UserDto;
+import com.profitmap_backend.dto.UserSummaryDto;
 import com.profitmap_backend.dto.UserStatusUpdateRequest;
+import com.profitmap_backend.model.UserStatus;
 import com.profitmap_backend.service.UserService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
@@ -9,7 +12,6 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -19,9 +21,21 @@ public class UserController {
 
     private final UserService userService;
 
+    /**
+     * Admin user listing, one page at a time.
+     *
+     * @param q      searches username, email, first and last name
+     * @param sort   {@code property[,asc|desc]}, e.g. {@code createdAt,desc} (the default)
+     */
     @GetMapping
-    public ResponseEntity<List<UserDto>> getAllUsers() {
-        return ResponseEntity.ok(userService.getAllUsers());
+    public ResponseEntity<PageResponse<UserSummaryDto>> getUsers(
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) UserStatus status,
+            @RequestParam(required = false) Long companyId,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size,
+            @RequestParam(required = false) String sort) {
+        return ResponseEntity.ok(userService.getUsers(companyId, status, q, page, size, sort));
     }
     
     /**
@@ -0,0 +1,46 @@
+package com.profitmap_backend.dto;
+
+import com.profitmap_backend.model.BulkMailJobStatus;
+import com.profitmap_backend.model.DocumentStatus;
+import com.profitmap_backend.model.DocumentType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Progress of a bulk send. Documents move from pending to queued (or skipped/failed) as the job runs;
+ * queued emails then move from delivering to sent (or dead) as the mail outbox delivers them.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BulkMailJobDto {
+    private Long id;
+    private Long companyId;
+    private DocumentType documentType;
+    private DocumentStatus documentStatus;
+    private LocalDate dateFrom;
+    private LocalDate dateTo;
+    private BulkMailJobStatus status;
+    private String lastError;
+    private LocalDateTime createdAt;
+    private LocalDateTime completedAt;
+
+    private long total;
+    // Not handled by the job yet
+    private long pending;
+    private long queued;
+    private long skipped;
+    private long failed;
+    // Queued emails by delivery status
+    private long delivering;
+    private long sent;
+    private long dead;
+
+    private PageResponse<BulkMailJobItemDto> items;
+}
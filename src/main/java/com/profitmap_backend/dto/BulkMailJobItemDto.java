@@ -0,0 +1,30 @@
+package com.profitmap_backend.dto;
+
+import com.profitmap_backend.model.BulkMailItemStatus;
+import com.profitmap_backend.model.MailAccount;
+import com.profitmap_backend.model.MailOutboxStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Progress of one document in a bulk send, joined with the delivery status of its email.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BulkMailJobItemDto {
+    private Long documentId;
+    private String documentNumber;
+    private BulkMailItemStatus status;
+    private Long outboxId;
+    // Null until the email is queued
+    private MailOutboxStatus deliveryStatus;
+    private MailAccount account;
+    private String error;
+    private LocalDateTime sentAt;
+}
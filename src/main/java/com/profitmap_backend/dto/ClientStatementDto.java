@@ -0,0 +1,58 @@
+package com.profitmap_backend.dto;
+
+import com.profitmap_backend.model.DocumentStatus;
+import com.profitmap_backend.model.DocumentType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Account statement for one client: totals over all of the client's documents
+ * plus one chronological page of offers and invoices.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ClientStatementDto {
+    private Long clientId;
+    private Long companyId;
+    private String clientName;
+
+    private long offerCount;
+    private BigDecimal offerTotal;
+
+    private long invoiceCount;
+    private BigDecimal invoiceTotal;
+
+    // Invoices still PENDING
+    private BigDecimal openBalance;
+    // Invoices RECEIVED
+    private BigDecimal paidTotal;
+    // PENDING invoices past their expiration date
+    private long overdueCount;
+    private BigDecimal overdueTotal;
+
+    private PageResponse<Entry> entries;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class Entry {
+        private Long documentId;
+        private String documentNumber;
+        private DocumentType documentType;
+        private DocumentStatus status;
+        private LocalDate documentDate;
+        private LocalDate expirationDate;
+        private BigDecimal totalPrice;
+        private boolean overdue;
+        // Open balance after this document, counting every earlier document of the client
+        private BigDecimal runningOpenBalance;
+    }
+}
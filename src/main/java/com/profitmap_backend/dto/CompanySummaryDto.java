@@ -0,0 +1,28 @@
+package com.profitmap_backend.dto;
+
+import com.profitmap_backend.model.CompanyStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * One row of the admin company listing, projected straight from the query.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CompanySummaryDto {
+    private Long id;
+    private String companyName;
+    private String oib;
+    private String email;
+    private CompanyStatus status;
+    private Boolean isDemo;
+    private LocalDateTime demoExpiration;
+    private Boolean isPdvActive;
+    private Boolean isKpdActive;
+    private LocalDateTime createdAt;
+    private long userCount;
+}
@@ -0,0 +1,62 @@
+package com.profitmap_backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Everything the PDF layout shows, resolved and formatted up front so rendering runs
+ * off the request thread without touching JPA entities.
+ */
+@Getter
+@Builder
+@AllArgsConstructor
+public class DocumentPdfModel {
+    private Long documentId;
+    private Long companyId;
+    private String fileName;
+
+    private String title;
+    private String documentNumber;
+    private String documentDate;
+    private String expirationLabel;
+    private String expirationDate;
+
+    private String companyName;
+    private String companyOib;
+    private String companyPdv;
+    private String companyMbs;
+    private String companyBank;
+    private String companyIban;
+    private String companySwiftBic;
+    private String companyPhone;
+    private String companyEmail;
+    private String responsiblePerson;
+    private String logoPath;
+    private boolean pdvActive;
+
+    private String clientName;
+    private String clientOib;
+    private String clientAddress;
+    private String clientEmail;
+
+    private List<Line> lines;
+    private String totalNet;
+    private String totalPdv;
+    private String totalGross;
+
+    @Getter
+    @Builder
+    @AllArgsConstructor
+    public static class Line {
+        private int position;
+        private String name;
+        private String comment;
+        private String quantity;
+        private String price;
+        private String discount;
+        private String total;
+    }
+}
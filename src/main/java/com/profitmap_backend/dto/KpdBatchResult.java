@@ -21,6 +21,8 @@ public class KpdBatchResult {
     @AllArgsConstructor
     @Builder
     public static class KpdError {
+        // Line in the imported file; null for JSON batches
+        private Long line;
         private String code;
         private String name;
         private String errorMessage;
@@ -0,0 +1,21 @@
+package com.profitmap_backend.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of a KPD classification file import. Only the first errors are listed; {@code failed}
+ * counts all of them.
+ */
+@Data
+@NoArgsConstructor
+public class KpdImportResult {
+    private int inserted;
+    private int updated;
+    private int unchanged;
+    private int failed;
+    private List<KpdBatchResult.KpdError> errors = new ArrayList<>();
+}
@@ -0,0 +1,25 @@
+package com.profitmap_backend.dto;
+
+import com.profitmap_backend.model.MailAccount;
+import com.profitmap_backend.model.MailOutboxStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MailOutboxStatusDto {
+    private Long id;
+    private MailOutboxStatus status;
+    private MailAccount account;
+    private Integer attempts;
+    private String lastError;
+    private LocalDateTime createdAt;
+    private LocalDateTime nextAttemptAt;
+    private LocalDateTime sentAt;
+}
@@ -0,0 +1,27 @@
+package com.profitmap_backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * An overdue invoice as listed in a payment reminder.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OverdueInvoiceDto {
+    private Long documentId;
+    private String documentNumber;
+    private LocalDate documentDate;
+    private LocalDate expirationDate;
+    private BigDecimal totalPrice;
+    private String clientEmail;
+    private String clientName;
+    private String clientSurname;
+}
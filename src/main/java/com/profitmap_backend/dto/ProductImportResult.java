@@ -0,0 +1,33 @@
+package com.profitmap_backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of a product price list import. Only the first errors are listed; {@code failed} counts
+ * all of them.
+ */
+@Data
+@NoArgsConstructor
+public class ProductImportResult {
+    private int inserted;
+    private int failed;
+    private List<RowError> errors = new ArrayList<>();
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class RowError {
+        private long line;
+        private String name;
+        private String price;
+        private String kpd;
+        private String errorMessage;
+    }
+}
@@ -0,0 +1,37 @@
+package com.profitmap_backend.dto;
+
+import com.profitmap_backend.model.UserRole;
+import com.profitmap_backend.model.UserStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+
+/**
+ * One row of the admin user listing, projected straight from the query.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserSummaryDto {
+    private Long id;
+    private String username;
+    private String email;
+    private String firstName;
+    private String lastName;
+    private UserStatus status;
+    private Set<UserRole> roles;
+    private Long companyId;
+    private String companyName;
+    private LocalDateTime createdAt;
+
+    // JPQL constructor expression; roles arrive as the stored bitmask
+    public UserSummaryDto(Long id, String username, String email, String firstName, String lastName,
+                          UserStatus status, int roleMask, Long companyId, String companyName,
+                          LocalDateTime createdAt) {
+        this(id, username, email, firstName, lastName, status, UserRole.fromMask(roleMask),
+                companyId, companyName, createdAt);
+    }
+}
@@ -0,0 +1,7 @@
+package com.profitmap_backend.model;
+
+public enum BulkMailItemStatus {
+    QUEUED,     // email is in the mail outbox (see outboxId for delivery status)
+    SKIPPED,    // client has no email address
+    FAILED      // PDF could not be rendered or the email could not be queued
+}
@@ -0,0 +1,52 @@
+package com.profitmap_backend.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * One document of a bulk send. The unique (job, document) pair makes a resumed job skip
+ * documents it already handled.
+ */
+@Entity
+@Table(
+    name = "bulk_mail_job_items",
+    uniqueConstraints = {
+        @UniqueConstraint(name = "uk_bulk_mail_job_items_job_document", columnNames = {"job_id", "document_id"})
+    }
+)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BulkMailJobItem {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "job_id", nullable = false)
+    private Long jobId;
+
+    @Column(name = "document_id", nullable = false)
+    private Long documentId;
+
+    @Column(name = "document_number")
+    private String documentNumber;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private BulkMailItemStatus status;
+
+    // Mail outbox row of the queued email, null when skipped or failed
+    @Column(name = "outbox_id")
+    private Long outboxId;
+
+    @Column(length = 1000)
+    private String error;
+
+    @CreationTimestamp
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,8 @@
+package com.profitmap_backend.model;
+
+public enum BulkMailJobStatus {
+    QUEUED,     // created, documents not picked yet
+    RUNNING,    // documents being rendered and queued in the mail outbox
+    COMPLETED,  // every document queued or skipped; delivery continues in the outbox
+    FAILED      // stopped on an unexpected error
+}
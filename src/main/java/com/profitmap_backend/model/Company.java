@@ -10,7 +10,10 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
-@Table(name = "companies")
+@Table(name = "companies", indexes = {
+        // Default order of the admin company listing
+        @Index(name = "idx_companies_created_at", columnList = "created_at")
+})
 @Getter
 @Setter
 @NoArgsConstructor
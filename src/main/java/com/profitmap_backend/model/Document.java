@@ -19,6 +19,7 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
@@ -31,7 +32,13 @@ import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 @Entity
-@Table(name = "documents")
+@Table(
+    name = "documents",
+    indexes = {
+        @Index(name = "idx_documents_company_type_status_date", columnList = "company_id, document_type, status, document_date"),
+        @Index(name = "idx_documents_company_type_status_expiration", columnList = "company_id, document_type, status, expiration_date")
+    }
+)
 @Getter
 @Setter
 @NoArgsConstructor
@@ -93,6 +100,14 @@ public class Document {
     @Column(name = "deleted_at")
     private LocalDateTime deletedAt; // For soft delete
 
+    // Overdue payment reminders (InvoiceReminderService)
+    @Column(name = "last_reminder_at")
+    private LocalDateTime lastReminderAt;
+
+    @Column(name = "reminder_count", nullable = false)
+    @Builder.Default
+    private int reminderCount = 0;
+
     // Soft delete method
     public void softDelete() {
         this.deletedAt = LocalDateTime.now();
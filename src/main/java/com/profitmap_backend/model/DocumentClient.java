@@ -7,7 +7,12 @@ import org.hibernate.annotations.CreationTimestamp;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "document_clients")
+@Table(
+    name = "document_clients",
+    indexes = {
+        @Index(name = "idx_document_clients_original_client", columnList = "original_client_id")
+    }
+)
 @Getter
 @Setter
 @NoArgsConstructor
@@ -43,7 +48,7 @@ public class DocumentClient {
     @Column
     private String surname;
 
-    // Reference to original client (for tracking)
+    // Reference to original client (for tracking and per-client statements)
     // Nullable because documents can be created with manually entered client data
     @Column(name = "original_client_id")
     private Long originalClientId;
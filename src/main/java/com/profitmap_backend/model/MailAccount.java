@@ -0,0 +1,7 @@
+package com.profitmap_backend.model;
+
+public enum MailAccount {
+    AUTO,       // picked by MailRouter at delivery time, then replaced by the account that sent it
+    PRIMARY,    // spring.mail.* account
+    SECOND      // mail.second-account.* (falls back to PRIMARY when not configured)
+}
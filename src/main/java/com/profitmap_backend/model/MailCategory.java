@@ -0,0 +1,6 @@
+package com.profitmap_backend.model;
+
+public enum MailCategory {
+    SYSTEM,     // Activation and other platform emails
+    CUSTOMER    // Invoices and offers sent on behalf of a company
+}
@@ -0,0 +1,113 @@
+package com.profitmap_backend.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Durable queue of outgoing emails. Rows are written in the caller's transaction
+ * and drained by MailOutboxWorker, so mail survives restarts and SMTP outages.
+ */
+@Entity
+@Table(
+    name = "mail_outbox",
+    indexes = {
+        @Index(name = "idx_mail_outbox_status_category_next_attempt", columnList = "status, category, next_attempt_at"),
+        @Index(name = "idx_mail_outbox_status_updated_at", columnList = "status, updated_at"),
+        @Index(name = "uk_mail_outbox_idempotency_key", columnList = "idempotency_key", unique = true)
+    }
+)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MailOutbox {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private MailCategory category;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private MailAccount account;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    @Builder.Default
+    private MailOutboxStatus status = MailOutboxStatus.PENDING;
+
+    @Column(name = "to_address", nullable = false)
+    private String toAddress;
+
+    @Column(nullable = false, length = 500)
+    private String subject;
+
+    @Column(name = "html_body", nullable = false, columnDefinition = "LONGTEXT")
+    private String htmlBody;
+
+    @Column(name = "reply_to")
+    private String replyTo;
+
+    @Column(name = "from_personal_name")
+    private String fromPersonalName;
+
+    @Column(name = "attachment_name")
+    private String attachmentName;
+
+    /**
+     * Spooled attachment file (see MailAttachmentSpool).
+     */
+    @Column(name = "attachment_path", length = 1000)
+    private String attachmentPath;
+
+    /**
+     * Inline attachment of emails queued before attachments were spooled to disk.
+     */
+    @Lob
+    @Column(name = "attachment_data", columnDefinition = "LONGBLOB")
+    private byte[] attachmentData;
+
+    /**
+     * Deduplicates repeated send requests (see MailIdempotencyService). Null for mail without a key.
+     */
+    @Column(name = "idempotency_key", length = 64)
+    private String idempotencyKey;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Integer attempts = 0;
+
+    /**
+     * Times the email was handed to another account after throttling (see MailOutboxWorker).
+     */
+    @Column(name = "throttle_failovers", nullable = false)
+    @ColumnDefault("0")
+    @Builder.Default
+    private Integer throttleFailovers = 0;
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "locked_at")
+    private LocalDateTime lockedAt;
+
+    @Column(name = "sent_at")
+    private LocalDateTime sentAt;
+
+    @CreationTimestamp
+    private LocalDateTime createdAt;
+
+    @UpdateTimestamp
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,8 @@
+package com.profitmap_backend.model;
+
+public enum MailOutboxStatus {
+    PENDING,    // Waiting for first delivery or for the next retry
+    SENDING,    // Claimed by a worker
+    SENT,
+    DEAD        // Gave up after max attempts or a permanent failure
+}
@@ -0,0 +1,34 @@
+package com.profitmap_backend.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Cluster-wide lock for a scheduled job, so only one node runs it at a time. See SchedulerLockService.
+ */
+@Entity
+@Table(name = "scheduler_locks")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SchedulerLock {
+    @Id
+    @Column(name = "name", length = 64)
+    private String name;
+
+    /**
+     * The lock is free once this has passed, even if its holder never released it (e.g. crashed).
+     */
+    @Column(name = "locked_until", nullable = false)
+    private LocalDateTime lockedUntil;
+
+    @Column(name = "locked_at")
+    private LocalDateTime lockedAt;
+
+    @Column(name = "locked_by")
+    private String lockedBy;
+}
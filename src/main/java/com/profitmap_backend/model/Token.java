@@ -9,6 +9,7 @@ import java.time.LocalDateTime;
 @Entity
 @Table(name = "tokens", indexes = {
     @Index(name = "idx_token_hash", columnList = "token_hash"),
+    @Index(name = "uk_tokens_selector", columnList = "selector", unique = true),
     @Index(name = "idx_user_type_used", columnList = "user_id,type,used"),
     @Index(name = "idx_expires_at", columnList = "expires_at")
 })
@@ -26,6 +27,16 @@ public class Token {
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
 
+    /**
+     * Public, random lookup part of the token. Null for tokens issued before selectors were
+     * introduced; those carry a BCrypt hash of the whole token instead.
+     */
+    @Column(name = "selector", length = 32)
+    private String selector;
+
+    /**
+     * HMAC-SHA256 (hex) of the token's secret verifier part, or a BCrypt hash for tokens without selector.
+     */
     @Column(name = "token_hash", nullable = false, length = 255)
     private String tokenHash;
 
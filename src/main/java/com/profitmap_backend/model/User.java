@@ -3,16 +3,22 @@ package com.profitmap_backend.model;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.util.HashSet;
+import java.util.AbstractSet;
+import java.util.Iterator;
 import java.util.Set;
 
 @Entity
-@Table(name = "users")
+@Table(name = "users", indexes = {
+        @Index(name = "idx_users_tokens_not_before", columnList = "tokens_not_before"),
+        // Default order of the admin user listing
+        @Index(name = "idx_users_created_at", columnList = "created_at")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -44,18 +50,26 @@ public class User {
 
     private String phoneNumber;
 
-    @ElementCollection(fetch = FetchType.EAGER)
-    @CollectionTable(name = "user_roles", joinColumns = @JoinColumn(name = "user_id"))
-    @Column(name = "role")
-    @Enumerated(EnumType.STRING)
-    @Builder.Default
-    private Set<UserRole> roles = new HashSet<>();
+    /**
+     * Roles as a bitmask of {@link UserRole#bit()}; use {@link #getRoles()} instead.
+     */
+    @Column(name = "role_mask", nullable = false)
+    @ColumnDefault("0")
+    @JsonIgnore
+    private int roleMask;
 
     @Enumerated(EnumType.STRING)
     @Column(name = "status", nullable = false)
     @Builder.Default
     private UserStatus status = UserStatus.PENDING;
 
+    /**
+     * Tokens issued before this no longer carry the user's current status, roles or company.
+     * Set whenever one of those changes; see RevocationRegistry.
+     */
+    @Column(name = "tokens_not_before")
+    private LocalDateTime tokensNotBefore;
+
     @CreationTimestamp
     private LocalDateTime createdAt;
 
@@ -66,4 +80,78 @@ public class User {
     @JoinColumn(name = "company_id")
     @JsonIgnore
     private Company company;
+
+    /**
+     * Live view of the role mask: adding or removing a role updates the mask.
+     */
+    public Set<UserRole> getRoles() {
+        return new RoleSet();
+    }
+
+    public void setRoles(Set<UserRole> roles) {
+        this.roleMask = UserRole.toMask(roles);
+    }
+
+    private class RoleSet extends AbstractSet<UserRole> {
+
+        @Override
+        public Iterator<UserRole> iterator() {
+            Iterator<UserRole> roles = UserRole.fromMask(roleMask).iterator();
+            return new Iterator<>() {
+                private UserRole last;
+
+                @Override
+                public boolean hasNext() {
+                    return roles.hasNext();
+                }
+
+                @Override
+                public UserRole next() {
+                    last = roles.next();
+                    return last;
+                }
+
+                @Override
+                public void remove() {
+                    if (last == null) {
+                        throw new IllegalStateException();
+                    }
+                    roleMask &= ~last.bit();
+                    last = null;
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return UserRole.fromMask(roleMask).size();
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return o instanceof UserRole role && (roleMask & role.bit()) != 0;
+        }
+
+        @Override
+        public boolean add(UserRole role) {
+            int before = roleMask;
+            roleMask |= role.bit();
+            return roleMask != before;
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            if (!(o instanceof UserRole role)) {
+                return false;
+            }
+            int before = roleMask;
+            roleMask &= ~role.bit();
+            return roleMask != before;
+        }
+
+        @Override
+        public void clear() {
+            roleMask = 0;
+        }
+    }
 }
\ No newline at end of file
@@ -1,9 +1,47 @@
 package com.profitmap_backend.model;
 
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Roles are stored together as a bitmask in {@code users.role_mask}; each role owns a fixed bit,
+ * so new roles must take a new bit and existing bits must never be reassigned.
+ */
 public enum UserRole {
-    ADMIN,
-    USER,
-    OWNER
-    //ACCOUNTANT
-}
+    ADMIN(1),
+    USER(1 << 1),
+    OWNER(1 << 2);
+    //ACCOUNTANT(1 << 3)
+
+    private final int bit;
+
+    UserRole(int bit) {
+        this.bit = bit;
+    }
 
+    public int bit() {
+        return bit;
+    }
+
+    public static int toMask(Collection<UserRole> roles) {
+        int mask = 0;
+        for (UserRole role : roles) {
+            mask |= role.bit;
+        }
+        return mask;
+    }
+
+    /**
+     * The roles in the mask; bits of unknown roles are ignored.
+     */
+    public static Set<UserRole> fromMask(int mask) {
+        Set<UserRole> roles = EnumSet.noneOf(UserRole.class);
+        for (UserRole role : values()) {
+            if ((mask & role.bit) != 0) {
+                roles.add(role);
+            }
+        }
+        return roles;
+    }
+}
@@ -0,0 +1,37 @@
+package com.profitmap_backend.repository;
+
+import com.profitmap_backend.dto.BulkMailJobItemDto;
+import com.profitmap_backend.model.BulkMailJobItem;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface BulkMailJobItemRepository extends JpaRepository<BulkMailJobItem, Long> {
+
+    boolean existsByJobIdAndDocumentId(Long jobId, Long documentId);
+
+    // Rows of [itemStatus, outboxStatus (null when not queued), count]
+    @Query("SELECT i.status, m.status, COUNT(i) FROM BulkMailJobItem i " +
+           "LEFT JOIN MailOutbox m ON m.id = i.outboxId " +
+           "WHERE i.jobId = :jobId GROUP BY i.status, m.status")
+    List<Object[]> summarizeJob(@Param("jobId") Long jobId);
+
+    // Emails of the job still waiting for delivery
+    @Query("SELECT COUNT(i) FROM BulkMailJobItem i JOIN MailOutbox m ON m.id = i.outboxId " +
+           "WHERE i.jobId = :jobId AND m.status IN (com.profitmap_backend.model.MailOutboxStatus.PENDING, " +
+           "com.profitmap_backend.model.MailOutboxStatus.SENDING)")
+    long countUndelivered(@Param("jobId") Long jobId);
+
+    @Query(value = "SELECT new com.profitmap_backend.dto.BulkMailJobItemDto(" +
+                   "i.documentId, i.documentNumber, i.status, i.outboxId, m.status, m.account, i.error, m.sentAt) " +
+                   "FROM BulkMailJobItem i LEFT JOIN MailOutbox m ON m.id = i.outboxId " +
+                   "WHERE i.jobId = :jobId ORDER BY i.id",
+           countQuery = "SELECT COUNT(i) FROM BulkMailJobItem i WHERE i.jobId = :jobId")
+    Page<BulkMailJobItemDto> findItems(@Param("jobId") Long jobId, Pageable pageable);
+}
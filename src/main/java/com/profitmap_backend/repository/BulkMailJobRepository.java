@@ -0,0 +1,42 @@
+package com.profitmap_backend.repository;
+
+import com.profitmap_backend.model.BulkMailJob;
+import com.profitmap_backend.model.BulkMailJobStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface BulkMailJobRepository extends JpaRepository<BulkMailJob, Long> {
+
+    List<BulkMailJob> findByStatusInOrderByIdAsc(Collection<BulkMailJobStatus> statuses);
+
+    /**
+     * Starts a queued job, or takes over a running one whose node stopped updating it.
+     * Only one node gets 1 back, so a job never runs twice at the same time.
+     */
+    @Modifying
+    @Query("UPDATE BulkMailJob j SET j.status = com.profitmap_backend.model.BulkMailJobStatus.RUNNING, j.updatedAt = :now " +
+           "WHERE j.id = :id AND (j.status = com.profitmap_backend.model.BulkMailJobStatus.QUEUED " +
+           "OR (j.status = com.profitmap_backend.model.BulkMailJobStatus.RUNNING AND j.updatedAt < :staleBefore))")
+    int claim(@Param("id") Long id, @Param("staleBefore") LocalDateTime staleBefore, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE BulkMailJob j SET j.updatedAt = :now " +
+           "WHERE j.id = :id AND j.status = com.profitmap_backend.model.BulkMailJobStatus.RUNNING")
+    int heartbeat(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE BulkMailJob j SET j.status = :status, j.lastError = :lastError, j.completedAt = :now, j.updatedAt = :now " +
+           "WHERE j.id = :id")
+    int finish(@Param("id") Long id,
+               @Param("status") BulkMailJobStatus status,
+               @Param("lastError") String lastError,
+               @Param("now") LocalDateTime now);
+}
@@ -1,10 +1,16 @@
 package com.profitmap_backend.repository;
 
+import com.profitmap_backend.dto.CompanySummaryDto;
 import com.profitmap_backend.model.Company;
+import com.profitmap_backend.model.CompanyStatus;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 public interface CompanyRepository extends JpaRepository<Company, Long> {
@@ -13,4 +19,34 @@ public interface CompanyRepository extends JpaRepository<Company, Long> {
     
     @Query("SELECT c FROM Company c JOIN c.users u WHERE u.id = :userId")
     Optional<Company> findByUserId(@Param("userId") Long userId);
+    
+    @Query("SELECT c.id FROM Company c WHERE c.status = com.profitmap_backend.model.CompanyStatus.ACTIVE " +
+           "AND c.id > :afterId ORDER BY c.id")
+    List<Long> findActiveIdsAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Query("SELECT c.id FROM Company c WHERE c.status = com.profitmap_backend.model.CompanyStatus.INACTIVE")
+    List<Long> findInactiveIds();
+
+    /**
+     * Rows of [id, status] for companies changed since the given time.
+     */
+    @Query("SELECT c.id, c.status FROM Company c WHERE c.updatedAt >= :since")
+    List<Object[]> findStatusChangesSince(@Param("since") LocalDateTime since);
+
+    /**
+     * Admin listing: optional status filter and name/OIB/email search ({@code pattern} is a LIKE
+     * pattern with '!' as escape character, or null), with the user count of each company.
+     */
+    @Query(value = "SELECT new com.profitmap_backend.dto.CompanySummaryDto(c.id, c.companyName, c.oib, c.email, " +
+                   "c.status, c.isDemo, c.demoExpiration, c.isPdvActive, c.isKpdActive, c.createdAt, " +
+                   "(SELECT COUNT(u) FROM User u WHERE u.company = c)) FROM Company c " +
+                   "WHERE (:status IS NULL OR c.status = :status) " +
+                   "AND (:pattern IS NULL OR LOWER(c.companyName) LIKE :pattern ESCAPE '!' " +
+                   "OR LOWER(c.oib) LIKE :pattern ESCAPE '!' OR LOWER(c.email) LIKE :pattern ESCAPE '!')",
+           countQuery = "SELECT COUNT(c) FROM Company c WHERE (:status IS NULL OR c.status = :status) " +
+                        "AND (:pattern IS NULL OR LOWER(c.companyName) LIKE :pattern ESCAPE '!' " +
+                        "OR LOWER(c.oib) LIKE :pattern ESCAPE '!' OR LOWER(c.email) LIKE :pattern ESCAPE '!')")
+    Page<CompanySummaryDto> findSummaries(@Param("status") CompanyStatus status,
+                                          @Param("pattern") String pattern,
+                                          Pageable pageable);
 }
@@ -1,12 +1,21 @@
 package com.profitmap_backend.repository;
 
+import com.profitmap_backend.dto.OverdueInvoiceDto;
 import com.profitmap_backend.model.Document;
+import com.profitmap_backend.model.DocumentStatus;
 import com.profitmap_backend.model.DocumentType;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -30,6 +39,13 @@ public interface DocumentRepository extends JpaRepository<Document, Long> {
     
     @Query("SELECT d FROM Document d JOIN FETCH d.company JOIN FETCH d.documentClient WHERE d.id = :documentId AND d.deletedAt IS NULL")
     Optional<Document> findByIdWithCompanyAndClient(@Param("documentId") Long documentId);
+
+    /**
+     * Loads everything needed to render the document PDF in one query.
+     */
+    @Query("SELECT DISTINCT d FROM Document d JOIN FETCH d.company JOIN FETCH d.documentClient " +
+           "LEFT JOIN FETCH d.documentItems WHERE d.id = :documentId AND d.deletedAt IS NULL")
+    Optional<Document> findByIdWithDetails(@Param("documentId") Long documentId);
     
     @Query("SELECT d FROM Document d JOIN FETCH d.company WHERE d.company.id = :companyId AND d.deletedAt IS NULL ORDER BY d.documentDate DESC")
     List<Document> findActiveDocumentsByCompanyWithCompany(@Param("companyId") Long companyId);
@@ -39,4 +55,101 @@ public interface DocumentRepository extends JpaRepository<Document, Long> {
     
     @Query("SELECT d FROM Document d JOIN FETCH d.company WHERE d.documentNumber = :documentNumber AND d.company.id = :companyId AND d.deletedAt IS NULL")
     Optional<Document> findByDocumentNumberAndCompanyIdWithCompany(@Param("documentNumber") String documentNumber, @Param("companyId") Long companyId);
+    
+    // ========== BULK SEND QUERIES ==========
+    // Driven by idx_documents_company_type_status_date; keyset on id so a resumed job continues where it stopped
+    
+    @Query("SELECT d.id FROM Document d WHERE d.company.id = :companyId AND d.documentType = :documentType " +
+           "AND (:status IS NULL OR d.status = :status) " +
+           "AND (:dateFrom IS NULL OR d.documentDate >= :dateFrom) AND (:dateTo IS NULL OR d.documentDate <= :dateTo) " +
+           "AND d.id > :afterId AND d.deletedAt IS NULL ORDER BY d.id")
+    List<Long> findIdsForBulkSend(@Param("companyId") Long companyId,
+                                  @Param("documentType") DocumentType documentType,
+                                  @Param("status") DocumentStatus status,
+                                  @Param("dateFrom") LocalDate dateFrom,
+                                  @Param("dateTo") LocalDate dateTo,
+                                  @Param("afterId") Long afterId,
+                                  Pageable pageable);
+    
+    @Query("SELECT COUNT(d) FROM Document d WHERE d.company.id = :companyId AND d.documentType = :documentType " +
+           "AND (:status IS NULL OR d.status = :status) " +
+           "AND (:dateFrom IS NULL OR d.documentDate >= :dateFrom) AND (:dateTo IS NULL OR d.documentDate <= :dateTo) " +
+           "AND d.deletedAt IS NULL")
+    long countForBulkSend(@Param("companyId") Long companyId,
+                          @Param("documentType") DocumentType documentType,
+                          @Param("status") DocumentStatus status,
+                          @Param("dateFrom") LocalDate dateFrom,
+                          @Param("dateTo") LocalDate dateTo);
+    
+    // ========== OVERDUE REMINDER QUERIES ==========
+    // Driven by idx_documents_company_type_status_expiration; keyset on (expirationDate, id) follows the index order
+    
+    @Query("SELECT new com.profitmap_backend.dto.OverdueInvoiceDto(" +
+           "d.id, d.documentNumber, d.documentDate, d.expirationDate, d.totalPrice, dc.email, dc.name, dc.surname) " +
+           "FROM Document d JOIN d.documentClient dc " +
+           "WHERE d.company.id = :companyId AND d.documentType = com.profitmap_backend.model.DocumentType.INVOICE " +
+           "AND d.status = com.profitmap_backend.model.DocumentStatus.PENDING AND d.expirationDate < :dueBefore " +
+           "AND (:afterExpiration IS NULL OR d.expirationDate > :afterExpiration " +
+           "OR (d.expirationDate = :afterExpiration AND d.id > :afterId)) " +
+           "AND (d.lastReminderAt IS NULL OR d.lastReminderAt < :remindBefore) AND d.reminderCount < :maxReminders " +
+           "AND d.deletedAt IS NULL ORDER BY d.expirationDate, d.id")
+    List<OverdueInvoiceDto> findOverdueForReminder(@Param("companyId") Long companyId,
+                                                   @Param("dueBefore") LocalDate dueBefore,
+                                                   @Param("remindBefore") LocalDateTime remindBefore,
+                                                   @Param("maxReminders") int maxReminders,
+                                                   @Param("afterExpiration") LocalDate afterExpiration,
+                                                   @Param("afterId") Long afterId,
+                                                   Pageable pageable);
+    
+    /**
+     * Records a reminder for the given invoices unless another run reminded them in the meantime.
+     *
+     * @return number of invoices marked; less than ids.size() means another run got there first
+     */
+    @Modifying
+    @Query("UPDATE Document d SET d.lastReminderAt = :now, d.reminderCount = d.reminderCount + 1 " +
+           "WHERE d.id IN :ids AND (d.lastReminderAt IS NULL OR d.lastReminderAt < :remindBefore)")
+    int markReminded(@Param("ids") Collection<Long> ids,
+                     @Param("remindBefore") LocalDateTime remindBefore,
+                     @Param("now") LocalDateTime now);
+    
+    // ========== CLIENT STATEMENT QUERIES ==========
+    // All driven by idx_document_clients_original_client, then the document_client_id foreign key index
+    
+    @Query(value = "SELECT d FROM Document d JOIN d.documentClient dc " +
+                   "WHERE d.company.id = :companyId AND dc.originalClientId = :clientId AND d.deletedAt IS NULL",
+           countQuery = "SELECT COUNT(d) FROM Document d JOIN d.documentClient dc " +
+                        "WHERE d.company.id = :companyId AND dc.originalClientId = :clientId AND d.deletedAt IS NULL")
+    Page<Document> findClientDocuments(@Param("companyId") Long companyId,
+                                       @Param("clientId") Long clientId,
+                                       Pageable pageable);
+    
+    // Rows of [documentType, status, count, sum(totalPrice)]
+    @Query("SELECT d.documentType, d.status, COUNT(d), COALESCE(SUM(d.totalPrice), 0) " +
+           "FROM Document d JOIN d.documentClient dc " +
+           "WHERE d.company.id = :companyId AND dc.originalClientId = :clientId AND d.deletedAt IS NULL " +
+           "GROUP BY d.documentType, d.status")
+    List<Object[]> summarizeClientDocuments(@Param("companyId") Long companyId, @Param("clientId") Long clientId);
+    
+    // Single row of [count, sum(totalPrice)]
+    @Query("SELECT COUNT(d), COALESCE(SUM(d.totalPrice), 0) FROM Document d JOIN d.documentClient dc " +
+           "WHERE d.company.id = :companyId AND dc.originalClientId = :clientId AND d.deletedAt IS NULL " +
+           "AND d.documentType = :documentType AND d.status = :status AND d.expirationDate < :today")
+    List<Object[]> summarizeClientDocumentsDueBefore(@Param("companyId") Long companyId,
+                                                     @Param("clientId") Long clientId,
+                                                     @Param("documentType") DocumentType documentType,
+                                                     @Param("status") DocumentStatus status,
+                                                     @Param("today") LocalDate today);
+    
+    // Sum of matching documents ordered before (documentDate, id) - the opening balance of a statement page
+    @Query("SELECT COALESCE(SUM(d.totalPrice), 0) FROM Document d JOIN d.documentClient dc " +
+           "WHERE d.company.id = :companyId AND dc.originalClientId = :clientId AND d.deletedAt IS NULL " +
+           "AND d.documentType = :documentType AND d.status = :status " +
+           "AND (d.documentDate < :documentDate OR (d.documentDate = :documentDate AND d.id < :documentId))")
+    BigDecimal sumClientDocumentsBefore(@Param("companyId") Long companyId,
+                                        @Param("clientId") Long clientId,
+                                        @Param("documentType") DocumentType documentType,
+                                        @Param("status") DocumentStatus status,
+                                        @Param("documentDate") LocalDate documentDate,
+                                        @Param("documentId") Long documentId);
 }
@@ -2,10 +2,20 @@ package com.profitmap_backend.repository;
 
 import com.profitmap_backend.model.Kpd;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface KpdRepository extends JpaRepository<Kpd, Long> {
     Optional<Kpd> findByCode(String code);
+
+    /**
+     * Rows of [id, code, name] for the given codes; callers keep the collection to a chunk.
+     */
+    @Query("SELECT k.id, k.code, k.name FROM Kpd k WHERE k.code IN :codes")
+    List<Object[]> findByCodeIn(@Param("codes") Collection<String> codes);
 }
 
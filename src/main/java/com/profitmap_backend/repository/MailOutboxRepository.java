@@ -0,0 +1,118 @@
+package com.profitmap_backend.repository;
+
+import com.profitmap_backend.dto.MailOutboxStatusDto;
+import com.profitmap_backend.model.MailAccount;
+import com.profitmap_backend.model.MailCategory;
+import com.profitmap_backend.model.MailOutbox;
+import com.profitmap_backend.model.MailOutboxStatus;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface MailOutboxRepository extends JpaRepository<MailOutbox, Long> {
+
+    /**
+     * Locks due rows with SELECT ... FOR UPDATE SKIP LOCKED (lock timeout -2),
+     * so several nodes can drain the outbox without picking the same mail.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT m FROM MailOutbox m WHERE m.status = :status AND m.category = :category " +
+           "AND m.nextAttemptAt <= :now ORDER BY m.nextAttemptAt")
+    List<MailOutbox> findDueForUpdate(@Param("status") MailOutboxStatus status,
+                                      @Param("category") MailCategory category,
+                                      @Param("now") LocalDateTime now,
+                                      Pageable pageable);
+
+    @Query("SELECT new com.profitmap_backend.dto.MailOutboxStatusDto(" +
+           "m.id, m.status, m.account, m.attempts, m.lastError, m.createdAt, m.nextAttemptAt, m.sentAt) " +
+           "FROM MailOutbox m WHERE m.id = :id")
+    Optional<MailOutboxStatusDto> findStatusById(@Param("id") Long id);
+
+    @Modifying
+    @Query("UPDATE MailOutbox m SET m.status = com.profitmap_backend.model.MailOutboxStatus.SENT, " +
+           "m.account = :account, m.attempts = :attempts, m.lastError = NULL, m.sentAt = :now, m.updatedAt = :now, " +
+           "m.attachmentData = NULL WHERE m.id = :id")
+    int markSent(@Param("id") Long id,
+                 @Param("account") MailAccount account,
+                 @Param("attempts") int attempts,
+                 @Param("now") LocalDateTime now);
+
+    /**
+     * Spooled attachment files still referenced by emails in the given states.
+     */
+    @Query("SELECT m.attachmentPath FROM MailOutbox m WHERE m.status IN :statuses AND m.attachmentPath IS NOT NULL")
+    List<String> findAttachmentPathsByStatusIn(@Param("statuses") Collection<MailOutboxStatus> statuses);
+
+    /**
+     * [id, createdAt] of the email queued with this key since the given time; at most one row.
+     */
+    @Query("SELECT m.id, m.createdAt FROM MailOutbox m WHERE m.idempotencyKey = :key AND m.createdAt > :since")
+    List<Object[]> findByIdempotencyKeySince(@Param("key") String key, @Param("since") LocalDateTime since);
+
+    @Modifying
+    @Query("UPDATE MailOutbox m SET m.idempotencyKey = :key WHERE m.id = :id")
+    int assignIdempotencyKey(@Param("id") Long id, @Param("key") String key);
+
+    /**
+     * Frees a key whose deduplication window has passed, so it can be used again.
+     */
+    @Modifying
+    @Query("UPDATE MailOutbox m SET m.idempotencyKey = NULL WHERE m.idempotencyKey = :key")
+    int releaseIdempotencyKey(@Param("key") String key);
+
+    @Modifying
+    @Query("UPDATE MailOutbox m SET m.status = :status, m.attempts = :attempts, m.lastError = :lastError, " +
+           "m.nextAttemptAt = :nextAttemptAt, m.updatedAt = :now WHERE m.id = :id")
+    int markFailed(@Param("id") Long id,
+                   @Param("status") MailOutboxStatus status,
+                   @Param("attempts") int attempts,
+                   @Param("lastError") String lastError,
+                   @Param("nextAttemptAt") LocalDateTime nextAttemptAt,
+                   @Param("now") LocalDateTime now);
+
+    /**
+     * Puts rows back to PENDING without counting an attempt (worker rejected or rows left SENDING by a crash).
+     */
+    @Modifying
+    @Query("UPDATE MailOutbox m SET m.status = com.profitmap_backend.model.MailOutboxStatus.PENDING, " +
+           "m.nextAttemptAt = :now, m.updatedAt = :now " +
+           "WHERE m.status = com.profitmap_backend.model.MailOutboxStatus.SENDING AND m.lockedAt < :lockedBefore")
+    int releaseStuck(@Param("lockedBefore") LocalDateTime lockedBefore, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE MailOutbox m SET m.status = com.profitmap_backend.model.MailOutboxStatus.PENDING, " +
+           "m.nextAttemptAt = :nextAttemptAt, m.updatedAt = :now WHERE m.id = :id")
+    int release(@Param("id") Long id, @Param("nextAttemptAt") LocalDateTime nextAttemptAt, @Param("now") LocalDateTime now);
+
+    /**
+     * Ids of finished emails in the given status last updated before the cutoff, oldest first, for
+     * deletion in batches (range over idx_mail_outbox_status_updated_at)
+     */
+    @Query("SELECT m.id FROM MailOutbox m WHERE m.status = :status AND m.updatedAt < :before ORDER BY m.updatedAt")
+    List<Long> findIdsByStatusUpdatedBefore(@Param("status") MailOutboxStatus status,
+                                            @Param("before") LocalDateTime before,
+                                            Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM MailOutbox m WHERE m.id IN :ids")
+    int deleteByIds(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("UPDATE MailOutbox m SET m.status = com.profitmap_backend.model.MailOutboxStatus.PENDING, " +
+           "m.throttleFailovers = m.throttleFailovers + 1, m.nextAttemptAt = :now, m.updatedAt = :now WHERE m.id = :id")
+    int releaseForFailover(@Param("id") Long id, @Param("now") LocalDateTime now);
+}
@@ -0,0 +1,40 @@
+package com.profitmap_backend.repository;
+
+import com.profitmap_backend.model.SchedulerLock;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface SchedulerLockRepository extends JpaRepository<SchedulerLock, String> {
+
+    /**
+     * Takes the lock if it is free. Only one node gets 1 back.
+     */
+    @Modifying
+    @Query("UPDATE SchedulerLock l SET l.lockedUntil = :until, l.lockedAt = :now, l.lockedBy = :owner " +
+           "WHERE l.name = :name AND l.lockedUntil <= :now")
+    int acquire(@Param("name") String name,
+                @Param("owner") String owner,
+                @Param("now") LocalDateTime now,
+                @Param("until") LocalDateTime until);
+
+    /**
+     * Creates the lock row, held; fails with a duplicate key if another node created it first.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO scheduler_locks (name, locked_until, locked_at, locked_by) " +
+                   "VALUES (:name, :until, :now, :owner)", nativeQuery = true)
+    int create(@Param("name") String name,
+               @Param("owner") String owner,
+               @Param("now") LocalDateTime now,
+               @Param("until") LocalDateTime until);
+
+    @Modifying
+    @Query("UPDATE SchedulerLock l SET l.lockedUntil = :now WHERE l.name = :name AND l.lockedBy = :owner")
+    int release(@Param("name") String name, @Param("owner") String owner, @Param("now") LocalDateTime now);
+}
@@ -3,7 +3,9 @@ package com.profitmap_backend.repository;
 import com.profitmap_backend.model.Token;
 import com.profitmap_backend.model.TokenType;
 import com.profitmap_backend.model.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -28,6 +30,23 @@ public interface TokenRepository extends JpaRepository<Token, Long> {
                                    @Param("type") TokenType type, 
                                    @Param("now") LocalDateTime now);
     
+    /**
+     * Find valid (unused and not expired) token by selector and type
+     */
+    @Query("SELECT t FROM Token t WHERE t.selector = :selector " +
+           "AND t.type = :type AND t.used = false AND t.expiresAt > :now")
+    Optional<Token> findValidBySelector(@Param("selector") String selector,
+                                        @Param("type") TokenType type,
+                                        @Param("now") LocalDateTime now);
+
+    /**
+     * Find valid tokens issued before selectors were introduced (BCrypt-hashed, no selector)
+     */
+    @Query("SELECT t FROM Token t WHERE t.selector IS NULL " +
+           "AND t.type = :type AND t.used = false AND t.expiresAt > :now")
+    java.util.List<Token> findValidLegacyTokens(@Param("type") TokenType type,
+                                                @Param("now") LocalDateTime now);
+
     /**
      * Find all valid tokens for a user by type
      */
@@ -50,8 +69,26 @@ public interface TokenRepository extends JpaRepository<Token, Long> {
     /**
      * Delete expired tokens
      */
+    @Modifying
     @Query("DELETE FROM Token t WHERE t.expiresAt < :now")
-    void deleteExpiredTokens(@Param("now") LocalDateTime now);
+    int deleteExpiredTokens(@Param("now") LocalDateTime now);
+
+    /**
+     * Ids of expired tokens, oldest first, for deletion in batches (range over idx_expires_at)
+     */
+    @Query("SELECT t.id FROM Token t WHERE t.expiresAt < :now ORDER BY t.expiresAt")
+    java.util.List<Long> findExpiredIds(@Param("now") LocalDateTime now, Pageable pageable);
+
+    /**
+     * Ids of used tokens that have not expired yet. Expired ones are already gone, so this only
+     * ranges over the live tokens in idx_expires_at.
+     */
+    @Query("SELECT t.id FROM Token t WHERE t.expiresAt >= :now AND t.used = true ORDER BY t.expiresAt")
+    java.util.List<Long> findUsedUnexpiredIds(@Param("now") LocalDateTime now, Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM Token t WHERE t.id IN :ids")
+    int deleteByIds(@Param("ids") java.util.Collection<Long> ids);
     
     /**
      * Count unused tokens by user and type
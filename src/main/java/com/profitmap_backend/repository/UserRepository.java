@@ -1,8 +1,15 @@
 package com.profitmap_backend.repository;
 
+import com.profitmap_backend.dto.UserSummaryDto;
 import com.profitmap_backend.model.User;
+import com.profitmap_backend.model.UserStatus;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -10,4 +17,65 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
     Optional<User> findByUsername(String username);
     List<User> findByCompanyId(Long companyId);
+
+    /**
+     * Admin listing: optional company and status filters and username/email/name search
+     * ({@code pattern} is a LIKE pattern with '!' as escape character, or null).
+     */
+    @Query(value = "SELECT new com.profitmap_backend.dto.UserSummaryDto(u.id, u.username, u.email, u.firstName, " +
+                   "u.lastName, u.status, u.roleMask, c.id, c.companyName, u.createdAt) " +
+                   "FROM User u LEFT JOIN u.company c " +
+                   "WHERE (:companyId IS NULL OR c.id = :companyId) AND (:status IS NULL OR u.status = :status) " +
+                   "AND (:pattern IS NULL OR LOWER(u.username) LIKE :pattern ESCAPE '!' OR LOWER(u.email) LIKE :pattern ESCAPE '!' " +
+                   "OR LOWER(u.firstName) LIKE :pattern ESCAPE '!' OR LOWER(u.lastName) LIKE :pattern ESCAPE '!')",
+           countQuery = "SELECT COUNT(u) FROM User u " +
+                        "WHERE (:companyId IS NULL OR u.company.id = :companyId) AND (:status IS NULL OR u.status = :status) " +
+                        "AND (:pattern IS NULL OR LOWER(u.username) LIKE :pattern ESCAPE '!' OR LOWER(u.email) LIKE :pattern ESCAPE '!' " +
+                        "OR LOWER(u.firstName) LIKE :pattern ESCAPE '!' OR LOWER(u.lastName) LIKE :pattern ESCAPE '!')")
+    Page<UserSummaryDto> findSummaries(@Param("companyId") Long companyId,
+                                       @Param("status") UserStatus status,
+                                       @Param("pattern") String pattern,
+                                       Pageable pageable);
+
+    /**
+     * Users whose username or email is the given value, with the company fetched in the same
+     * statement. Usually one; two if one user's username is another user's email.
+     */
+    @Query("SELECT u FROM User u LEFT JOIN FETCH u.company WHERE u.username = :login OR u.email = :login")
+    List<User> findAllByLoginWithCompany(@Param("login") String login);
+
+    @Query("SELECT u FROM User u LEFT JOIN FETCH u.company WHERE u.id = :id")
+    Optional<User> findByIdWithCompany(@Param("id") Long id);
+
+    /**
+     * Resolves a login name in a single statement, with roles and company loaded. An email match
+     * wins over a username match, as it did when these were two lookups.
+     */
+    default Optional<User> findByLogin(String usernameOrEmail) {
+        List<User> users = findAllByLoginWithCompany(usernameOrEmail);
+        return users.stream()
+                .filter(user -> usernameOrEmail.equalsIgnoreCase(user.getEmail()))
+                .findFirst()
+                .or(() -> users.stream().findFirst());
+    }
+
+    /**
+     * What authentication needs about a user, without loading the entity: at most one row of
+     * [id, status, company id, role mask].
+     */
+    @Query("SELECT u.id, u.status, c.id, u.roleMask FROM User u LEFT JOIN u.company c WHERE u.username = :username")
+    List<Object[]> findPrincipalRows(@Param("username") String username);
+
+    /**
+     * Rows of [id, status, tokensNotBefore] for users whose tokens were outdated since the given time.
+     */
+    @Query("SELECT u.id, u.status, u.tokensNotBefore FROM User u WHERE u.tokensNotBefore >= :since")
+    List<Object[]> findTokenChangesSince(@Param("since") LocalDateTime since);
+
+    /**
+     * Like {@link #findTokenChangesSince}, plus all inactive users.
+     */
+    @Query("SELECT u.id, u.status, u.tokensNotBefore FROM User u " +
+            "WHERE u.tokensNotBefore >= :since OR u.status = com.profitmap_backend.model.UserStatus.INACTIVE")
+    List<Object[]> findTokenChangesSinceOrInactive(@Param("since") LocalDateTime since);
 } 
\ No newline at end of file
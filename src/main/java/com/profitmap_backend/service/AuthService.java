@@ -12,7 +12,6 @@ import com.profitmap_backend.util.JwtUtil;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
@@ -25,14 +24,15 @@ import java.util.Map;
 @RequiredArgsConstructor
 public class AuthService {
     private final UserRepository userRepository;
-    private final BCryptPasswordEncoder passwordEncoder;
+    private final PasswordHashingService passwordHashingService;
     private final JwtUtil jwtUtil;
     private final TokenService tokenService;
 
-    public ResponseEntity<?> register(Object registerRequestObj) {
+    public ResponseEntity<?> register(Object registerRequestObj, String clientIp) {
         // Cast to RegisterRequest
         com.profitmap_backend.controller.AuthController.RegisterRequest registerRequest =
             (com.profitmap_backend.controller.AuthController.RegisterRequest) registerRequestObj;
+        passwordHashingService.throttle(null, clientIp);
         if (userRepository.findByEmail(registerRequest.getEmail()).isPresent()) {
             return ResponseEntity.status(HttpStatus.CONFLICT).body("Email already in use");
         }
@@ -50,7 +50,7 @@ public class AuthService {
         User user = User.builder()
                 .username(registerRequest.getUsername())
                 .email(registerRequest.getEmail())
-                .passwordHash(passwordEncoder.encode(registerRequest.getPassword()))
+                .passwordHash(passwordHashingService.encode(registerRequest.getPassword()))
                 .firstName(registerRequest.getFirstName())
                 .lastName(registerRequest.getLastName())
                 .country(registerRequest.getCountry())
@@ -80,14 +80,13 @@ public class AuthService {
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
 
-    public ResponseEntity<?> login(Object loginRequestObj) {
+    public ResponseEntity<?> login(Object loginRequestObj, String clientIp) {
         // Cast to LoginRequest
         com.profitmap_backend.controller.AuthController.LoginRequest loginRequest =
             (com.profitmap_backend.controller.AuthController.LoginRequest) loginRequestObj;
-        User user = userRepository.findByEmail(loginRequest.getUsernameOrEmail())
-                .or(() -> userRepository.findByUsername(loginRequest.getUsernameOrEmail()))
-                .orElse(null);
-        if (user == null || !passwordEncoder.matches(loginRequest.getPassword(), user.getPasswordHash())) {
+        passwordHashingService.throttle(loginRequest.getUsernameOrEmail(), clientIp);
+        User user = userRepository.findByLogin(loginRequest.getUsernameOrEmail()).orElse(null);
+        if (user == null || !passwordHashingService.matches(loginRequest.getPassword(), user.getPasswordHash())) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Invalid credentials");
         }
 
@@ -0,0 +1,318 @@
+package com.profitmap_backend.service;
+
+import com.profitmap_backend.config.MailProperties;
+import com.profitmap_backend.dto.BulkMailJobDto;
+import com.profitmap_backend.dto.BulkMailJobItemDto;
+import com.profitmap_backend.dto.PageResponse;
+import com.profitmap_backend.model.BulkMailItemStatus;
+import com.profitmap_backend.model.BulkMailJob;
+import com.profitmap_backend.model.BulkMailJobItem;
+import com.profitmap_backend.model.BulkMailJobStatus;
+import com.profitmap_backend.model.Document;
+import com.profitmap_backend.model.DocumentStatus;
+import com.profitmap_backend.model.DocumentType;
+import com.profitmap_backend.model.MailOutboxStatus;
+import com.profitmap_backend.repository.BulkMailJobItemRepository;
+import com.profitmap_backend.repository.BulkMailJobRepository;
+import com.profitmap_backend.repository.CompanyRepository;
+import com.profitmap_backend.repository.DocumentRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.lang.Nullable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Sends the customer email of every document matching a filter (e.g. all PENDING invoices of a
+ * company for a month) as a background job.
+ *
+ * <p>The job walks the matching document ids in id order and queues one email per document through
+ * {@link DocumentMailService}, each in its own transaction, recording the outcome as a job item.
+ * Delivery is left to the mail outbox, so the emails are spread over the mail accounts within their
+ * rate limits by {@link MailRouter}; the job only pauses while too many of its emails are waiting
+ * there. Jobs are persisted and resumed after a restart, skipping documents they already handled.
+ */
+@Service
+@Slf4j
+public class BulkMailService {
+
+    private static final int MAX_PAGE_SIZE = 200;
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    // A running job updates its row every chunk; one left untouched this long was abandoned by its node
+    private static final Duration STALE_AFTER = Duration.ofMinutes(10);
+
+    private final BulkMailJobRepository bulkMailJobRepository;
+    private final BulkMailJobItemRepository bulkMailJobItemRepository;
+    private final DocumentRepository documentRepository;
+    private final CompanyRepository companyRepository;
+    private final DocumentMailService documentMailService;
+    private final MailAttachmentSpool mailAttachmentSpool;
+    private final MailProperties.Bulk settings;
+    private final TransactionTemplate transactionTemplate;
+    private final ThreadPoolTaskExecutor executor;
+
+    public BulkMailService(BulkMailJobRepository bulkMailJobRepository,
+                           BulkMailJobItemRepository bulkMailJobItemRepository,
+                           DocumentRepository documentRepository,
+                           CompanyRepository companyRepository,
+                           DocumentMailService documentMailService,
+                           MailAttachmentSpool mailAttachmentSpool,
+                           MailProperties mailProperties,
+                           PlatformTransactionManager transactionManager,
+                           @Qualifier("bulkMailExecutor") ThreadPoolTaskExecutor executor) {
+        this.bulkMailJobRepository = bulkMailJobRepository;
+        this.bulkMailJobItemRepository = bulkMailJobItemRepository;
+        this.documentRepository = documentRepository;
+        this.companyRepository = companyRepository;
+        this.documentMailService = documentMailService;
+        this.mailAttachmentSpool = mailAttachmentSpool;
+        this.settings = mailProperties.getBulk();
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.executor = executor;
+    }
+
+    /**
+     * Creates the job and starts it once the transaction commits.
+     */
+    @Transactional
+    public BulkMailJob createJob(Long companyId,
+                                 DocumentType documentType,
+                                 @Nullable DocumentStatus documentStatus,
+                                 @Nullable LocalDate dateFrom,
+                                 @Nullable LocalDate dateTo) {
+        if (!companyRepository.existsById(companyId)) {
+            throw new RuntimeException("Company not found with id: " + companyId);
+        }
+        if (dateFrom != null && dateTo != null && dateFrom.isAfter(dateTo)) {
+            throw new RuntimeException("dateFrom must not be after dateTo");
+        }
+
+        long total = documentRepository.countForBulkSend(companyId, documentType, documentStatus, dateFrom, dateTo);
+        BulkMailJob job = bulkMailJobRepository.save(BulkMailJob.builder()
+                .companyId(companyId)
+                .documentType(documentType)
+                .documentStatus(documentStatus)
+                .dateFrom(dateFrom)
+                .dateTo(dateTo)
+                .totalDocuments((int) total)
+                .build());
+
+        Long jobId = job.getId();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                submit(jobId);
+            }
+        });
+        return job;
+    }
+
+    /**
+     * Job status with per-document progress, one page of documents at a time.
+     */
+    @Transactional(readOnly = true)
+    public Optional<BulkMailJobDto> getProgress(Long jobId, int page, int size) {
+        return bulkMailJobRepository.findById(jobId).map(job -> {
+            BulkMailJobDto dto = BulkMailJobDto.builder()
+                    .id(job.getId())
+                    .companyId(job.getCompanyId())
+                    .documentType(job.getDocumentType())
+                    .documentStatus(job.getDocumentStatus())
+                    .dateFrom(job.getDateFrom())
+                    .dateTo(job.getDateTo())
+                    .status(job.getStatus())
+                    .lastError(job.getLastError())
+                    .createdAt(job.getCreatedAt())
+                    .completedAt(job.getCompletedAt())
+                    .build();
+
+            long handled = 0;
+            for (Object[] row : bulkMailJobItemRepository.summarizeJob(jobId)) {
+                BulkMailItemStatus itemStatus = (BulkMailItemStatus) row[0];
+                MailOutboxStatus deliveryStatus = (MailOutboxStatus) row[1];
+                long count = ((Number) row[2]).longValue();
+                handled += count;
+                switch (itemStatus) {
+                    case QUEUED -> {
+                        dto.setQueued(dto.getQueued() + count);
+                        if (deliveryStatus == MailOutboxStatus.SENT) {
+                            dto.setSent(dto.getSent() + count);
+                        } else if (deliveryStatus == MailOutboxStatus.DEAD) {
+                            dto.setDead(dto.getDead() + count);
+                        } else {
+                            dto.setDelivering(dto.getDelivering() + count);
+                        }
+                    }
+                    case SKIPPED -> dto.setSkipped(dto.getSkipped() + count);
+                    case FAILED -> dto.setFailed(dto.getFailed() + count);
+                }
+            }
+            // Documents can be added or deleted while the job runs, so the total is a snapshot
+            long total = job.getTotalDocuments() != null ? job.getTotalDocuments() : handled;
+            boolean finished = job.getStatus() == BulkMailJobStatus.COMPLETED || job.getStatus() == BulkMailJobStatus.FAILED;
+            dto.setTotal(finished ? handled : Math.max(total, handled));
+            dto.setPending(finished ? 0 : Math.max(total - handled, 0));
+
+            Page<BulkMailJobItemDto> items = bulkMailJobItemRepository.findItems(
+                    jobId, PageRequest.of(Math.max(page, 0), Math.min(Math.max(size, 1), MAX_PAGE_SIZE)));
+            dto.setItems(PageResponse.of(items, item -> item));
+            return dto;
+        });
+    }
+
+    /**
+     * Picks up jobs that are queued but not running, e.g. after a restart or when another node stopped.
+     */
+    @Scheduled(initialDelayString = "PT1M", fixedDelayString = "PT5M")
+    public void resumeJobs() {
+        List<BulkMailJob> unfinished = bulkMailJobRepository.findByStatusInOrderByIdAsc(
+                List.of(BulkMailJobStatus.QUEUED, BulkMailJobStatus.RUNNING));
+        LocalDateTime staleBefore = LocalDateTime.now().minus(STALE_AFTER);
+        for (BulkMailJob job : unfinished) {
+            if (job.getStatus() == BulkMailJobStatus.QUEUED || job.getUpdatedAt().isBefore(staleBefore)) {
+                submit(job.getId());
+            }
+        }
+    }
+
+    private void submit(Long jobId) {
+        try {
+            executor.execute(() -> run(jobId));
+        } catch (TaskRejectedException ex) {
+            // Stays QUEUED and is picked up by resumeJobs once a thread is free
+            log.warn("Bulk mail job {} deferred, all bulk mail threads busy", jobId);
+        }
+    }
+
+    void run(Long jobId) {
+        LocalDateTime now = LocalDateTime.now();
+        Integer claimed = transactionTemplate.execute(status ->
+                bulkMailJobRepository.claim(jobId, now.minus(STALE_AFTER), now));
+        if (claimed == null || claimed == 0) {
+            return; // Finished, or running elsewhere
+        }
+        BulkMailJob job = bulkMailJobRepository.findById(jobId).orElseThrow();
+        log.info("Bulk mail job {} started for company {} ({} documents)", jobId, job.getCompanyId(), job.getTotalDocuments());
+
+        try {
+            long afterId = 0;
+            while (true) {
+                List<Long> documentIds = documentRepository.findIdsForBulkSend(
+                        job.getCompanyId(), job.getDocumentType(), job.getDocumentStatus(),
+                        job.getDateFrom(), job.getDateTo(), afterId, PageRequest.of(0, settings.getChunkSize()));
+                if (documentIds.isEmpty()) {
+                    break;
+                }
+                heartbeat(jobId);
+                for (Long documentId : documentIds) {
+                    awaitOutboxBacklog(jobId);
+                    sendDocument(jobId, documentId);
+                    afterId = documentId;
+                }
+            }
+            finish(jobId, BulkMailJobStatus.COMPLETED, null);
+            log.info("Bulk mail job {} completed", jobId);
+        } catch (InterruptedException ex) {
+            // Shutting down; the job stays RUNNING and is taken over once it goes stale
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException ex) {
+            log.error("Bulk mail job {} failed", jobId, ex);
+            finish(jobId, BulkMailJobStatus.FAILED, truncate(ex.getClass().getSimpleName() + ": " + ex.getMessage()));
+        }
+    }
+
+    /**
+     * Queues the email of one document and records the outcome. A failure only affects this document.
+     * The PDF is rendered between two short transactions, so no connection is held while it renders.
+     */
+    private void sendDocument(Long jobId, Long documentId) {
+        Path pdfPath = null;
+        try {
+            Optional<Document> found = transactionTemplate.execute(status ->
+                    bulkMailJobItemRepository.existsByJobIdAndDocumentId(jobId, documentId)
+                            ? Optional.<Document>empty() // Handled before the job was resumed
+                            : documentRepository.findByIdWithCompanyAndClient(documentId));
+            if (found == null || found.isEmpty()) {
+                return; // Handled already, or deleted since the ids were loaded
+            }
+            Document document = found.get();
+            BulkMailJobItem item = BulkMailJobItem.builder()
+                    .jobId(jobId)
+                    .documentId(documentId)
+                    .documentNumber(document.getDocumentNumber())
+                    .build();
+            if (!DocumentMailService.hasClientEmail(document)) {
+                item.setStatus(BulkMailItemStatus.SKIPPED);
+                item.setError("Document client email is not set");
+                transactionTemplate.executeWithoutResult(status -> bulkMailJobItemRepository.save(item));
+                return;
+            }
+
+            Path pdf = documentMailService.renderPdf(document);
+            pdfPath = pdf;
+            transactionTemplate.executeWithoutResult(status -> {
+                item.setOutboxId(documentMailService.queueDocumentEmail(document, pdf, null));
+                item.setStatus(BulkMailItemStatus.QUEUED);
+                bulkMailJobItemRepository.save(item);
+            });
+        } catch (IOException | RuntimeException ex) {
+            log.warn("Bulk mail job {}: could not queue email for document {}", jobId, documentId, ex);
+            // The email was rolled back; drop its PDF and record the failure on its own
+            if (pdfPath != null) {
+                mailAttachmentSpool.discard(pdfPath);
+            }
+            try {
+                transactionTemplate.executeWithoutResult(status -> bulkMailJobItemRepository.save(BulkMailJobItem.builder()
+                        .jobId(jobId)
+                        .documentId(documentId)
+                        .status(BulkMailItemStatus.FAILED)
+                        .error(truncate(ex.getClass().getSimpleName() + ": " + ex.getMessage()))
+                        .build()));
+            } catch (DataIntegrityViolationException duplicate) {
+                // Another node handled the document at the same time
+            }
+        }
+    }
+
+    private void awaitOutboxBacklog(Long jobId) throws InterruptedException {
+        int maxBacklog = settings.getMaxOutboxBacklog();
+        if (maxBacklog <= 0) {
+            return;
+        }
+        while (bulkMailJobItemRepository.countUndelivered(jobId) >= maxBacklog) {
+            heartbeat(jobId);
+            Thread.sleep(settings.getBacklogPollInterval().toMillis());
+        }
+    }
+
+    private void heartbeat(Long jobId) {
+        transactionTemplate.executeWithoutResult(status -> bulkMailJobRepository.heartbeat(jobId, LocalDateTime.now()));
+    }
+
+    private void finish(Long jobId, BulkMailJobStatus status, @Nullable String lastError) {
+        transactionTemplate.executeWithoutResult(tx -> bulkMailJobRepository.finish(jobId, status, lastError, LocalDateTime.now()));
+    }
+
+    private String truncate(String message) {
+        return message.length() <= MAX_ERROR_LENGTH ? message : message.substring(0, MAX_ERROR_LENGTH);
+    }
+}
@@ -0,0 +1,132 @@
+package com.profitmap_backend.service;
+
+import com.profitmap_backend.dto.ClientStatementDto;
+import com.profitmap_backend.dto.PageResponse;
+import com.profitmap_backend.model.Client;
+import com.profitmap_backend.model.Document;
+import com.profitmap_backend.model.DocumentStatus;
+import com.profitmap_backend.model.DocumentType;
+import com.profitmap_backend.repository.ClientRepository;
+import com.profitmap_backend.repository.DocumentRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Builds per-client account statements from document snapshots linked through original_client_id.
+ * Totals are computed with aggregate queries and entries are paged, so cost does not grow with
+ * the number of documents a client has.
+ */
+@Service
+@RequiredArgsConstructor
+public class ClientStatementService {
+
+    private static final int MAX_PAGE_SIZE = 200;
+
+    private final ClientRepository clientRepository;
+    private final DocumentRepository documentRepository;
+
+    @Transactional(readOnly = true)
+    public ClientStatementDto getStatement(Long clientId, int page, int size) {
+        Client client = clientRepository.findById(clientId)
+                .orElseThrow(() -> new RuntimeException("Client not found with id: " + clientId));
+        Long companyId = client.getCompanyId();
+        LocalDate today = LocalDate.now();
+
+        ClientStatementDto.ClientStatementDtoBuilder statement = ClientStatementDto.builder()
+                .clientId(clientId)
+                .companyId(companyId)
+                .clientName(client.getName());
+
+        // Totals over all documents of the client, grouped by type and status
+        long offerCount = 0;
+        long invoiceCount = 0;
+        BigDecimal offerTotal = BigDecimal.ZERO;
+        BigDecimal invoiceTotal = BigDecimal.ZERO;
+        BigDecimal openBalance = BigDecimal.ZERO;
+        BigDecimal paidTotal = BigDecimal.ZERO;
+        for (Object[] row : documentRepository.summarizeClientDocuments(companyId, clientId)) {
+            DocumentType type = (DocumentType) row[0];
+            DocumentStatus status = (DocumentStatus) row[1];
+            long count = ((Number) row[2]).longValue();
+            BigDecimal sum = (BigDecimal) row[3];
+            if (type == DocumentType.OFFER) {
+                offerCount += count;
+                offerTotal = offerTotal.add(sum);
+            } else if (type == DocumentType.INVOICE) {
+                invoiceCount += count;
+                invoiceTotal = invoiceTotal.add(sum);
+                if (status == DocumentStatus.PENDING) {
+                    openBalance = openBalance.add(sum);
+                } else if (status == DocumentStatus.RECEIVED) {
+                    paidTotal = paidTotal.add(sum);
+                }
+            }
+        }
+
+        List<Object[]> overdue = documentRepository.summarizeClientDocumentsDueBefore(
+                companyId, clientId, DocumentType.INVOICE, DocumentStatus.PENDING, today);
+        Object[] overdueRow = overdue.isEmpty() ? new Object[] {0L, BigDecimal.ZERO} : overdue.get(0);
+
+        statement.offerCount(offerCount)
+                .offerTotal(offerTotal)
+                .invoiceCount(invoiceCount)
+                .invoiceTotal(invoiceTotal)
+                .openBalance(openBalance)
+                .paidTotal(paidTotal)
+                .overdueCount(((Number) overdueRow[0]).longValue())
+                .overdueTotal((BigDecimal) overdueRow[1]);
+
+        // Chronological page of documents with a running open balance
+        PageRequest pageRequest = PageRequest.of(
+                Math.max(page, 0),
+                Math.min(Math.max(size, 1), MAX_PAGE_SIZE),
+                Sort.by("documentDate", "id"));
+        Page<Document> documents = documentRepository.findClientDocuments(companyId, clientId, pageRequest);
+
+        BigDecimal running = BigDecimal.ZERO;
+        if (!documents.isEmpty() && documents.getNumber() > 0) {
+            Document first = documents.getContent().get(0);
+            running = documentRepository.sumClientDocumentsBefore(
+                    companyId, clientId, DocumentType.INVOICE, DocumentStatus.PENDING,
+                    first.getDocumentDate(), first.getId());
+        }
+
+        List<ClientStatementDto.Entry> entries = new ArrayList<>(documents.getNumberOfElements());
+        for (Document document : documents) {
+            boolean open = document.isInvoice() && document.getStatus() == DocumentStatus.PENDING;
+            if (open && document.getTotalPrice() != null) {
+                running = running.add(document.getTotalPrice());
+            }
+            entries.add(ClientStatementDto.Entry.builder()
+                    .documentId(document.getId())
+                    .documentNumber(document.getDocumentNumber())
+                    .documentType(document.getDocumentType())
+                    .status(document.getStatus())
+                    .documentDate(document.getDocumentDate())
+                    .expirationDate(document.getExpirationDate())
+                    .totalPrice(document.getTotalPrice())
+                    .overdue(open && document.getExpirationDate() != null && document.getExpirationDate().isBefore(today))
+                    .runningOpenBalance(running)
+                    .build());
+        }
+
+        statement.entries(PageResponse.<ClientStatementDto.Entry>builder()
+                .content(entries)
+                .page(documents.getNumber())
+                .size(documents.getSize())
+                .totalElements(documents.getTotalElements())
+                .totalPages(documents.getTotalPages())
+                .build());
+
+        return statement.build();
+    }
+}
@@ -1,20 +1,26 @@
 package com.profitmap_backend.service;
 
 import com.profitmap_backend.dto.CompanyAdminUpdateRequest;
+import com.profitmap_backend.dto.CompanySummaryDto;
+import com.profitmap_backend.dto.PageResponse;
+import com.profitmap_backend.dto.UserSummaryDto;
 import com.profitmap_backend.model.Company;
+import com.profitmap_backend.model.CompanyStatus;
 import com.profitmap_backend.model.DocumentSeries;
 import com.profitmap_backend.model.User;
 import com.profitmap_backend.model.UserRole;
 import com.profitmap_backend.repository.CompanyRepository;
 import com.profitmap_backend.repository.DocumentSeriesRepository;
 import com.profitmap_backend.repository.UserRepository;
+import com.profitmap_backend.util.PageRequests;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 
-import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
@@ -22,9 +28,20 @@ public class CompanyService {
     private final CompanyRepository companyRepository;
     private final UserRepository userRepository;
     private final DocumentSeriesRepository documentSeriesRepository;
+    private final PrincipalCache principalCache;
+    private final UserService userService;
 
-    public List<Company> getAll() {
-        return companyRepository.findAll();
+    private static final Set<String> SORTABLE = Set.of("id", "companyName", "oib", "status", "demoExpiration", "createdAt");
+    private static final Sort DEFAULT_SORT = Sort.by(Sort.Direction.DESC, "createdAt");
+
+    /**
+     * One page of companies, optionally limited to a status and searched by name, OIB or email.
+     */
+    public PageResponse<CompanySummaryDto> getCompanies(CompanyStatus status, String query, int page, int size, String sort) {
+        return PageResponse.of(
+                companyRepository.findSummaries(status, PageRequests.containsPattern(query),
+                        PageRequests.of(page, size, sort, SORTABLE, DEFAULT_SORT)),
+                company -> company);
     }
 
     public Company getById(Long id) {
@@ -32,8 +49,8 @@ public class CompanyService {
                 .orElseThrow(() -> new RuntimeException("Company not found"));
     }
 
-    public List<User> getUsersByCompanyId(Long companyId) {
-        return userRepository.findByCompanyId(companyId);
+    public PageResponse<UserSummaryDto> getUsersByCompanyId(Long companyId, String query, int page, int size, String sort) {
+        return userService.getUsers(companyId, null, query, page, size, sort);
     }
 
     public Optional<Company> getByUserId(Long userId) {
@@ -89,7 +106,9 @@ public class CompanyService {
         // Assign current user to the company
         currentUser.setCompany(savedCompany);
         currentUser.getRoles().add(UserRole.OWNER);
+        currentUser.setTokensNotBefore(java.time.LocalDateTime.now());
         userRepository.save(currentUser);
+        principalCache.invalidate(currentUser.getUsername());
         
         return savedCompany;
     }
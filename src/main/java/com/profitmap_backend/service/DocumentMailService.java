@@ -0,0 +1,122 @@
+package com.profitmap_backend.service;
+
+import com.profitmap_backend.config.MailProperties;
+import com.profitmap_backend.model.Company;
+import com.profitmap_backend.model.Document;
+import com.profitmap_backend.model.DocumentClient;
+import com.profitmap_backend.model.DocumentType;
+import lombok.RequiredArgsConstructor;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Composes and queues the customer email for an invoice or offer. Shared by the single-document
+ * send endpoint and bulk sends.
+ *
+ * <p>The PDF is rendered by {@link #renderPdf} before any transaction is opened; the transaction
+ * of {@link #queueDocumentEmail} only inserts the outbox row, so no connection is held while a PDF
+ * renders. Callers discard the spooled PDF if queueing fails.
+ */
+@Service
+@RequiredArgsConstructor
+public class DocumentMailService {
+
+    private final MailService mailService;
+    private final MailProperties mailProperties;
+    private final MailAttachmentSpool mailAttachmentSpool;
+    private final DocumentPdfService documentPdfService;
+
+    /**
+     * Renders the document PDF on the server into the attachment spool. Call it outside a
+     * transaction, since rendering can take up to pdf.render-timeout.
+     */
+    public Path renderPdf(Document document) throws IOException {
+        requireClientEmail(document);
+        return mailAttachmentSpool.spool(out -> documentPdfService.render(document.getId(), out));
+    }
+
+    /**
+     * Queues the email with an already spooled PDF.
+     * The document must be loaded with its company and client.
+     *
+     * @return outbox id of the queued email
+     */
+    @Transactional
+    public Long queueDocumentEmail(Document document, Path pdfPath, @Nullable String pdfFileName) {
+        String clientEmail = requireClientEmail(document);
+        if (pdfFileName == null || pdfFileName.isBlank()) {
+            pdfFileName = documentPdfService.fileName(document);
+        }
+
+        // Get company info
+        Company company = document.getCompany();
+        String issuerCompanyName = company.getCompanyName();
+        String issuerEmail = company.getEmail() != null ? company.getEmail() : null;
+
+        // Get client info
+        DocumentClient documentClient = document.getDocumentClient();
+        String customerName = documentClient.getName();
+        if (documentClient.getSurname() != null && !documentClient.getSurname().isBlank()) {
+            customerName = customerName + " " + documentClient.getSurname();
+        }
+
+        // Prepare template variables
+        Map<String, Object> templateVariables = new HashMap<>();
+        templateVariables.put("customerName", customerName);
+        templateVariables.put("issuerCompanyName", issuerCompanyName);
+        templateVariables.put("appName", mailProperties.getAppName());
+
+        // Queue email based on document type
+        if (document.getDocumentType() == DocumentType.INVOICE) {
+            templateVariables.put("invoiceNumber", document.getDocumentNumber());
+            String subject = String.format("Račun br. %s – %s", document.getDocumentNumber(), issuerCompanyName);
+            String personalName = issuerCompanyName + " (via " + mailProperties.getAppName() + ")";
+
+            return mailService.sendHtmlMailWithPdfAttachment(
+                    clientEmail,
+                    subject,
+                    "invoice-email",
+                    company.getId(),
+                    templateVariables,
+                    pdfPath,
+                    pdfFileName,
+                    issuerEmail,
+                    personalName
+            );
+        } else if (document.getDocumentType() == DocumentType.OFFER) {
+            templateVariables.put("documentNumber", document.getDocumentNumber());
+            String subject = "Ponuda br. " + document.getDocumentNumber() + " – " + issuerCompanyName;
+
+            return mailService.sendHtmlMailWithPdfAttachment(
+                    clientEmail,
+                    subject,
+                    "offer-email",
+                    company.getId(),
+                    templateVariables,
+                    pdfPath,
+                    pdfFileName,
+                    issuerEmail,
+                    issuerCompanyName
+            );
+        }
+        throw new RuntimeException("Unsupported document type: " + document.getDocumentType());
+    }
+
+    public static boolean hasClientEmail(Document document) {
+        String clientEmail = document.getDocumentClient().getEmail();
+        return clientEmail != null && !clientEmail.isBlank();
+    }
+
+    private String requireClientEmail(Document document) {
+        if (!hasClientEmail(document)) {
+            throw new RuntimeException("Document client email is not set");
+        }
+        return document.getDocumentClient().getEmail();
+    }
+}
@@ -0,0 +1,358 @@
+package com.profitmap_backend.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.openhtmltopdf.outputdevice.helper.BaseRendererBuilder;
+import com.openhtmltopdf.pdfboxout.PdfRendererBuilder;
+import com.profitmap_backend.config.PdfProperties;
+import com.profitmap_backend.dto.DocumentPdfModel;
+import com.profitmap_backend.model.Company;
+import com.profitmap_backend.model.Document;
+import com.profitmap_backend.model.DocumentClient;
+import com.profitmap_backend.model.DocumentItem;
+import com.profitmap_backend.model.DocumentType;
+import com.profitmap_backend.repository.DocumentRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.lang.Nullable;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Renders invoices and offers to PDF on the server (Thymeleaf layout, openhtmltopdf).
+ *
+ * <p>The document is loaded and formatted on the calling thread, the CPU-heavy layout and PDF
+ * writing run on the bounded {@code reportExecutor}. Parsed layouts are cached by Thymeleaf,
+ * font files are read once at startup and company logos are kept in a bounded cache.
+ * A company can ship its own layout as {@code templates/pdf/companies/{companyId}/document.html}.
+ */
+@Service
+@Slf4j
+public class DocumentPdfService {
+
+    private static final Locale LOCALE = Locale.forLanguageTag("hr");
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("dd.MM.yyyy.");
+    private static final String DEFAULT_LAYOUT = "pdf/document";
+    private static final String COMPANY_LAYOUTS = "pdf/companies/";
+    private static final String FONT_FAMILY = "Document Sans";
+    private static final String DEFAULT_FONT = "org/apache/pdfbox/resources/ttf/LiberationSans-Regular.ttf";
+
+    private final DocumentRepository documentRepository;
+    private final SpringTemplateEngine templateEngine;
+    private final PdfProperties pdfProperties;
+    private final ThreadPoolTaskExecutor executor;
+    private final ResourceLoader resourceLoader;
+    private final String templatePrefix;
+
+    private final List<LoadedFont> fonts = new ArrayList<>();
+    private final LoadingCache<String, Optional<String>> logos;
+    private final Cache<Long, String> layouts;
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            // A redirect could lead off the allowed hosts
+            .followRedirects(HttpClient.Redirect.NEVER)
+            .build();
+
+    public DocumentPdfService(DocumentRepository documentRepository,
+                              SpringTemplateEngine templateEngine,
+                              PdfProperties pdfProperties,
+                              @Qualifier("reportExecutor") ThreadPoolTaskExecutor executor,
+                              ResourceLoader resourceLoader,
+                              @Value("${spring.thymeleaf.prefix:classpath:/templates/}") String templatePrefix) throws IOException {
+        this.documentRepository = documentRepository;
+        this.templateEngine = templateEngine;
+        this.pdfProperties = pdfProperties;
+        this.executor = executor;
+        this.resourceLoader = resourceLoader;
+        this.templatePrefix = templatePrefix;
+
+        try (InputStream in = resourceLoader.getResource("classpath:" + DEFAULT_FONT).getInputStream()) {
+            fonts.add(new LoadedFont(in.readAllBytes(), FONT_FAMILY, 400, BaseRendererBuilder.FontStyle.NORMAL));
+        }
+        for (PdfProperties.Font font : pdfProperties.getFonts()) {
+            fonts.add(new LoadedFont(Files.readAllBytes(font.getPath()), font.getFamily(), font.getWeight(),
+                    font.isItalic() ? BaseRendererBuilder.FontStyle.ITALIC : BaseRendererBuilder.FontStyle.NORMAL));
+        }
+
+        this.logos = Caffeine.newBuilder()
+                .maximumSize(pdfProperties.getLogoCacheSize())
+                .expireAfterWrite(pdfProperties.getLogoCacheTtl())
+                .build(this::loadLogo);
+        this.layouts = Caffeine.newBuilder()
+                .maximumSize(pdfProperties.getLayoutCacheSize())
+                .build();
+    }
+
+    public byte[] render(Long documentId) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(64 * 1024);
+        render(documentId, out);
+        return out.toByteArray();
+    }
+
+    /**
+     * Renders the document into {@code out}, waiting at most pdf.render-timeout.
+     *
+     * @throws org.springframework.core.task.TaskRejectedException if the render queue is full (answered with 429)
+     */
+    public void render(Long documentId, OutputStream out) {
+        DocumentPdfModel model = loadModel(documentId);
+
+        // A FutureTask, unlike the CompletableFuture from submitCompletable, interrupts the worker on
+        // cancel, and a render cancelled while still queued never starts
+        FutureTask<Void> task = new FutureTask<>(() -> {
+            renderTo(model, out);
+            return null;
+        });
+        executor.execute(task);
+        try {
+            task.get(pdfProperties.getRenderTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            task.cancel(true);
+            throw new RuntimeException("Rendering PDF for document " + documentId + " timed out", e);
+        } catch (InterruptedException e) {
+            task.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while rendering PDF for document " + documentId, e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Failed to render PDF for document " + documentId, e.getCause());
+        }
+    }
+
+    /**
+     * File name the PDF is offered or attached under, e.g. {@code Racun-1-1-2025.pdf}.
+     */
+    public String fileName(Document document) {
+        String prefix = document.getDocumentType() == DocumentType.INVOICE ? "Racun-" : "Ponuda-";
+        return prefix + document.getDocumentNumber().replaceAll("[^A-Za-z0-9_-]", "-") + ".pdf";
+    }
+
+    private DocumentPdfModel loadModel(Long documentId) {
+        Document document = documentRepository.findByIdWithDetails(documentId)
+                .orElseThrow(() -> new RuntimeException("Document not found with id: " + documentId));
+        Company company = document.getCompany();
+        DocumentClient client = document.getDocumentClient();
+        boolean invoice = document.getDocumentType() == DocumentType.INVOICE;
+
+        List<DocumentItem> items = document.getDocumentItems() != null
+                ? document.getDocumentItems().stream().sorted(Comparator.comparing(DocumentItem::getId)).toList()
+                : List.of();
+        List<DocumentPdfModel.Line> lines = new ArrayList<>(items.size());
+        BigDecimal computedNet = BigDecimal.ZERO;
+        for (DocumentItem item : items) {
+            BigDecimal lineTotal = item.getPrice().multiply(BigDecimal.valueOf(item.getQuantity()));
+            boolean discounted = item.getDiscountPercentage() != null && item.getDiscountPercentage().signum() > 0;
+            if (discounted) {
+                lineTotal = lineTotal.subtract(lineTotal.multiply(item.getDiscountPercentage())
+                        .divide(BigDecimal.valueOf(100), 2, RoundingMode.HALF_UP));
+            }
+            computedNet = computedNet.add(lineTotal);
+            lines.add(DocumentPdfModel.Line.builder()
+                    .position(lines.size() + 1)
+                    .name(item.getName())
+                    .comment(item.getComment())
+                    .quantity(String.valueOf(item.getQuantity()))
+                    .price(money(item.getPrice()))
+                    .discount(discounted ? item.getDiscountPercentage().stripTrailingZeros().toPlainString() + " %" : "")
+                    .total(money(lineTotal))
+                    .build());
+        }
+
+        BigDecimal net = document.getTotalPrice() != null ? document.getTotalPrice() : computedNet;
+        BigDecimal pdv = document.getTotalPDV() != null ? document.getTotalPDV() : BigDecimal.ZERO;
+        String clientName = client.getSurname() != null && !client.getSurname().isBlank()
+                ? client.getName() + " " + client.getSurname()
+                : client.getName();
+
+        return DocumentPdfModel.builder()
+                .documentId(document.getId())
+                .companyId(company.getId())
+                .fileName(fileName(document))
+                .title(invoice ? "Račun" : "Ponuda")
+                .documentNumber(document.getDocumentNumber())
+                .documentDate(date(document.getDocumentDate()))
+                .expirationLabel(invoice ? "Datum dospijeća" : "Ponuda vrijedi do")
+                .expirationDate(date(document.getExpirationDate()))
+                .companyName(company.getCompanyName())
+                .companyOib(company.getOib())
+                .companyPdv(company.getPdv())
+                .companyMbs(company.getMbs())
+                .companyBank(company.getBank())
+                .companyIban(company.getIban())
+                .companySwiftBic(company.getSwiftBic())
+                .companyPhone(company.getPhone())
+                .companyEmail(company.getEmail())
+                .responsiblePerson(company.getResponsiblePerson())
+                .logoPath(company.getLogoPath())
+                .pdvActive(Boolean.TRUE.equals(company.getIsPdvActive()))
+                .clientName(clientName)
+                .clientOib(client.getOib())
+                .clientAddress(client.getAddress())
+                .clientEmail(client.getEmail())
+                .lines(lines)
+                .totalNet(money(net))
+                .totalPdv(money(pdv))
+                .totalGross(money(net.add(pdv)))
+                .build();
+    }
+
+    private void renderTo(DocumentPdfModel model, OutputStream out) throws IOException {
+        Context context = new Context(LOCALE);
+        context.setVariable("doc", model);
+        context.setVariable("logo", model.getLogoPath() != null && !model.getLogoPath().isBlank()
+                ? logos.get(model.getLogoPath()).orElse(null)
+                : null);
+        String html = templateEngine.process(layoutFor(model.getCompanyId()), context);
+        // The layout below cannot be interrupted, so skip it if the caller gave up meanwhile
+        if (Thread.currentThread().isInterrupted()) {
+            throw new InterruptedIOException("Rendering PDF for document " + model.getDocumentId() + " was cancelled");
+        }
+
+        PdfRendererBuilder builder = new PdfRendererBuilder();
+        builder.useFastMode();
+        builder.withHtmlContent(html, null);
+        for (LoadedFont font : fonts) {
+            builder.useFont(() -> new ByteArrayInputStream(font.data()), font.family(), font.weight(), font.style(), true);
+        }
+        builder.toStream(out);
+        builder.run();
+    }
+
+    private String layoutFor(Long companyId) {
+        return layouts.get(companyId, id -> {
+            String variant = COMPANY_LAYOUTS + id + "/document";
+            return resourceLoader.getResource(templatePrefix + variant + ".html").exists() ? variant : DEFAULT_LAYOUT;
+        });
+    }
+
+    /**
+     * Reads a logo from an https URL on an allowed host or from a file under the logo directory and
+     * returns it as a data URI, empty if it can't be used.
+     */
+    private Optional<String> loadLogo(String logoPath) {
+        try {
+            byte[] data;
+            String contentType;
+            if (logoPath.startsWith("http://") || logoPath.startsWith("https://")) {
+                URI uri = URI.create(logoPath);
+                if (!"https".equals(uri.getScheme()) || uri.getHost() == null
+                        || pdfProperties.getLogoHosts().stream().noneMatch(host -> host.equalsIgnoreCase(uri.getHost()))) {
+                    log.warn("Logo {} is not on an allowed https host, rendering PDFs without it", logoPath);
+                    return Optional.empty();
+                }
+                HttpRequest request = HttpRequest.newBuilder(uri)
+                        .timeout(Duration.ofSeconds(10))
+                        .GET()
+                        .build();
+                HttpResponse<InputStream> response = httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream());
+                try (InputStream in = response.body()) {
+                    if (response.statusCode() != 200) {
+                        log.warn("Logo {} returned HTTP {}, rendering PDFs without it", logoPath, response.statusCode());
+                        return Optional.empty();
+                    }
+                    data = in.readNBytes(pdfProperties.getLogoMaxBytes() + 1);
+                }
+                contentType = response.headers().firstValue("Content-Type").orElse(imageType(logoPath));
+            } else {
+                Path file = logoFile(logoPath);
+                if (file == null) {
+                    log.warn("Logo {} is outside the logo directory, rendering PDFs without it", logoPath);
+                    return Optional.empty();
+                }
+                if (Files.size(file) > pdfProperties.getLogoMaxBytes()) {
+                    log.warn("Logo {} exceeds {} bytes, rendering PDFs without it", logoPath, pdfProperties.getLogoMaxBytes());
+                    return Optional.empty();
+                }
+                data = Files.readAllBytes(file);
+                contentType = imageType(logoPath);
+            }
+
+            if (data.length > pdfProperties.getLogoMaxBytes() || contentType == null || !contentType.startsWith("image/")) {
+                log.warn("Logo {} is too large or not an image, rendering PDFs without it", logoPath);
+                return Optional.empty();
+            }
+            return Optional.of("data:" + contentType + ";base64," + Base64.getEncoder().encodeToString(data));
+        } catch (IOException | IllegalArgumentException e) {
+            log.warn("Could not load logo {}, rendering PDFs without it", logoPath, e);
+            return Optional.empty();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * The logo file, or null if the path leads outside the logo directory (absolute, {@code ../} or
+     * through a symbolic link).
+     */
+    @Nullable
+    private Path logoFile(String logoPath) throws IOException {
+        Path dir = pdfProperties.getLogoDir().toAbsolutePath().normalize();
+        Path file = dir.resolve(logoPath).normalize();
+        if (!file.startsWith(dir)) {
+            return null;
+        }
+        return file.toRealPath().startsWith(dir.toRealPath()) ? file : null;
+    }
+
+    @Nullable
+    private static String imageType(String path) {
+        String lower = path.toLowerCase(Locale.ROOT);
+        if (lower.endsWith(".png")) {
+            return "image/png";
+        }
+        if (lower.endsWith(".jpg") || lower.endsWith(".jpeg")) {
+            return "image/jpeg";
+        }
+        if (lower.endsWith(".gif")) {
+            return "image/gif";
+        }
+        return null;
+    }
+
+    private static String money(BigDecimal amount) {
+        DecimalFormat format = new DecimalFormat("#,##0.00", DecimalFormatSymbols.getInstance(LOCALE));
+        return format.format(amount.setScale(2, RoundingMode.HALF_UP)) + " €";
+    }
+
+    private static String date(@Nullable LocalDate date) {
+        return date != null ? date.format(DATE_FORMAT) : "";
+    }
+
+    private record LoadedFont(byte[] data, String family, int weight, BaseRendererBuilder.FontStyle style) {
+    }
+}
@@ -6,6 +6,7 @@ import com.profitmap_backend.repository.DocumentSeriesRepository;
 import com.profitmap_backend.repository.DocumentClientRepository;
 import com.profitmap_backend.repository.DocumentRelationshipRepository;
 import com.profitmap_backend.repository.CompanyRepository;
+import com.profitmap_backend.repository.ClientRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -25,6 +26,7 @@ public class DocumentService {
     private final DocumentClientRepository documentClientRepository;
     private final DocumentRelationshipRepository documentRelationshipRepository;
     private final CompanyRepository companyRepository;
+    private final ClientRepository clientRepository;
     
     /**
      * Generates the next document number for a given company and document type.
@@ -104,10 +106,11 @@ public class DocumentService {
     
     /**
      * Creates a new document with auto-generated document number and client snapshot
-     * Always creates snapshot from provided client data
+     * Always creates snapshot from provided client data.
+     * When clientId is given the snapshot is linked to that saved client so it shows up in the client statement.
      */
     @Transactional
-    public Document createDocument(Document document, Long companyId,
+    public Document createDocument(Document document, Long companyId, Long clientId,
                                  String name, String contact, String email, ClientType clientType,
                                  String oib, String address, String surname) {
         
@@ -117,6 +120,17 @@ public class DocumentService {
         
         document.setCompany(company);
         
+        // Resolve the saved client the data was picked from (null for manually entered clients)
+        Long originalClientId = null;
+        if (clientId != null) {
+            Client client = clientRepository.findById(clientId)
+                    .orElseThrow(() -> new RuntimeException("Client not found with id: " + clientId));
+            if (!client.getCompanyId().equals(companyId)) {
+                throw new RuntimeException("Client " + clientId + " does not belong to company " + companyId);
+            }
+            originalClientId = client.getId();
+        }
+        
         // Create snapshot from provided client data
         DocumentClient documentClient = DocumentClient.builder()
                 .name(name)
@@ -126,7 +140,7 @@ public class DocumentService {
                 .oib(oib)
                 .address(address)
                 .surname(surname)
-                .originalClientId(null) // No original client since it's manually entered
+                .originalClientId(originalClientId) // Null when client data is manually entered
                 .build();
         
         documentClient = documentClientRepository.save(documentClient);
@@ -0,0 +1,20 @@
+package com.profitmap_backend.service;
+
+import lombok.Getter;
+
+import java.time.Duration;
+
+/**
+ * A request repeated while the original one with the same idempotency key is still running.
+ * Answered with 409 and a Retry-After header, after which the repeat gets the original result.
+ */
+@Getter
+public class IdempotencyConflictException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public IdempotencyConflictException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+}
@@ -0,0 +1,218 @@
+package com.profitmap_backend.service;
+
+import com.profitmap_backend.config.MailProperties;
+import com.profitmap_backend.config.ReminderProperties;
+import com.profitmap_backend.dto.OverdueInvoiceDto;
+import com.profitmap_backend.model.Company;
+import com.profitmap_backend.repository.CompanyRepository;
+import com.profitmap_backend.repository.DocumentRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Emails clients a reminder about their overdue unpaid invoices.
+ *
+ * <p>Each run walks the active companies and, per company, its PENDING invoices past their
+ * expiration date (plus the grace period) in keyset chunks over
+ * {@code idx_documents_company_type_status_expiration}. Invoices are grouped by client email and
+ * each client gets one reminder listing them. A reminder is only sent if all its invoices can be
+ * marked as reminded with a conditional update, so overlapping runs never remind twice.
+ * At most {@code reminders.max-clients-per-company} clients of a company are reminded per run;
+ * the others are picked up by the next run.
+ */
+@Service
+@Slf4j
+public class InvoiceReminderService {
+
+    private static final int COMPANY_CHUNK_SIZE = 100;
+    private static final int MAX_IDS_PER_UPDATE = 1000;
+
+    private final DocumentRepository documentRepository;
+    private final CompanyRepository companyRepository;
+    private final MailService mailService;
+    private final MailProperties mailProperties;
+    private final ReminderProperties settings;
+    private final TransactionTemplate transactionTemplate;
+
+    public InvoiceReminderService(DocumentRepository documentRepository,
+                                  CompanyRepository companyRepository,
+                                  MailService mailService,
+                                  MailProperties mailProperties,
+                                  ReminderProperties settings,
+                                  PlatformTransactionManager transactionManager) {
+        this.documentRepository = documentRepository;
+        this.companyRepository = companyRepository;
+        this.mailService = mailService;
+        this.mailProperties = mailProperties;
+        this.settings = settings;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Scheduled(cron = "${reminders.cron:0 0 8 * * *}", zone = "${reminders.zone:Europe/Zagreb}")
+    public void sendReminders() {
+        if (!settings.isEnabled()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        LocalDate today = LocalDate.now(ZoneId.of(settings.getZone()));
+
+        int sent = 0;
+        long afterCompanyId = 0;
+        while (true) {
+            List<Long> companyIds = companyRepository.findActiveIdsAfter(afterCompanyId, PageRequest.of(0, COMPANY_CHUNK_SIZE));
+            if (companyIds.isEmpty()) {
+                break;
+            }
+            for (Long companyId : companyIds) {
+                try {
+                    sent += sendCompanyReminders(companyId, today, now);
+                } catch (RuntimeException ex) {
+                    log.error("Overdue reminders failed for company {}", companyId, ex);
+                }
+                afterCompanyId = companyId;
+            }
+        }
+        log.info("Queued {} overdue invoice reminder(s)", sent);
+    }
+
+    /**
+     * @return number of reminders queued for the company
+     */
+    int sendCompanyReminders(Long companyId, LocalDate today, LocalDateTime now) {
+        LocalDate dueBefore = today.minusDays(settings.getGraceDays());
+        LocalDateTime remindBefore = now.minus(settings.getInterval());
+
+        // Group the company's overdue invoices by client; only the listed ones are kept in full
+        Map<String, ClientReminder> reminders = new LinkedHashMap<>();
+        LocalDate afterExpiration = null;
+        long afterId = 0;
+        while (true) {
+            List<OverdueInvoiceDto> chunk = documentRepository.findOverdueForReminder(
+                    companyId, dueBefore, remindBefore, settings.getMaxReminders(),
+                    afterExpiration, afterId, PageRequest.of(0, settings.getChunkSize()));
+            if (chunk.isEmpty()) {
+                break;
+            }
+            for (OverdueInvoiceDto invoice : chunk) {
+                String email = invoice.getClientEmail();
+                if (email != null && !email.isBlank()) {
+                    String key = email.trim().toLowerCase(Locale.ROOT);
+                    ClientReminder reminder = reminders.get(key);
+                    if (reminder == null && reminders.size() < settings.getMaxClientsPerCompany()) {
+                        reminder = new ClientReminder(email.trim(), customerName(invoice));
+                        reminders.put(key, reminder);
+                    }
+                    if (reminder != null) {
+                        reminder.add(invoice, settings.getMaxInvoicesPerEmail());
+                    }
+                }
+            }
+            OverdueInvoiceDto last = chunk.get(chunk.size() - 1);
+            afterExpiration = last.getExpirationDate();
+            afterId = last.getDocumentId();
+        }
+        if (reminders.isEmpty()) {
+            return 0;
+        }
+
+        Company company = companyRepository.findById(companyId)
+                .orElseThrow(() -> new RuntimeException("Company not found with id: " + companyId));
+        int sent = 0;
+        for (ClientReminder reminder : reminders.values()) {
+            try {
+                if (sendReminder(company, reminder, remindBefore, now)) {
+                    sent++;
+                }
+            } catch (RuntimeException ex) {
+                log.warn("Overdue reminder for company {} to {} failed", companyId, reminder.email, ex);
+            }
+        }
+        return sent;
+    }
+
+    private boolean sendReminder(Company company, ClientReminder reminder, LocalDateTime remindBefore, LocalDateTime now) {
+        Boolean sent = transactionTemplate.execute(status -> {
+            int marked = 0;
+            for (int i = 0; i < reminder.documentIds.size(); i += MAX_IDS_PER_UPDATE) {
+                List<Long> ids = reminder.documentIds.subList(i, Math.min(i + MAX_IDS_PER_UPDATE, reminder.documentIds.size()));
+                marked += documentRepository.markReminded(ids, remindBefore, now);
+            }
+            if (marked < reminder.documentIds.size()) {
+                status.setRollbackOnly(); // Another run reminded some of them meanwhile
+                return false;
+            }
+
+            Map<String, Object> variables = new HashMap<>();
+            variables.put("customerName", reminder.customerName);
+            variables.put("issuerCompanyName", company.getCompanyName());
+            variables.put("appName", mailProperties.getAppName());
+            variables.put("invoices", reminder.listed);
+            variables.put("invoiceCount", reminder.documentIds.size());
+            variables.put("moreCount", reminder.documentIds.size() - reminder.listed.size());
+            variables.put("totalAmount", reminder.total);
+
+            String subject = reminder.documentIds.size() == 1
+                    ? String.format("Podsjetnik: dospjeli račun br. %s – %s",
+                            reminder.listed.get(0).getDocumentNumber(), company.getCompanyName())
+                    : String.format("Podsjetnik: dospjeli računi – %s", company.getCompanyName());
+            String personalName = company.getCompanyName() + " (via " + mailProperties.getAppName() + ")";
+
+            mailService.sendCustomerHtmlMail(
+                    reminder.email,
+                    subject,
+                    "invoice-reminder-email",
+                    company.getId(),
+                    variables,
+                    company.getEmail(),
+                    personalName
+            );
+            return true;
+        });
+        return Boolean.TRUE.equals(sent);
+    }
+
+    private static String customerName(OverdueInvoiceDto invoice) {
+        String surname = invoice.getClientSurname();
+        return surname != null && !surname.isBlank()
+                ? invoice.getClientName() + " " + surname
+                : invoice.getClientName();
+    }
+
+    private static final class ClientReminder {
+        private final String email;
+        private final String customerName;
+        private final List<OverdueInvoiceDto> listed = new ArrayList<>();
+        private final List<Long> documentIds = new ArrayList<>();
+        private BigDecimal total = BigDecimal.ZERO;
+
+        private ClientReminder(String email, String customerName) {
+            this.email = email;
+            this.customerName = customerName;
+        }
+
+        private void add(OverdueInvoiceDto invoice, int maxListed) {
+            documentIds.add(invoice.getDocumentId());
+            if (invoice.getTotalPrice() != null) {
+                total = total.add(invoice.getTotalPrice());
+            }
+            if (listed.size() < maxListed) {
+                listed.add(invoice);
+            }
+        }
+    }
+}
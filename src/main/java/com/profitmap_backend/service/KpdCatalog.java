@@ -0,0 +1,145 @@
+package com.profitmap_backend.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.profitmap_backend.model.Kpd;
+import com.profitmap_backend.repository.KpdRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * In-memory copy of the KPD classification, so lookups and {@code GET /kpds} never touch the
+ * database.
+ *
+ * <p>Holds an immutable snapshot: code and id maps, the codes sorted, and the full list already
+ * serialised to JSON with an ETag derived from its content. The snapshot is loaded on first use,
+ * rebuilt after every change made through this node ({@link #reloadAfterCommit()}) and re-read
+ * every {@code kpd.catalog.refresh-interval} to pick up changes made by other nodes. Returned
+ * {@link Kpd} instances are shared and must not be modified.
+ */
+@Service
+@Slf4j
+public class KpdCatalog {
+
+    /**
+     * One version of the catalog; {@code sorted} is ordered by code.
+     */
+    public record Snapshot(Map<String, Kpd> byCode, Map<Long, Kpd> byId, List<Kpd> sorted, byte[] json, String etag) {
+    }
+
+    private final KpdRepository kpdRepository;
+    private final ObjectMapper objectMapper;
+
+    private volatile Snapshot snapshot;
+
+    public KpdCatalog(KpdRepository kpdRepository, ObjectMapper objectMapper) {
+        this.kpdRepository = kpdRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    public Snapshot snapshot() {
+        Snapshot current = snapshot;
+        return current != null ? current : load();
+    }
+
+    public Optional<Kpd> findByCode(String code) {
+        return Optional.ofNullable(snapshot().byCode().get(code));
+    }
+
+    public Optional<Kpd> findById(Long id) {
+        return Optional.ofNullable(snapshot().byId().get(id));
+    }
+
+    public List<Kpd> getAll() {
+        return snapshot().sorted();
+    }
+
+    /**
+     * Rebuilds the snapshot once the current transaction commits, or now if there is none.
+     */
+    public void reloadAfterCommit() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    reload();
+                }
+            });
+        } else {
+            reload();
+        }
+    }
+
+    @Scheduled(initialDelayString = "${kpd.catalog.refresh-interval:PT10M}",
+               fixedDelayString = "${kpd.catalog.refresh-interval:PT10M}")
+    public void refresh() {
+        if (snapshot == null) {
+            return;
+        }
+        try {
+            reload();
+        } catch (RuntimeException ex) {
+            // Keep serving the previous snapshot
+            log.error("Refreshing the KPD catalog failed", ex);
+        }
+    }
+
+    private synchronized Snapshot load() {
+        return snapshot != null ? snapshot : reload();
+    }
+
+    private synchronized Snapshot reload() {
+        Kpd[] sorted = kpdRepository.findAll().stream()
+                .map(kpd -> Kpd.builder().id(kpd.getId()).code(kpd.getCode()).name(kpd.getName()).build())
+                .sorted(Comparator.comparing(Kpd::getCode))
+                .toArray(Kpd[]::new);
+        byte[] json = serialize(sorted);
+        String etag = etag(json);
+
+        Snapshot current = snapshot;
+        if (current != null && current.etag().equals(etag)) {
+            return current;
+        }
+        Map<String, Kpd> byCode = new HashMap<>(sorted.length * 2);
+        Map<Long, Kpd> byId = new HashMap<>(sorted.length * 2);
+        for (Kpd kpd : sorted) {
+            byCode.put(kpd.getCode(), kpd);
+            byId.put(kpd.getId(), kpd);
+        }
+        Snapshot next = new Snapshot(Map.copyOf(byCode), Map.copyOf(byId), List.of(sorted), json, etag);
+        snapshot = next;
+        log.debug("KPD catalog loaded: {} code(s), ETag {}", sorted.length, etag);
+        return next;
+    }
+
+    private byte[] serialize(Kpd[] sorted) {
+        try {
+            return objectMapper.writeValueAsBytes(Arrays.asList(sorted));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialise the KPD catalog", e);
+        }
+    }
+
+    // Derived from the content, so every node serves the same ETag for the same catalog
+    private static String etag(byte[] json) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(json);
+            return "\"" + HexFormat.of().formatHex(digest, 0, 16) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
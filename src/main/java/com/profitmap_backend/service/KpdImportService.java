@@ -0,0 +1,204 @@
+package com.profitmap_backend.service;
+
+import com.profitmap_backend.dto.KpdBatchResult;
+import com.profitmap_backend.dto.KpdImportResult;
+import com.profitmap_backend.repository.KpdRepository;
+import com.profitmap_backend.util.CsvReader;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Imports the KPD classification from a CSV file (code and name columns).
+ *
+ * <p>The file is streamed and processed in chunks of {@value #CHUNK_SIZE} rows: one
+ * {@code IN (...)} query finds which codes exist, then new codes are inserted and changed names
+ * updated in JDBC batches, one short transaction per chunk. Re-importing an updated classification
+ * therefore only writes what changed. Codes missing from the file are left alone, since products
+ * may still reference them.
+ */
+@Service
+@Slf4j
+public class KpdImportService {
+
+    static final int CHUNK_SIZE = 500;
+    private static final int MAX_REPORTED_ERRORS = 1000;
+    private static final int MAX_LENGTH = 255;
+
+    private static final Set<String> CODE_HEADERS = Set.of("code", "kod", "šifra", "sifra", "kpd", "oznaka");
+    private static final Set<String> NAME_HEADERS = Set.of("name", "naziv", "opis", "description");
+
+    private static final String INSERT_SQL = "INSERT INTO kpds (code, name) VALUES (?, ?)";
+    private static final String UPDATE_SQL = "UPDATE kpds SET name = ? WHERE id = ?";
+
+    private record Row(long line, String code, String name) {
+    }
+
+    private record ChunkOutcome(int inserted, int updated, int unchanged, List<Row> rejected) {
+    }
+
+    private final KpdRepository kpdRepository;
+    private final KpdCatalog kpdCatalog;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public KpdImportService(KpdRepository kpdRepository,
+                            KpdCatalog kpdCatalog,
+                            JdbcTemplate jdbcTemplate,
+                            PlatformTransactionManager transactionManager) {
+        this.kpdRepository = kpdRepository;
+        this.kpdCatalog = kpdCatalog;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * @param updateExisting rename existing codes whose name differs; when false they are reported
+     *                       as errors, like in {@code POST /kpds/batch}
+     */
+    public KpdImportResult importCsv(InputStream in, boolean updateExisting) throws IOException {
+        KpdImportResult result = new KpdImportResult();
+        Set<String> seenCodes = new HashSet<>();
+        List<Row> chunk = new ArrayList<>(CHUNK_SIZE);
+        try (CsvReader csv = CsvReader.open(in, StandardCharsets.UTF_8)) {
+            List<String> record = csv.next();
+            int codeColumn = 0;
+            int nameColumn = 1;
+            if (record != null && isHeader(record)) {
+                codeColumn = columnIndex(record, CODE_HEADERS, 0);
+                nameColumn = columnIndex(record, NAME_HEADERS, 1);
+                record = csv.next();
+            }
+            for (; record != null; record = csv.next()) {
+                long line = csv.getLineNumber();
+                String code = field(record, codeColumn);
+                String name = field(record, nameColumn);
+                String invalid = validate(code, name);
+                if (invalid == null && !seenCodes.add(code)) {
+                    invalid = "Duplicate code found in the file";
+                }
+                if (invalid != null) {
+                    reportError(result, line, code, name, invalid);
+                    continue;
+                }
+                chunk.add(new Row(line, code, name));
+                if (chunk.size() == CHUNK_SIZE) {
+                    importChunk(chunk, updateExisting, result);
+                    chunk.clear();
+                }
+            }
+        }
+        if (!chunk.isEmpty()) {
+            importChunk(chunk, updateExisting, result);
+        }
+        if (result.getInserted() + result.getUpdated() > 0) {
+            kpdCatalog.reloadAfterCommit();
+        }
+        log.info("KPD import: {} inserted, {} updated, {} unchanged, {} failed",
+                result.getInserted(), result.getUpdated(), result.getUnchanged(), result.getFailed());
+        return result;
+    }
+
+    private void importChunk(List<Row> chunk, boolean updateExisting, KpdImportResult result) {
+        try {
+            ChunkOutcome outcome = transactionTemplate.execute(status -> {
+                // [id, code, name] by code
+                Map<String, Object[]> existing = new HashMap<>();
+                for (Object[] row : kpdRepository.findByCodeIn(chunk.stream().map(Row::code).toList())) {
+                    existing.put((String) row[1], row);
+                }
+                List<Row> inserts = new ArrayList<>();
+                List<Object[]> updates = new ArrayList<>();
+                List<Row> rejected = new ArrayList<>();
+                int unchanged = 0;
+                for (Row row : chunk) {
+                    Object[] current = existing.get(row.code());
+                    if (current == null) {
+                        inserts.add(row);
+                    } else if (row.name().equals(current[2])) {
+                        unchanged++;
+                    } else if (updateExisting) {
+                        updates.add(new Object[]{row.name(), current[0]});
+                    } else {
+                        rejected.add(row);
+                    }
+                }
+                jdbcTemplate.batchUpdate(INSERT_SQL, inserts, inserts.size(), (ps, row) -> {
+                    ps.setString(1, row.code());
+                    ps.setString(2, row.name());
+                });
+                jdbcTemplate.batchUpdate(UPDATE_SQL, updates);
+                return new ChunkOutcome(inserts.size(), updates.size(), unchanged, rejected);
+            });
+            result.setInserted(result.getInserted() + outcome.inserted());
+            result.setUpdated(result.getUpdated() + outcome.updated());
+            result.setUnchanged(result.getUnchanged() + outcome.unchanged());
+            outcome.rejected().forEach(row -> reportError(result, row.line(), row.code(), row.name(),
+                    "KPD with code '" + row.code() + "' already exists"));
+        } catch (DataAccessException e) {
+            // The chunk rolled back as a whole; the next chunks still run
+            log.warn("KPD import chunk starting at line {} failed", chunk.get(0).line(), e);
+            chunk.forEach(row -> reportError(result, row.line(), row.code(), row.name(),
+                    "Import failed: " + e.getMostSpecificCause().getMessage()));
+        }
+    }
+
+    private static String validate(String code, String name) {
+        if (code == null || code.isEmpty()) {
+            return "KPD code cannot be null or empty";
+        }
+        if (name == null || name.isEmpty()) {
+            return "KPD name cannot be null or empty";
+        }
+        if (code.length() > MAX_LENGTH || name.length() > MAX_LENGTH) {
+            return "KPD code and name must be at most " + MAX_LENGTH + " characters";
+        }
+        return null;
+    }
+
+    private static void reportError(KpdImportResult result, long line, String code, String name, String message) {
+        result.setFailed(result.getFailed() + 1);
+        if (result.getErrors().size() < MAX_REPORTED_ERRORS) {
+            result.getErrors().add(KpdBatchResult.KpdError.builder()
+                    .line(line)
+                    .code(code)
+                    .name(name)
+                    .errorMessage(message)
+                    .build());
+        }
+    }
+
+    private static boolean isHeader(List<String> record) {
+        return record.stream().anyMatch(value -> {
+            String header = value.trim().toLowerCase(Locale.ROOT);
+            return CODE_HEADERS.contains(header) || NAME_HEADERS.contains(header);
+        });
+    }
+
+    private static int columnIndex(List<String> header, Set<String> names, int fallback) {
+        for (int i = 0; i < header.size(); i++) {
+            if (names.contains(header.get(i).trim().toLowerCase(Locale.ROOT))) {
+                return i;
+            }
+        }
+        return fallback;
+    }
+
+    private static String field(List<String> record, int index) {
+        return index < record.size() ? record.get(index).trim() : null;
+    }
+}
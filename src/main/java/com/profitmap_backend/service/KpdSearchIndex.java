@@ -0,0 +1,288 @@
+package com.profitmap_backend.service;
+
+import com.profitmap_backend.model.Kpd;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+
+/**
+ * Search over the KPD catalog for the product form: code-prefix lookup, navigation down the code
+ * hierarchy, and name search that ignores case and diacritics ("zitarice" finds "Žitarice").
+ *
+ * <p>The index is built from the current {@link KpdCatalog} snapshot and rebuilt when the catalog
+ * changes. Codes are kept sorted, so a prefix is a binary-searched range; names are split into
+ * normalised words with a sorted word list and, per word, the entries containing it. Every query
+ * word is matched as a word prefix, so results narrow while the user types.
+ */
+@Service
+public class KpdSearchIndex {
+
+    public static final int DEFAULT_LIMIT = 20;
+    public static final int MAX_LIMIT = 100;
+
+    private static final Pattern CODE_QUERY = Pattern.compile("\\d[\\d.]*");
+
+    private final KpdCatalog kpdCatalog;
+
+    private volatile Index index;
+
+    public KpdSearchIndex(KpdCatalog kpdCatalog) {
+        this.kpdCatalog = kpdCatalog;
+    }
+
+    /**
+     * Codes starting with {@code query} if it looks like a code (e.g. "62.0"), otherwise names
+     * containing words starting with each query word, best matches first.
+     */
+    public List<Kpd> search(String query, int limit) {
+        return index().search(query, clampLimit(limit));
+    }
+
+    /**
+     * The entries one level below {@code code} in the hierarchy, or the top level if {@code code}
+     * is blank. Levels with no entries of their own are skipped, so an entry whose parent is missing
+     * from the catalog is listed under its nearest ancestor.
+     */
+    public List<Kpd> children(@Nullable String code) {
+        return index().children(code);
+    }
+
+    private Index index() {
+        KpdCatalog.Snapshot snapshot = kpdCatalog.snapshot();
+        Index current = index;
+        if (current != null && current.snapshot == snapshot) {
+            return current;
+        }
+        synchronized (this) {
+            current = index;
+            if (current == null || current.snapshot != snapshot) {
+                current = Index.build(snapshot.sorted(), snapshot);
+                index = current;
+            }
+            return current;
+        }
+    }
+
+    private static int clampLimit(int limit) {
+        return limit <= 0 ? DEFAULT_LIMIT : Math.min(limit, MAX_LIMIT);
+    }
+
+    /**
+     * Lower-case, diacritics removed ("Đ" becomes "d", which Unicode does not decompose).
+     */
+    static String normalize(String text) {
+        String decomposed = Normalizer.normalize(text.toLowerCase(Locale.ROOT), Normalizer.Form.NFD);
+        StringBuilder normalized = new StringBuilder(decomposed.length());
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = decomposed.charAt(i);
+            if (Character.getType(c) == Character.NON_SPACING_MARK) {
+                continue;
+            }
+            normalized.append(c == 'đ' ? 'd' : c);
+        }
+        return normalized.toString();
+    }
+
+    static List<String> words(String text) {
+        List<String> words = new ArrayList<>();
+        for (String word : normalize(text).split("[^\\p{L}\\p{N}]+")) {
+            if (!word.isEmpty()) {
+                words.add(word);
+            }
+        }
+        return words;
+    }
+
+    /**
+     * Immutable index over one catalog snapshot; {@code entries} are sorted by code.
+     */
+    static final class Index {
+
+        private static final int POSITION_MASK = 0xFFFFFF;
+        private static final int WORD_COUNT_MASK = 0xFFFF;
+
+        private final Object snapshot;
+        private final Kpd[] entries;
+        private final String[] codes;
+        private final int[] depths;
+        private final String[][] nameWords;
+        // Distinct name words, sorted, and for each the entry positions containing it
+        private final String[] words;
+        private final int[][] postings;
+
+        private Index(Object snapshot, Kpd[] entries, String[][] nameWords, String[] words, int[][] postings) {
+            this.snapshot = snapshot;
+            this.entries = entries;
+            this.codes = new String[entries.length];
+            this.depths = new int[entries.length];
+            for (int i = 0; i < entries.length; i++) {
+                codes[i] = entries[i].getCode();
+                depths[i] = depth(codes[i]);
+            }
+            this.nameWords = nameWords;
+            this.words = words;
+            this.postings = postings;
+        }
+
+        static Index build(List<Kpd> sortedByCode, Object snapshot) {
+            Kpd[] entries = sortedByCode.toArray(Kpd[]::new);
+            String[][] nameWords = new String[entries.length][];
+            TreeMap<String, List<Integer>> byWord = new TreeMap<>();
+            for (int i = 0; i < entries.length; i++) {
+                nameWords[i] = entries[i].getName() == null
+                        ? new String[0]
+                        : words(entries[i].getName()).toArray(String[]::new);
+                for (String word : nameWords[i]) {
+                    List<Integer> positions = byWord.computeIfAbsent(word, w -> new ArrayList<>());
+                    if (positions.isEmpty() || positions.get(positions.size() - 1) != i) {
+                        positions.add(i);
+                    }
+                }
+            }
+            String[] words = byWord.keySet().toArray(String[]::new);
+            int[][] postings = byWord.values().stream()
+                    .map(positions -> positions.stream().mapToInt(Integer::intValue).toArray())
+                    .toArray(int[][]::new);
+            return new Index(snapshot, entries, nameWords, words, postings);
+        }
+
+        List<Kpd> search(String query, int limit) {
+            String trimmed = query == null ? "" : query.trim();
+            if (trimmed.isEmpty()) {
+                return List.of();
+            }
+            if (CODE_QUERY.matcher(trimmed).matches()) {
+                return byCodePrefix(trimmed, limit);
+            }
+            return byName(words(trimmed), limit);
+        }
+
+        List<Kpd> children(@Nullable String code) {
+            String prefix = code == null ? "" : code.trim();
+            int from = lowerBound(codes, prefix);
+            int to = lowerBound(codes, prefix + Character.MAX_VALUE);
+            int parentDepth = prefix.isEmpty() ? 0 : depth(prefix);
+            // Sorted by code, so an entry's descendants directly follow it: keep each entry below the
+            // parent unless it descends from the child kept last
+            List<Kpd> children = new ArrayList<>();
+            String lastChild = null;
+            for (int i = from; i < to; i++) {
+                if (depths[i] > parentDepth && (lastChild == null || !codes[i].startsWith(lastChild))) {
+                    children.add(entries[i]);
+                    lastChild = codes[i];
+                }
+            }
+            return children;
+        }
+
+        private List<Kpd> byCodePrefix(String prefix, int limit) {
+            int from = lowerBound(codes, prefix);
+            int to = Math.min(lowerBound(codes, prefix + Character.MAX_VALUE), from + limit);
+            return Arrays.asList(Arrays.copyOfRange(entries, from, Math.max(from, to)));
+        }
+
+        private List<Kpd> byName(List<String> queryWords, int limit) {
+            if (queryWords.isEmpty()) {
+                return List.of();
+            }
+            BitSet matches = null;
+            for (String queryWord : queryWords) {
+                BitSet withWord = new BitSet(entries.length);
+                int from = lowerBound(words, queryWord);
+                int to = lowerBound(words, queryWord + Character.MAX_VALUE);
+                for (int w = from; w < to; w++) {
+                    for (int position : postings[w]) {
+                        withWord.set(position);
+                    }
+                }
+                if (matches == null) {
+                    matches = withWord;
+                } else {
+                    matches.and(withWord);
+                }
+                if (matches.isEmpty()) {
+                    return List.of();
+                }
+            }
+
+            // Keep the best `limit` matches in a heap with the worst on top, so most candidates are
+            // rejected by a single comparison
+            PriorityQueue<Long> best = new PriorityQueue<>(limit + 1);
+            for (int i = matches.nextSetBit(0); i >= 0; i = matches.nextSetBit(i + 1)) {
+                long rank = rank(i, queryWords);
+                if (best.size() < limit) {
+                    best.add(rank);
+                } else if (rank > best.peek()) {
+                    best.poll();
+                    best.add(rank);
+                }
+            }
+            Kpd[] result = new Kpd[best.size()];
+            for (int i = result.length - 1; i >= 0; i--) {
+                result[i] = entries[POSITION_MASK - (int) (best.poll() & POSITION_MASK)];
+            }
+            return Arrays.asList(result);
+        }
+
+        /**
+         * Higher is better: the score, then fewer name words, then lower code, packed into one long.
+         * Whole-word hits count more than prefix hits, a name starting with the first query word more
+         * still.
+         */
+        private long rank(int position, List<String> queryWords) {
+            String[] name = nameWords[position];
+            int score = 0;
+            for (String queryWord : queryWords) {
+                score += contains(name, queryWord) ? 2 : 1;
+            }
+            if (name.length > 0 && name[0].startsWith(queryWords.get(0))) {
+                score += 2;
+            }
+            int brevity = WORD_COUNT_MASK - Math.min(name.length, WORD_COUNT_MASK);
+            return ((long) score << 40) | ((long) brevity << 24) | (POSITION_MASK - position);
+        }
+
+        private static boolean contains(String[] words, String word) {
+            for (String candidate : words) {
+                if (candidate.equals(word)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        // Significant characters of a code: "62.01.1" is at depth 5, one above "62.01.11"
+        private static int depth(String code) {
+            int depth = 0;
+            for (int i = 0; i < code.length(); i++) {
+                if (code.charAt(i) != '.') {
+                    depth++;
+                }
+            }
+            return depth;
+        }
+
+        private static int lowerBound(String[] sorted, String key) {
+            int low = 0;
+            int high = sorted.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (sorted[mid].compareTo(key) < 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+}
@@ -15,18 +15,19 @@ import java.util.Set;
 @RequiredArgsConstructor
 public class KpdService {
     private final KpdRepository kpdRepository;
+    private final KpdCatalog kpdCatalog;
 
     public List<Kpd> getAll() {
-        return kpdRepository.findAll();
+        return kpdCatalog.getAll();
     }
 
     public Kpd getById(Long id) {
-        return kpdRepository.findById(id)
+        return kpdCatalog.findById(id)
                 .orElseThrow(() -> new RuntimeException("KPD not found"));
     }
 
     public Kpd getByCode(String code) {
-        return kpdRepository.findByCode(code)
+        return kpdCatalog.findByCode(code)
                 .orElseThrow(() -> new RuntimeException("KPD not found with code: " + code));
     }
 
@@ -35,66 +36,70 @@ public class KpdService {
         if (kpdRepository.findByCode(kpd.getCode()).isPresent()) {
             throw new RuntimeException("KPD with code '" + kpd.getCode() + "' already exists");
         }
-        return kpdRepository.save(kpd);
+        Kpd saved = kpdRepository.save(kpd);
+        kpdCatalog.reloadAfterCommit();
+        return saved;
     }
 
     public KpdBatchResult createBatch(List<Kpd> kpds) {
         List<Kpd> successful = new ArrayList<>();
         List<KpdBatchResult.KpdError> errors = new ArrayList<>();
         Set<String> processedCodes = new HashSet<>(); // Track codes in this batch
-        
+        List<Kpd> candidates = new ArrayList<>();
+
         for (Kpd kpd : kpds) {
-            try {
-                // Validate code
-                if (kpd.getCode() == null || kpd.getCode().trim().isEmpty()) {
-                    errors.add(KpdBatchResult.KpdError.builder()
-                            .code(kpd.getCode())
-                            .name(kpd.getName())
-                            .errorMessage("KPD code cannot be null or empty")
-                            .build());
-                    continue;
-                }
-                
-                // Check for duplicate codes within the batch
-                if (processedCodes.contains(kpd.getCode())) {
-                    errors.add(KpdBatchResult.KpdError.builder()
-                            .code(kpd.getCode())
-                            .name(kpd.getName())
-                            .errorMessage("Duplicate code found in the batch")
-                            .build());
+            // Validate code
+            if (kpd.getCode() == null || kpd.getCode().trim().isEmpty()) {
+                errors.add(error(kpd, "KPD code cannot be null or empty"));
+                continue;
+            }
+
+            // Check for duplicate codes within the batch
+            if (!processedCodes.add(kpd.getCode())) {
+                errors.add(error(kpd, "Duplicate code found in the batch"));
+                continue;
+            }
+            candidates.add(kpd);
+        }
+
+        // Check existing codes with one query per chunk instead of one per KPD
+        for (int from = 0; from < candidates.size(); from += KpdImportService.CHUNK_SIZE) {
+            List<Kpd> chunk = candidates.subList(from, Math.min(from + KpdImportService.CHUNK_SIZE, candidates.size()));
+            Set<String> existingCodes = new HashSet<>();
+            for (Object[] row : kpdRepository.findByCodeIn(chunk.stream().map(Kpd::getCode).toList())) {
+                existingCodes.add((String) row[1]);
+            }
+
+            for (Kpd kpd : chunk) {
+                if (existingCodes.contains(kpd.getCode())) {
+                    errors.add(error(kpd, "KPD with code '" + kpd.getCode() + "' already exists"));
                     continue;
                 }
-                
-                // Check if code already exists in database
-                if (kpdRepository.findByCode(kpd.getCode()).isPresent()) {
-                    errors.add(KpdBatchResult.KpdError.builder()
-                            .code(kpd.getCode())
-                            .name(kpd.getName())
-                            .errorMessage("KPD with code '" + kpd.getCode() + "' already exists")
-                            .build());
-                    continue;
+                try {
+                    successful.add(kpdRepository.save(kpd));
+                } catch (Exception e) {
+                    errors.add(error(kpd, e.getMessage()));
                 }
-                
-                // Save valid KPD
-                Kpd saved = kpdRepository.save(kpd);
-                successful.add(saved);
-                processedCodes.add(kpd.getCode());
-                
-            } catch (Exception e) {
-                errors.add(KpdBatchResult.KpdError.builder()
-                        .code(kpd.getCode())
-                        .name(kpd.getName())
-                        .errorMessage(e.getMessage())
-                        .build());
             }
         }
-        
+
+        if (!successful.isEmpty()) {
+            kpdCatalog.reloadAfterCommit();
+        }
         return KpdBatchResult.builder()
                 .successful(successful)
                 .errors(errors)
                 .build();
     }
 
+    private static KpdBatchResult.KpdError error(Kpd kpd, String message) {
+        return KpdBatchResult.KpdError.builder()
+                .code(kpd.getCode())
+                .name(kpd.getName())
+                .errorMessage(message)
+                .build();
+    }
+
     public Kpd update(Long id, Kpd kpd) {
         if (!kpdRepository.existsById(id)) {
             throw new RuntimeException("KPD not found");
@@ -109,7 +114,9 @@ public class KpdService {
         }
         
         kpd.setId(id);
-        return kpdRepository.save(kpd);
+        Kpd saved = kpdRepository.save(kpd);
+        kpdCatalog.reloadAfterCommit();
+        return saved;
     }
 
     public void delete(Long id) {
@@ -117,6 +124,7 @@ public class KpdService {
             throw new RuntimeException("KPD not found");
         }
         kpdRepository.deleteById(id);
+        kpdCatalog.reloadAfterCommit();
     }
 }
 
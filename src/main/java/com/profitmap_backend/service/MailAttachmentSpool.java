@@ -0,0 +1,162 @@
+package com.profitmap_backend.service;
+
+import com.profitmap_backend.config.MailProperties;
+import com.profitmap_backend.model.MailOutboxStatus;
+import com.profitmap_backend.repository.MailOutboxRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.lang.Nullable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Keeps outbox attachments on disk instead of in memory or in the database. Files are written once
+ * when the email is queued, streamed into the SMTP connection on delivery and deleted when the email
+ * is sent or dead-lettered.
+ */
+@Component
+@Slf4j
+public class MailAttachmentSpool {
+
+    private static final String FILE_PREFIX = "mail-";
+
+    private final MailProperties.Outbox settings;
+    private final MailOutboxRepository mailOutboxRepository;
+
+    public MailAttachmentSpool(MailProperties mailProperties, MailOutboxRepository mailOutboxRepository) throws IOException {
+        this.settings = mailProperties.getOutbox();
+        this.mailOutboxRepository = mailOutboxRepository;
+        Files.createDirectories(settings.getSpoolDir());
+    }
+
+    /**
+     * Moves or streams an uploaded file into the spool; the upload is never loaded into memory.
+     */
+    public Path spool(MultipartFile file) throws IOException {
+        Path path = newSpoolFile();
+        try {
+            file.transferTo(path);
+        } catch (IOException | RuntimeException ex) {
+            Files.deleteIfExists(path);
+            throw ex;
+        }
+        deleteOnRollback(path);
+        return path;
+    }
+
+    public Path spool(byte[] data) throws IOException {
+        return spool(out -> out.write(data));
+    }
+
+    /**
+     * Spools whatever {@code writer} produces, e.g. a PDF rendered straight into the file.
+     */
+    public Path spool(SpoolWriter writer) throws IOException {
+        Path path = newSpoolFile();
+        try (OutputStream out = Files.newOutputStream(path)) {
+            writer.writeTo(out);
+        } catch (IOException | RuntimeException ex) {
+            Files.deleteIfExists(path);
+            throw ex;
+        }
+        deleteOnRollback(path);
+        return path;
+    }
+
+    /**
+     * Deletes a spooled file once the current transaction commits (or right away outside a transaction).
+     */
+    public void deleteAfterCommit(@Nullable String path) {
+        if (path == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    delete(path);
+                }
+            });
+        } else {
+            delete(path);
+        }
+    }
+
+    /**
+     * Deletes a spooled file that will not be queued after all, e.g. after the queueing transaction failed.
+     */
+    public void discard(Path path) {
+        delete(path.toString());
+    }
+
+    /**
+     * Removes spool files no unsent outbox row points to any more, e.g. left behind by a crash
+     * between writing the file and committing the email, or when deleting after delivery failed.
+     * The referenced paths are loaded once, so the outbox is read once per run, not once per file.
+     */
+    @Scheduled(initialDelayString = "PT10M", fixedDelayString = "PT6H")
+    public void purgeOrphans() {
+        Instant cutoff = Instant.now().minus(settings.getSpoolOrphanAge());
+        // Loaded before listing the spool, so a file queued meanwhile is either referenced or too new
+        Set<String> referenced = new HashSet<>(mailOutboxRepository.findAttachmentPathsByStatusIn(
+                EnumSet.of(MailOutboxStatus.PENDING, MailOutboxStatus.SENDING)));
+        int purged = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(settings.getSpoolDir(), FILE_PREFIX + "*")) {
+            for (Path file : files) {
+                FileTime modified = Files.getLastModifiedTime(file);
+                if (modified.toInstant().isBefore(cutoff) && !referenced.contains(file.toAbsolutePath().toString())) {
+                    Files.deleteIfExists(file);
+                    purged++;
+                }
+            }
+        } catch (IOException ex) {
+            log.warn("Failed to purge orphaned mail attachments in {}", settings.getSpoolDir(), ex);
+        }
+        if (purged > 0) {
+            log.info("Purged {} orphaned mail attachment(s)", purged);
+        }
+    }
+
+    private Path newSpoolFile() throws IOException {
+        return Files.createTempFile(settings.getSpoolDir(), FILE_PREFIX, ".bin").toAbsolutePath();
+    }
+
+    private void deleteOnRollback(Path path) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        delete(path.toString());
+                    }
+                }
+            });
+        }
+    }
+
+    @FunctionalInterface
+    public interface SpoolWriter {
+        void writeTo(OutputStream out) throws IOException;
+    }
+
+    private void delete(String path) {
+        try {
+            Files.deleteIfExists(Path.of(path));
+        } catch (IOException ex) {
+            log.warn("Failed to delete mail attachment {}", path, ex);
+        }
+    }
+}
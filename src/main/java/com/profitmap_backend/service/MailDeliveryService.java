@@ -0,0 +1,110 @@
+package com.profitmap_backend.service;
+
+import com.profitmap_backend.config.MailProperties;
+import com.profitmap_backend.model.MailAccount;
+import com.profitmap_backend.model.MailCategory;
+import com.profitmap_backend.model.MailOutbox;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailPreparationException;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.stereotype.Service;
+
+import java.io.File;
+import java.io.UnsupportedEncodingException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Builds and sends a single outbox email over SMTP through the account picked by {@link MailRouter}.
+ * Called synchronously by the outbox workers.
+ */
+@Service
+@Slf4j
+public class MailDeliveryService {
+
+    private final MailProperties mailProperties;
+
+    @Value("${spring.mail.username}")
+    private String smtpUsername;
+
+    public MailDeliveryService(MailProperties mailProperties) {
+        this.mailProperties = mailProperties;
+    }
+
+    /**
+     * @throws MailPreparationException if the message cannot be built (not worth retrying)
+     * @throws MailException if SMTP delivery fails
+     */
+    public void deliver(MailOutbox mail, MailRouter.Route route) {
+        String fromAddress = fromAddressFor(mail, route.getAccount());
+
+        MimeMessage message = route.getSender().createMimeMessage();
+        try {
+            MimeMessageHelper helper = new MimeMessageHelper(
+                    message,
+                    MimeMessageHelper.MULTIPART_MODE_MIXED_RELATED,
+                    StandardCharsets.UTF_8.name()
+            );
+
+            helper.setTo(mail.getToAddress());
+            helper.setSubject(mail.getSubject());
+            helper.setText(mail.getHtmlBody(), true);
+
+            String personalName = (mail.getFromPersonalName() != null && !mail.getFromPersonalName().isBlank())
+                    ? mail.getFromPersonalName()
+                    : mailProperties.getAppName();
+            helper.setFrom(fromAddress, personalName);
+
+            if (mail.getReplyTo() != null && !mail.getReplyTo().isBlank()) {
+                helper.setReplyTo(mail.getReplyTo());
+            }
+
+            if (mail.getAttachmentPath() != null) {
+                File attachment = new File(mail.getAttachmentPath());
+                if (!attachment.isFile()) {
+                    // Retryable: on a shared spool the file may just not be visible from this node yet
+                    throw new IllegalStateException("Attachment file of email " + mail.getId() + " is missing: " + attachment);
+                }
+                // File-backed DataSource: the PDF is streamed into the SMTP connection, never held in memory
+                helper.addAttachment(mail.getAttachmentName(), attachment);
+            } else if (mail.getAttachmentData() != null) {
+                helper.addAttachment(mail.getAttachmentName(), new ByteArrayResource(mail.getAttachmentData()));
+            }
+        } catch (MessagingException | UnsupportedEncodingException ex) {
+            throw new MailPreparationException("Failed to build email " + mail.getId(), ex);
+        }
+
+        log.debug("Sending {} email {} via {} from {} to {}",
+                mail.getCategory(), mail.getId(), route.getAccount(), fromAddress, mail.getToAddress());
+        route.getSender().send(message);
+        log.debug("Successfully sent email {} to {}", mail.getId(), mail.getToAddress());
+    }
+
+    private String fromAddressFor(MailOutbox mail, MailAccount account) {
+        if (account == MailAccount.SECOND) {
+            return (mailProperties.getSecondAccount() != null &&
+                    mailProperties.getSecondAccount().getFromAddress() != null)
+                    ? mailProperties.getSecondAccount().getFromAddress()
+                    : mailProperties.getFromAddress();
+        }
+
+        if (mail.getCategory() == MailCategory.SYSTEM) {
+            // Use SMTP username as From address to match Zoho's requirements
+            // Zoho requires the From address to match the authenticated SMTP username
+            // The mail.smtp.from property in application.yml sets the envelope sender (MAIL FROM)
+            String fromAddress = smtpUsername != null && !smtpUsername.isEmpty()
+                    ? smtpUsername
+                    : mailProperties.getSystemFromAddress();
+            if (fromAddress == null || fromAddress.isEmpty()) {
+                fromAddress = "hello@profitmap.app"; // Fallback to default
+            }
+            return fromAddress;
+        }
+
+        return mailProperties.getFromAddress();
+    }
+}
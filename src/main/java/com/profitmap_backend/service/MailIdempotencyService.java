@@ -0,0 +1,183 @@
+package com.profitmap_backend.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.profitmap_backend.config.MailProperties;
+import com.profitmap_backend.repository.MailOutboxRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Makes email sends idempotent: a send repeated with the same key within mail.idempotency.window
+ * returns the outbox id of the original email instead of queueing another one.
+ *
+ * <p>Keys are stored (hashed) on the outbox row, so deduplication survives restarts and works across
+ * nodes; a bounded in-memory cache answers recent repeats without a query until their window ends.
+ * Repeats that arrive while the original request is still running get an
+ * {@link IdempotencyConflictException} (409) to retry later, rather than racing or blocking on it.
+ */
+@Service
+@Slf4j
+public class MailIdempotencyService {
+
+    private final MailOutboxRepository mailOutboxRepository;
+    private final MailProperties.Idempotency settings;
+    private final Cache<String, Recent> recent;
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+
+    public MailIdempotencyService(MailOutboxRepository mailOutboxRepository, MailProperties mailProperties) {
+        this.mailOutboxRepository = mailOutboxRepository;
+        this.settings = mailProperties.getIdempotency();
+        this.recent = Caffeine.newBuilder()
+                .maximumSize(settings.getCacheSize())
+                // Only for what is left of the key's window, not a fresh one from when it was cached
+                .expireAfter(new Expiry<String, Recent>() {
+                    @Override
+                    public long expireAfterCreate(String key, Recent entry, long currentTime) {
+                        return Math.max(Duration.between(LocalDateTime.now(), entry.expiresAt()).toNanos(), 0);
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, Recent entry, long currentTime, long currentDuration) {
+                        return expireAfterCreate(key, entry, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, Recent entry, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+
+    private record Recent(Long outboxId, LocalDateTime expiresAt) {
+    }
+
+    /**
+     * Result of {@link #sendOnce}: the outbox id and whether it belongs to an earlier request.
+     */
+    public record Result(Long outboxId, boolean replayed) {
+    }
+
+    /**
+     * Runs {@code send} unless an email with this key was queued within the window.
+     * Must be called inside the transaction that queues the email.
+     *
+     * @param key  idempotency key, see {@link #key(String...)}
+     * @param send queues the email and returns its outbox id
+     * @throws IdempotencyConflictException if a request with the same key is still running
+     */
+    @Transactional
+    public Result sendOnce(String key, Supplier<Long> send) {
+        Recent cached = recent.getIfPresent(key);
+        if (cached != null) {
+            return new Result(cached.outboxId(), true);
+        }
+
+        // Not waited for here: that would hold the caller's transaction and connection meanwhile
+        if (!inFlight.add(key)) {
+            throw new IdempotencyConflictException(
+                    "A send with the same idempotency key is still in progress, retry later",
+                    settings.getInFlightRetryAfter());
+        }
+
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            Optional<Long> existing = findQueued(key, now);
+            if (existing.isPresent()) {
+                inFlight.remove(key);
+                return new Result(existing.get(), true);
+            }
+
+            mailOutboxRepository.releaseIdempotencyKey(key); // Left on an email from an earlier window
+            Long outboxId = send.get();
+            mailOutboxRepository.assignIdempotencyKey(outboxId, key);
+
+            // Repeats may only see the id once the email is committed
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_COMMITTED) {
+                        recent.put(key, new Recent(outboxId, now.plus(settings.getWindow())));
+                    }
+                    inFlight.remove(key);
+                }
+            });
+            return new Result(outboxId, false);
+        } catch (RuntimeException ex) {
+            inFlight.remove(key);
+            throw ex;
+        }
+    }
+
+    /**
+     * The outbox id of the email queued with this key within the window, if any. Lets callers skip
+     * expensive preparation, such as rendering a PDF, for a repeat; {@link #sendOnce} still decides.
+     */
+    public Optional<Long> findReplay(String key) {
+        Recent cached = recent.getIfPresent(key);
+        return cached != null ? Optional.of(cached.outboxId()) : findQueued(key, LocalDateTime.now());
+    }
+
+    private Optional<Long> findQueued(String key, LocalDateTime now) {
+        List<Object[]> existing = mailOutboxRepository.findByIdempotencyKeySince(key, now.minus(settings.getWindow()));
+        if (existing.isEmpty()) {
+            return Optional.empty();
+        }
+        Long outboxId = (Long) existing.get(0)[0];
+        LocalDateTime createdAt = (LocalDateTime) existing.get(0)[1];
+        recent.put(key, new Recent(outboxId, createdAt.plus(settings.getWindow())));
+        return Optional.of(outboxId);
+    }
+
+    /**
+     * Builds a fixed-length key from its parts, e.g. the endpoint, document id and client-supplied key.
+     */
+    public static String key(String... parts) {
+        MessageDigest digest = sha256();
+        for (String part : parts) {
+            digest.update(String.valueOf(part).getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * Hashes content such as an uploaded attachment, streaming it.
+     */
+    public static String contentHash(InputStream in) throws IOException {
+        MessageDigest digest = sha256();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            digest.update(buffer, 0, read);
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.profitmap_backend.service;
+
+import com.profitmap_backend.config.MailProperties;
+import com.profitmap_backend.model.MailOutboxStatus;
+import com.profitmap_backend.repository.MailOutboxRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Deletes sent and dead-lettered outbox rows once they are older than
+ * {@code mail.outbox.retention.keep-for}, so the table the workers claim from and idempotency keys
+ * are looked up in stays small, and old message bodies do not pile up.
+ *
+ * <p>Works like TokenPurgeService: batches of {@code batch-size}, one short transaction each, a
+ * pause in between, and only on the node holding the {@value #LOCK_NAME} scheduler lock. Spooled
+ * attachments of deleted rows are left to MailAttachmentSpool's orphan purge. Deleted rows are
+ * counted in {@code mail.outbox.purged}.
+ */
+@Service
+@Slf4j
+public class MailOutboxPurgeService {
+
+    static final String LOCK_NAME = "mail-outbox-purge";
+
+    private final MailOutboxRepository mailOutboxRepository;
+    private final SchedulerLockService schedulerLockService;
+    private final MailProperties.Retention settings;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter sentPurged;
+    private final Counter deadPurged;
+
+    public MailOutboxPurgeService(MailOutboxRepository mailOutboxRepository,
+                                  SchedulerLockService schedulerLockService,
+                                  MailProperties mailProperties,
+                                  PlatformTransactionManager transactionManager,
+                                  MeterRegistry meterRegistry) {
+        this.mailOutboxRepository = mailOutboxRepository;
+        this.schedulerLockService = schedulerLockService;
+        this.settings = mailProperties.getOutbox().getRetention();
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.sentPurged = purgedCounter(meterRegistry, MailOutboxStatus.SENT);
+        this.deadPurged = purgedCounter(meterRegistry, MailOutboxStatus.DEAD);
+    }
+
+    @Scheduled(cron = "${mail.outbox.retention.cron:0 45 3 * * *}")
+    public void purge() {
+        if (!settings.isEnabled()) {
+            return;
+        }
+        // Held a bit longer than a run may take, so a slow run never overlaps the next one
+        if (!schedulerLockService.tryLock(LOCK_NAME, settings.getMaxRunTime().multipliedBy(2))) {
+            log.debug("Mail outbox purge is running on another node");
+            return;
+        }
+        try {
+            LocalDateTime before = LocalDateTime.now().minus(settings.getKeepFor());
+            long deadline = System.nanoTime() + settings.getMaxRunTime().toNanos();
+            int sent = purge(MailOutboxStatus.SENT, before, sentPurged, deadline);
+            int dead = purge(MailOutboxStatus.DEAD, before, deadPurged, deadline);
+            if (sent + dead > 0) {
+                log.info("Purged {} sent and {} dead email(s) from the mail outbox", sent, dead);
+            }
+        } finally {
+            schedulerLockService.unlock(LOCK_NAME);
+        }
+    }
+
+    private int purge(MailOutboxStatus status, LocalDateTime before, Counter purged, long deadline) {
+        Pageable batch = PageRequest.of(0, settings.getBatchSize());
+        int total = 0;
+        while (System.nanoTime() < deadline) {
+            Integer deleted = transactionTemplate.execute(tx -> {
+                List<Long> ids = mailOutboxRepository.findIdsByStatusUpdatedBefore(status, before, batch);
+                return ids.isEmpty() ? 0 : mailOutboxRepository.deleteByIds(ids);
+            });
+            if (deleted == null || deleted == 0) {
+                break;
+            }
+            total += deleted;
+            purged.increment(deleted);
+            if (deleted < settings.getBatchSize()) {
+                break;
+            }
+            try {
+                Thread.sleep(settings.getPause().toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        return total;
+    }
+
+    private static Counter purgedCounter(MeterRegistry meterRegistry, MailOutboxStatus status) {
+        return Counter.builder("mail.outbox.purged")
+                .description("Finished outbox emails deleted by the retention purge")
+                .tag("status", status.name().toLowerCase(Locale.ROOT))
+                .register(meterRegistry);
+    }
+}
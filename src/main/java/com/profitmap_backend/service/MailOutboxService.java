@@ -0,0 +1,172 @@
+package com.profitmap_backend.service;
+
+import com.profitmap_backend.config.MailProperties;
+import com.profitmap_backend.dto.MailOutboxStatusDto;
+import com.profitmap_backend.model.MailAccount;
+import com.profitmap_backend.model.MailCategory;
+import com.profitmap_backend.model.MailOutbox;
+import com.profitmap_backend.model.MailOutboxStatus;
+import com.profitmap_backend.repository.MailOutboxRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Persistence side of the mail outbox: enqueueing, claiming due rows and recording delivery outcomes.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class MailOutboxService {
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final MailOutboxRepository mailOutboxRepository;
+    private final MailProperties mailProperties;
+    private final MailAttachmentSpool mailAttachmentSpool;
+
+    /**
+     * Stores an email for delivery. Joins the caller's transaction, so the email is only sent
+     * if the surrounding business change commits.
+     *
+     * @return id of the outbox row, usable with {@link #getStatus(Long)}
+     */
+    @Transactional
+    public Long enqueue(MailCategory category,
+                        MailAccount account,
+                        String to,
+                        String subject,
+                        String htmlBody,
+                        @Nullable String replyTo,
+                        @Nullable String fromPersonalName,
+                        @Nullable String attachmentName,
+                        @Nullable Path attachmentPath) {
+        MailOutbox mail = MailOutbox.builder()
+                .category(category)
+                .account(account)
+                .status(MailOutboxStatus.PENDING)
+                .toAddress(to)
+                .subject(subject)
+                .htmlBody(htmlBody)
+                .replyTo(replyTo)
+                .fromPersonalName(fromPersonalName)
+                .attachmentName(attachmentName)
+                .attachmentPath(attachmentPath != null ? attachmentPath.toString() : null)
+                .attempts(0)
+                .nextAttemptAt(LocalDateTime.now())
+                .build();
+
+        mail = mailOutboxRepository.save(mail);
+        log.debug("Queued {} email {} to {}", category, mail.getId(), to);
+        return mail.getId();
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<MailOutboxStatusDto> getStatus(Long id) {
+        return mailOutboxRepository.findStatusById(id);
+    }
+
+    /**
+     * Claims up to {@code limit} due emails of the category by switching them to SENDING.
+     * The returned entities are detached and carry everything needed for delivery.
+     */
+    @Transactional
+    public List<MailOutbox> claimDue(MailCategory category, int limit) {
+        LocalDateTime now = LocalDateTime.now();
+        List<MailOutbox> due = mailOutboxRepository.findDueForUpdate(
+                MailOutboxStatus.PENDING, category, now, PageRequest.of(0, limit));
+        for (MailOutbox mail : due) {
+            mail.setStatus(MailOutboxStatus.SENDING);
+            mail.setLockedAt(now);
+        }
+        return due;
+    }
+
+    /**
+     * Records delivery together with the account that actually sent the email.
+     */
+    @Transactional
+    public void markSent(MailOutbox mail, MailAccount sentVia) {
+        mailOutboxRepository.markSent(mail.getId(), sentVia, mail.getAttempts() + 1, LocalDateTime.now());
+        mailAttachmentSpool.deleteAfterCommit(mail.getAttachmentPath());
+    }
+
+    /**
+     * Records a failed attempt. Retries with exponential backoff until max attempts,
+     * permanent failures are dead-lettered straight away.
+     */
+    @Transactional
+    public void markFailed(MailOutbox mail, Exception error, boolean permanent) {
+        MailProperties.Outbox settings = mailProperties.getOutbox();
+        int attempts = mail.getAttempts() + 1;
+        LocalDateTime now = LocalDateTime.now();
+        String message = truncate(error.getClass().getSimpleName() + ": " + error.getMessage());
+
+        if (permanent || attempts >= settings.getMaxAttempts()) {
+            mailOutboxRepository.markFailed(mail.getId(), MailOutboxStatus.DEAD, attempts, message, now, now);
+            mailAttachmentSpool.deleteAfterCommit(mail.getAttachmentPath());
+            log.error("Email {} to {} dead-lettered after {} attempt(s): {}",
+                    mail.getId(), mail.getToAddress(), attempts, message);
+            return;
+        }
+
+        LocalDateTime nextAttemptAt = now.plus(backoff(attempts, settings));
+        mailOutboxRepository.markFailed(mail.getId(), MailOutboxStatus.PENDING, attempts, message, nextAttemptAt, now);
+        log.warn("Email {} to {} failed (attempt {}), retrying at {}: {}",
+                mail.getId(), mail.getToAddress(), attempts, nextAttemptAt, message);
+    }
+
+    /**
+     * Returns a claimed email to the queue without counting an attempt.
+     */
+    @Transactional
+    public void release(MailOutbox mail, Duration delay) {
+        LocalDateTime now = LocalDateTime.now();
+        mailOutboxRepository.release(mail.getId(), now.plus(delay), now);
+    }
+
+    /**
+     * Returns a claimed email to the queue for another account, counting the failover but not an attempt.
+     */
+    @Transactional
+    public void releaseForFailover(MailOutbox mail) {
+        mailOutboxRepository.releaseForFailover(mail.getId(), LocalDateTime.now());
+    }
+
+    /**
+     * Re-queues emails that stayed SENDING past the stuck timeout, e.g. after a crash.
+     */
+    @Transactional
+    public int releaseStuck() {
+        LocalDateTime now = LocalDateTime.now();
+        int released = mailOutboxRepository.releaseStuck(now.minus(mailProperties.getOutbox().getStuckTimeout()), now);
+        if (released > 0) {
+            log.warn("Re-queued {} email(s) stuck in SENDING", released);
+        }
+        return released;
+    }
+
+    private Duration backoff(int attempts, MailProperties.Outbox settings) {
+        long initialMillis = settings.getInitialBackoff().toMillis();
+        long maxMillis = settings.getMaxBackoff().toMillis();
+        long delay = initialMillis << Math.min(attempts - 1, 20);
+        delay = Math.min(delay, maxMillis);
+        // Up to 20% jitter so retries from a burst don't hit SMTP at the same moment
+        long jitter = (long) (delay * 0.2 * ThreadLocalRandom.current().nextDouble());
+        return Duration.ofMillis(delay + jitter);
+    }
+
+    private String truncate(String message) {
+        return message.length() <= MAX_ERROR_LENGTH ? message : message.substring(0, MAX_ERROR_LENGTH);
+    }
+}
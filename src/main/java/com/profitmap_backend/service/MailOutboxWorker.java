@@ -0,0 +1,136 @@
+package com.profitmap_backend.service;
+
+import com.profitmap_backend.config.ExecutorProperties;
+import com.profitmap_backend.config.MailProperties;
+import com.profitmap_backend.model.MailAccount;
+import com.profitmap_backend.model.MailCategory;
+import com.profitmap_backend.model.MailOutbox;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.mail.MailParseException;
+import org.springframework.mail.MailPreparationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Drains the mail outbox with bounded concurrency. Only as many rows are claimed as there are
+ * free workers, so claimed mail never waits in memory and a restart loses nothing.
+ * System and customer mail are claimed and delivered in separate lanes with their own pools,
+ * so a backlog of customer mail never delays activation emails.
+ * Each email is routed to an account by {@link MailRouter}; mail that no account can take right now
+ * is put back with a delay, and mail an account was throttled on is put back for another account,
+ * up to {@code mail.routing.max-throttle-failovers} times before throttling counts as a failed attempt.
+ */
+@Component
+@Slf4j
+public class MailOutboxWorker {
+
+    private final MailOutboxService mailOutboxService;
+    private final MailDeliveryService mailDeliveryService;
+    private final MailRouter mailRouter;
+    private final MailProperties.Routing routingSettings;
+    private final List<Lane> lanes;
+
+    public MailOutboxWorker(MailOutboxService mailOutboxService,
+                            MailDeliveryService mailDeliveryService,
+                            MailRouter mailRouter,
+                            MailProperties mailProperties,
+                            ExecutorProperties executorProperties,
+                            @Qualifier("systemMailExecutor") ThreadPoolTaskExecutor systemMailExecutor,
+                            @Qualifier("customerMailExecutor") ThreadPoolTaskExecutor customerMailExecutor) {
+        this.mailOutboxService = mailOutboxService;
+        this.mailDeliveryService = mailDeliveryService;
+        this.mailRouter = mailRouter;
+        this.routingSettings = mailProperties.getRouting();
+        this.lanes = List.of(
+                new Lane(MailCategory.SYSTEM, systemMailExecutor,
+                        new Semaphore(executorProperties.getSystemMail().getMaxSize())),
+                new Lane(MailCategory.CUSTOMER, customerMailExecutor,
+                        new Semaphore(executorProperties.getCustomerMail().getMaxSize())));
+    }
+
+    @Scheduled(fixedDelayString = "${mail.outbox.poll-interval:PT2S}")
+    public void drain() {
+        for (Lane lane : lanes) {
+            drain(lane);
+        }
+    }
+
+    private void drain(Lane lane) {
+        int free;
+        while ((free = lane.freeWorkers().availablePermits()) > 0) {
+            List<MailOutbox> claimed = mailOutboxService.claimDue(lane.category(), free);
+            boolean deferred = false;
+            for (MailOutbox mail : claimed) {
+                deferred |= !dispatch(mail, lane);
+            }
+            if (deferred || claimed.size() < free) {
+                return; // Nothing more is due, or accounts are saturated until the next poll
+            }
+        }
+    }
+
+    @Scheduled(initialDelay = 0, fixedDelayString = "PT1M")
+    public void releaseStuck() {
+        mailOutboxService.releaseStuck();
+    }
+
+    /**
+     * @return false if no account could take the email and it was put back
+     */
+    private boolean dispatch(MailOutbox mail, Lane lane) {
+        Optional<MailRouter.Route> route = mailRouter.route(mail);
+        if (route.isEmpty()) {
+            Duration delay = mailRouter.retryDelay(mail);
+            log.debug("No mail account available for email {}, retrying in {}", mail.getId(), delay);
+            mailOutboxService.release(mail, delay);
+            return false;
+        }
+
+        lane.freeWorkers().acquireUninterruptibly();
+        try {
+            lane.executor().execute(() -> {
+                try {
+                    deliver(mail, route.get());
+                } finally {
+                    lane.freeWorkers().release();
+                }
+            });
+        } catch (TaskRejectedException ex) {
+            lane.freeWorkers().release();
+            log.warn("{} mail worker pool rejected email {}, returning it to the outbox", lane.category(), mail.getId());
+            mailOutboxService.release(mail, Duration.ZERO);
+        }
+        return true;
+    }
+
+    private void deliver(MailOutbox mail, MailRouter.Route route) {
+        try {
+            mailDeliveryService.deliver(mail, route);
+            mailRouter.onSuccess(route);
+            mailOutboxService.markSent(mail, route.getAccount());
+        } catch (MailParseException | MailPreparationException ex) {
+            mailOutboxService.markFailed(mail, ex, true);
+        } catch (Exception ex) {
+            MailRouter.FailureKind kind = mailRouter.onFailure(route, ex);
+            if (kind == MailRouter.FailureKind.THROTTLED && mail.getAccount() == MailAccount.AUTO
+                    && mail.getThrottleFailovers() < routingSettings.getMaxThrottleFailovers()) {
+                // Probably not the email's fault: fail over to another account without spending an attempt
+                log.info("Email {} throttled on {}, handing it to another account", mail.getId(), route.getAccount());
+                mailOutboxService.releaseForFailover(mail);
+            } else {
+                mailOutboxService.markFailed(mail, ex, false);
+            }
+        }
+    }
+
+    private record Lane(MailCategory category, ThreadPoolTaskExecutor executor, Semaphore freeWorkers) {
+    }
+}
@@ -0,0 +1,297 @@
+package com.profitmap_backend.service;
+
+import com.profitmap_backend.config.MailProperties;
+import com.profitmap_backend.model.MailAccount;
+import com.profitmap_backend.model.MailCategory;
+import com.profitmap_backend.model.MailOutbox;
+import com.profitmap_backend.util.TokenBucket;
+import jakarta.mail.AuthenticationFailedException;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.angus.mail.smtp.SMTPAddressFailedException;
+import org.eclipse.angus.mail.smtp.SMTPSendFailedException;
+import org.eclipse.angus.mail.smtp.SMTPSenderFailedException;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.lang.Nullable;
+import org.springframework.mail.MailAuthenticationException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Picks the mail account for each outbox email.
+ *
+ * <p>System mail always goes through the primary account, because its From address must match
+ * the primary SMTP username. Customer mail enqueued as {@link MailAccount#AUTO} is spread over all
+ * configured accounts with smooth weighted round-robin, skipping accounts that are over their
+ * per-minute limit or cooling down after throttling or connection failures. Envelope senders are
+ * still fixed per account in MailConfig, so switching accounts never breaks relay rules.
+ */
+@Component
+@Slf4j
+public class MailRouter {
+
+    private static final Duration NO_ROUTE_RETRY = Duration.ofSeconds(30);
+
+    // Reply codes servers use for "slow down" (too many connections, local limits, try later)
+    private static final Set<Integer> THROTTLE_CODES = Set.of(421, 451, 452, 454);
+
+    // 5xx replies to the sender or the message that are really rate limits of the sending account
+    private static final List<String> THROTTLE_HINTS = List.of(
+            "rate limit", "rate-limit", "sending limit", "too many messages", "too many connections",
+            "unusual activity", "try again later");
+
+    public enum FailureKind {
+        /** Server asked the account to slow down; the email should go out through another account. */
+        THROTTLED,
+        /** Account could not connect or authenticate; counts against its health. */
+        ACCOUNT,
+        /** The email itself failed (e.g. rejected recipient); the account is fine. */
+        MESSAGE
+    }
+
+    private final MailProperties.Routing settings;
+    private final Map<MailAccount, Route> routes = new EnumMap<>(MailAccount.class);
+
+    public MailRouter(MailProperties mailProperties,
+                      JavaMailSender mailSender,
+                      @Qualifier("secondMailSender") Optional<JavaMailSender> secondMailSender) {
+        this.settings = mailProperties.getRouting();
+        addRoute(MailAccount.PRIMARY, mailSender);
+        secondMailSender.ifPresent(sender -> addRoute(MailAccount.SECOND, sender));
+        log.info("Mail routing over {}", routes.values().stream()
+                .map(route -> route.getAccount() + " (weight " + route.weight + ")")
+                .toList());
+    }
+
+    /**
+     * Reserves an account for the given email.
+     *
+     * @return empty if no suitable account can send right now; see {@link #retryDelay(MailOutbox)}
+     */
+    public synchronized Optional<Route> route(MailOutbox mail) {
+        long now = System.nanoTime();
+
+        if (mail.getCategory() == MailCategory.SYSTEM || mail.getAccount() != MailAccount.AUTO) {
+            Route pinned = pinnedRoute(mail);
+            return pinned.tryAcquire(now) ? Optional.of(pinned) : Optional.empty();
+        }
+
+        // Smooth weighted round-robin (as in nginx) over the accounts that can send now
+        List<Route> candidates = new ArrayList<>();
+        int totalWeight = 0;
+        for (Route route : routes.values()) {
+            if (route.weight > 0 && route.isAvailable(now)) {
+                candidates.add(route);
+                totalWeight += route.weight;
+            }
+        }
+        while (!candidates.isEmpty()) {
+            Route best = null;
+            for (Route route : candidates) {
+                route.currentWeight += route.weight;
+                if (best == null || route.currentWeight > best.currentWeight) {
+                    best = route;
+                }
+            }
+            best.currentWeight -= totalWeight;
+            if (best.tryAcquire(now)) {
+                return Optional.of(best);
+            }
+            candidates.remove(best);
+            totalWeight -= best.weight;
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * How long an email that could not be routed should wait before it is tried again.
+     */
+    public synchronized Duration retryDelay(MailOutbox mail) {
+        long now = System.nanoTime();
+        List<Route> candidates = (mail.getCategory() == MailCategory.SYSTEM || mail.getAccount() != MailAccount.AUTO)
+                ? List.of(pinnedRoute(mail))
+                : routes.values().stream().filter(route -> route.weight > 0).toList();
+
+        long wait = candidates.stream()
+                .mapToLong(route -> route.nanosUntilAvailable(now))
+                .min()
+                .orElse(NO_ROUTE_RETRY.toNanos());
+        return Duration.ofNanos(Math.max(wait, Duration.ofSeconds(1).toNanos()));
+    }
+
+    public synchronized void onSuccess(Route route) {
+        route.consecutiveFailures = 0;
+    }
+
+    /**
+     * Records a failed send and takes the account out of rotation when the failure is its fault.
+     */
+    public synchronized FailureKind onFailure(Route route, Exception error) {
+        FailureKind kind = classify(error);
+        long now = System.nanoTime();
+
+        switch (kind) {
+            case THROTTLED -> {
+                route.unavailableUntilNanos = now + settings.getThrottleCooldown().toNanos();
+                log.warn("Mail account {} throttled by server, out of rotation for {}: {}",
+                        route.getAccount(), settings.getThrottleCooldown(), error.getMessage());
+            }
+            case ACCOUNT -> {
+                route.consecutiveFailures++;
+                if (isAuthenticationFailure(error) || route.consecutiveFailures >= settings.getFailureThreshold()) {
+                    route.unavailableUntilNanos = now + settings.getFailureCooldown().toNanos();
+                    route.consecutiveFailures = 0;
+                    log.warn("Mail account {} failing, out of rotation for {}: {}",
+                            route.getAccount(), settings.getFailureCooldown(), error.getMessage());
+                }
+            }
+            case MESSAGE -> route.consecutiveFailures = 0;
+        }
+        return kind;
+    }
+
+    static FailureKind classify(Exception error) {
+        for (Throwable cause : causes(error)) {
+            if (cause instanceof MailAuthenticationException || cause instanceof AuthenticationFailedException) {
+                return FailureKind.ACCOUNT;
+            }
+            if (cause instanceof SMTPAddressFailedException ex) {
+                // Recipient rejected (unknown, mailbox full, ...): only a closing connection is the account's problem
+                return ex.getReturnCode() == 421 ? FailureKind.THROTTLED : FailureKind.MESSAGE;
+            }
+            Integer code = smtpReturnCode(cause);
+            if (code != null) {
+                if (THROTTLE_CODES.contains(code) || (code >= 500 && hasThrottleHint(cause.getMessage()))) {
+                    return FailureKind.THROTTLED;
+                }
+                if (code == 535 || code == 553) {
+                    // Credentials rejected or sender not allowed to relay: the account is misconfigured
+                    return FailureKind.ACCOUNT;
+                }
+                return FailureKind.MESSAGE;
+            }
+        }
+        for (Throwable cause : causes(error)) {
+            if (cause instanceof IOException) {
+                return FailureKind.ACCOUNT;
+            }
+        }
+        return FailureKind.MESSAGE;
+    }
+
+    private static boolean isAuthenticationFailure(Exception error) {
+        return causes(error).stream().anyMatch(cause ->
+                cause instanceof MailAuthenticationException || cause instanceof AuthenticationFailedException);
+    }
+
+    @Nullable
+    private static Integer smtpReturnCode(Throwable cause) {
+        if (cause instanceof SMTPSendFailedException ex) {
+            return ex.getReturnCode();
+        }
+        if (cause instanceof SMTPSenderFailedException ex) {
+            return ex.getReturnCode();
+        }
+        return null;
+    }
+
+    private static boolean hasThrottleHint(@Nullable String message) {
+        if (message == null) {
+            return false;
+        }
+        String lower = message.toLowerCase(Locale.ROOT);
+        return THROTTLE_HINTS.stream().anyMatch(lower::contains);
+    }
+
+    /**
+     * The error, its cause chain and, for MailSendException, the per-message failures with their causes.
+     */
+    private static List<Throwable> causes(Throwable error) {
+        List<Throwable> result = new ArrayList<>();
+        Set<Throwable> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        Deque<Throwable> pending = new ArrayDeque<>();
+        pending.add(error);
+        while (!pending.isEmpty()) {
+            Throwable current = pending.poll();
+            if (current == null || !seen.add(current)) {
+                continue;
+            }
+            result.add(current);
+            if (current.getCause() != null) {
+                pending.add(current.getCause());
+            }
+            if (current instanceof MailSendException sendException) {
+                pending.addAll(sendException.getFailedMessages().values());
+            }
+        }
+        return result;
+    }
+
+    private Route pinnedRoute(MailOutbox mail) {
+        if (mail.getCategory() == MailCategory.CUSTOMER && mail.getAccount() == MailAccount.SECOND) {
+            return routes.getOrDefault(MailAccount.SECOND, routes.get(MailAccount.PRIMARY));
+        }
+        return routes.get(MailAccount.PRIMARY);
+    }
+
+    private void addRoute(MailAccount account, JavaMailSender sender) {
+        MailProperties.AccountRoute config = settings.forAccount(account);
+        TokenBucket limiter = config.getMaxPerMinute() > 0
+                ? new TokenBucket(config.getMaxPerMinute(), Duration.ofMinutes(1))
+                : null;
+        routes.put(account, new Route(account, sender, Math.max(config.getWeight(), 0), limiter));
+    }
+
+    /**
+     * A mail account with its sender, rate limit and health. Mutable state is guarded by the router.
+     */
+    public static final class Route {
+        @Getter
+        private final MailAccount account;
+        @Getter
+        private final JavaMailSender sender;
+        private final int weight;
+        @Nullable
+        private final TokenBucket limiter;
+        private int currentWeight;
+        private int consecutiveFailures;
+        private long unavailableUntilNanos;
+
+        private Route(MailAccount account, JavaMailSender sender, int weight, @Nullable TokenBucket limiter) {
+            this.account = account;
+            this.sender = sender;
+            this.weight = weight;
+            this.limiter = limiter;
+            this.unavailableUntilNanos = System.nanoTime();
+        }
+
+        private boolean isAvailable(long now) {
+            return now - unavailableUntilNanos >= 0 && (limiter == null || limiter.nanosUntilAvailable() == 0);
+        }
+
+        private boolean tryAcquire(long now) {
+            return now - unavailableUntilNanos >= 0 && (limiter == null || limiter.tryAcquire());
+        }
+
+        private long nanosUntilAvailable(long now) {
+            long cooldown = Math.max(unavailableUntilNanos - now, 0);
+            long rate = limiter == null ? 0 : limiter.nanosUntilAvailable();
+            return Math.max(cooldown, rate);
+        }
+    }
+}
@@ -1,47 +1,42 @@
 package com.profitmap_backend.service;
 
 import com.profitmap_backend.config.MailProperties;
-import jakarta.mail.MessagingException;
-import jakarta.mail.internet.MimeMessage;
+import com.profitmap_backend.model.MailAccount;
+import com.profitmap_backend.model.MailCategory;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.io.ByteArrayResource;
 import org.springframework.lang.Nullable;
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Qualifier;
-import org.springframework.mail.MailException;
-import org.springframework.mail.javamail.JavaMailSender;
-import org.springframework.mail.javamail.MimeMessageHelper;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
-import java.io.UnsupportedEncodingException;
-import java.nio.charset.StandardCharsets;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.HashMap;
 import java.util.Map;
 
+/**
+ * Entry point for sending email. Every method renders the body and stores the email in the
+ * persistent outbox (see {@link MailOutboxService}); delivery happens in {@link MailOutboxWorker}
+ * with retries, so callers never block on SMTP and failures are never lost.
+ * Each method returns the outbox id, which can be polled via {@code GET /mail/outbox/{id}}.
+ * Customer mail is not tied to an account; {@link MailRouter} spreads it over the configured ones.
+ */
 @Service
 @Slf4j
 public class MailService {
 
-    private final JavaMailSender mailSender;
+    private final MailOutboxService mailOutboxService;
     private final MailTemplateService mailTemplateService;
     private final MailProperties mailProperties;
-    
-    @Value("${spring.mail.username}")
-    private String smtpUsername;
-
-    @Autowired(required = false)
-    @Qualifier("secondMailSender")
-    private JavaMailSender secondMailSender;
+    private final MailAttachmentSpool mailAttachmentSpool;
 
     public MailService(
-            JavaMailSender mailSender,
+            MailOutboxService mailOutboxService,
             MailTemplateService mailTemplateService,
-            MailProperties mailProperties) {
-        this.mailSender = mailSender;
+            MailProperties mailProperties,
+            MailAttachmentSpool mailAttachmentSpool) {
+        this.mailOutboxService = mailOutboxService;
         this.mailTemplateService = mailTemplateService;
         this.mailProperties = mailProperties;
+        this.mailAttachmentSpool = mailAttachmentSpool;
     }
 
     /**
@@ -62,80 +57,33 @@ public class MailService {
      * </pre>
      */
 
-    @Async
-    public void sendSystemHtmlMail(String to, String subject, String htmlBody) {
-        try {
-            MimeMessage message = mailSender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(
-                    message,
-                    MimeMessageHelper.MULTIPART_MODE_MIXED_RELATED,
-                    StandardCharsets.UTF_8.name()
-            );
-
-            helper.setTo(to);
-            helper.setSubject(subject);
-            helper.setText(htmlBody, true);
-            
-            // Use SMTP username as From address to match Zoho's requirements
-            // Zoho requires the From address to match the authenticated SMTP username
-            // The mail.smtp.from property in application.yml sets the envelope sender (MAIL FROM)
-            String fromAddress = smtpUsername != null && !smtpUsername.isEmpty() 
-                    ? smtpUsername 
-                    : mailProperties.getSystemFromAddress();
-            
-            if (fromAddress == null || fromAddress.isEmpty()) {
-                fromAddress = "hello@profitmap.app"; // Fallback to default
-            }
-            
-            helper.setFrom(fromAddress, mailProperties.getAppName());
-            log.debug("Sending system email from {} to {}", fromAddress, to);
-
-            mailSender.send(message);
-            log.debug("Successfully sent system email to {}", to);
-        } catch (MessagingException | MailException | UnsupportedEncodingException ex) {
-            log.error("Failed to send system email to {}", to, ex);
-            throw new IllegalStateException("Failed to send system email", ex);
-        }
+    public Long sendSystemHtmlMail(String to, String subject, String htmlBody) {
+        return mailOutboxService.enqueue(
+                MailCategory.SYSTEM, MailAccount.PRIMARY,
+                to, subject, htmlBody,
+                null, mailProperties.getAppName(),
+                null, null
+        );
     }
 
-    @Async
-    public void sendHtmlMailWithPdfAttachment(
+    /**
+     * @param pdfFile PDF already spooled with {@link MailAttachmentSpool}; deleted once the email is sent
+     */
+    public Long sendHtmlMailWithPdfAttachment(
             String to,
             String subject,
             String htmlBody,
-            byte[] pdfBytes,
+            Path pdfFile,
             String pdfFileName,
             @Nullable String replyTo,
             @Nullable String fromPersonalName
     ) {
-        try {
-            MimeMessage message = mailSender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(
-                    message,
-                    MimeMessageHelper.MULTIPART_MODE_MIXED_RELATED,
-                    StandardCharsets.UTF_8.name()
-            );
-
-            helper.setTo(to);
-            helper.setSubject(subject);
-            helper.setText(htmlBody, true);
-
-            String personalName = (fromPersonalName != null && !fromPersonalName.isBlank())
-                    ? fromPersonalName
-                    : mailProperties.getAppName();
-            helper.setFrom(mailProperties.getFromAddress(), personalName);
-
-            if (replyTo != null && !replyTo.isBlank()) {
-                helper.setReplyTo(replyTo);
-            }
-
-            helper.addAttachment(pdfFileName, new ByteArrayResource(pdfBytes));
-
-            mailSender.send(message);
-        } catch (MessagingException | MailException | UnsupportedEncodingException ex) {
-            log.error("Failed to send email with attachment to {}", to, ex);
-            throw new IllegalStateException("Failed to send email with attachment", ex);
-        }
+        return mailOutboxService.enqueue(
+                MailCategory.CUSTOMER, MailAccount.AUTO,
+                to, subject, htmlBody,
+                replyTo, fromPersonalName,
+                pdfFileName, pdfFile
+        );
     }
 
     /**
@@ -145,37 +93,62 @@ public class MailService {
      * @param to Recipient email address
      * @param subject Email subject
      * @param templateName Name of the template (without .html extension)
+     * @param companyId Issuing company, used to pick its template variant if it has one
      * @param templateVariables Variables to be used in the template
-     * @param pdfBytes PDF file content as byte array
+     * @param pdfFile PDF already spooled with {@link MailAttachmentSpool}
      * @param pdfFileName Name of the PDF file attachment
      * @param replyTo Optional reply-to email address
      * @param fromPersonalName Optional sender personal name
      */
-    @Async
-    public void sendHtmlMailWithPdfAttachment(
+    public Long sendHtmlMailWithPdfAttachment(
             String to,
             String subject,
             String templateName,
+            @Nullable Long companyId,
             Map<String, Object> templateVariables,
-            byte[] pdfBytes,
+            Path pdfFile,
             String pdfFileName,
             @Nullable String replyTo,
             @Nullable String fromPersonalName
     ) {
-        String htmlBody = mailTemplateService.render(templateName, templateVariables);
-        sendHtmlMailWithPdfAttachment(
+        String htmlBody = mailTemplateService.render(templateName, companyId, templateVariables);
+        return sendHtmlMailWithPdfAttachment(
                 to,
                 subject,
                 htmlBody,
-                pdfBytes,
+                pdfFile,
                 pdfFileName,
                 replyTo,
                 fromPersonalName
         );
     }
 
-    @Async
-    public void sendCustomerInvoiceEmail(
+    /**
+     * Sends a customer HTML email without attachment using a template.
+     *
+     * @param companyId Issuing company, used to pick its template variant if it has one
+     * @param replyTo Optional reply-to email address
+     * @param fromPersonalName Optional sender personal name
+     */
+    public Long sendCustomerHtmlMail(
+            String to,
+            String subject,
+            String templateName,
+            @Nullable Long companyId,
+            Map<String, Object> templateVariables,
+            @Nullable String replyTo,
+            @Nullable String fromPersonalName
+    ) {
+        String htmlBody = mailTemplateService.render(templateName, companyId, templateVariables);
+        return mailOutboxService.enqueue(
+                MailCategory.CUSTOMER, MailAccount.AUTO,
+                to, subject, htmlBody,
+                replyTo, fromPersonalName,
+                null, null
+        );
+    }
+
+    public Long sendCustomerInvoiceEmail(
             String customerEmail,
             String customerName,
             String issuerCompanyName,
@@ -194,19 +167,25 @@ public class MailService {
         String pdfFileName = "Racun-" + invoiceNumber + ".pdf";
         String personalName = issuerCompanyName + " (via " + mailProperties.getAppName() + ")";
 
-        sendHtmlMailWithPdfAttachment(
+        Path pdfFile;
+        try {
+            pdfFile = mailAttachmentSpool.spool(pdfBytes);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to spool invoice PDF for email", e);
+        }
+
+        return sendHtmlMailWithPdfAttachment(
                 customerEmail,
                 subject,
                 htmlBody,
-                pdfBytes,
+                pdfFile,
                 pdfFileName,
                 issuerEmail,
                 personalName
         );
     }
 
-    @Async
-    public void sendActivationEmail(
+    public Long sendActivationEmail(
             String to,
             String userName,
             String activationToken
@@ -221,15 +200,14 @@ public class MailService {
         String subject = "Aktivirajte svoj račun – " + mailProperties.getAppName();
         String htmlBody = mailTemplateService.render("activation-email", variables);
 
-        sendSystemHtmlMail(to, subject, htmlBody);
+        return sendSystemHtmlMail(to, subject, htmlBody);
     }
 
     /**
      * Convenience helper for manual testing.
      * Sends a sample activation email to the configured system address.
      */
-    @Async
-    public void sendTestMail() {
+    public Long sendTestMail() {
         String subject = "Test email – " + mailProperties.getAppName();
 
         Map<String, Object> variables = Map.of(
@@ -239,134 +217,6 @@ public class MailService {
         );
 
         String htmlBody = mailTemplateService.render("activation-email", variables);
-        sendSystemHtmlMail("dominikkniewald@gmail.com", subject, htmlBody);
-    }
-
-    /**
-     * Sends HTML email using the second mail account (if configured).
-     * Falls back to primary account if second account is not configured.
-     */
-    @Async
-    public void sendHtmlMailWithSecondAccount(
-            String to,
-            String subject,
-            String htmlBody,
-            @Nullable String fromPersonalName
-    ) {
-        JavaMailSender sender = (secondMailSender != null) ? secondMailSender : mailSender;
-        String fromAddress = (mailProperties.getSecondAccount() != null && 
-                             mailProperties.getSecondAccount().getFromAddress() != null)
-                ? mailProperties.getSecondAccount().getFromAddress()
-                : mailProperties.getFromAddress();
-
-        try {
-            MimeMessage message = sender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(
-                    message,
-                    MimeMessageHelper.MULTIPART_MODE_MIXED_RELATED,
-                    StandardCharsets.UTF_8.name()
-            );
-
-            helper.setTo(to);
-            helper.setSubject(subject);
-            helper.setText(htmlBody, true);
-
-            String personalName = (fromPersonalName != null && !fromPersonalName.isBlank())
-                    ? fromPersonalName
-                    : mailProperties.getAppName();
-            helper.setFrom(fromAddress, personalName);
-
-            sender.send(message);
-        } catch (MessagingException | MailException | UnsupportedEncodingException ex) {
-            log.error("Failed to send email with second account to {}", to, ex);
-            throw new IllegalStateException("Failed to send email with second account", ex);
-        }
-    }
-
-    /**
-     * Sends HTML email with PDF attachment using the second mail account (if configured).
-     * Falls back to primary account if second account is not configured.
-     */
-    @Async
-    public void sendHtmlMailWithPdfAttachmentSecondAccount(
-            String to,
-            String subject,
-            String htmlBody,
-            byte[] pdfBytes,
-            String pdfFileName,
-            @Nullable String replyTo,
-            @Nullable String fromPersonalName
-    ) {
-        JavaMailSender sender = (secondMailSender != null) ? secondMailSender : mailSender;
-        String fromAddress = (mailProperties.getSecondAccount() != null && 
-                             mailProperties.getSecondAccount().getFromAddress() != null)
-                ? mailProperties.getSecondAccount().getFromAddress()
-                : mailProperties.getFromAddress();
-
-        try {
-            MimeMessage message = sender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(
-                    message,
-                    MimeMessageHelper.MULTIPART_MODE_MIXED_RELATED,
-                    StandardCharsets.UTF_8.name()
-            );
-
-            helper.setTo(to);
-            helper.setSubject(subject);
-            helper.setText(htmlBody, true);
-
-            String personalName = (fromPersonalName != null && !fromPersonalName.isBlank())
-                    ? fromPersonalName
-                    : mailProperties.getAppName();
-            helper.setFrom(fromAddress, personalName);
-
-            if (replyTo != null && !replyTo.isBlank()) {
-                helper.setReplyTo(replyTo);
-            }
-
-            helper.addAttachment(pdfFileName, new ByteArrayResource(pdfBytes));
-
-            sender.send(message);
-        } catch (MessagingException | MailException | UnsupportedEncodingException ex) {
-            log.error("Failed to send email with attachment using second account to {}", to, ex);
-            throw new IllegalStateException("Failed to send email with attachment using second account", ex);
-        }
-    }
-
-    /**
-     * Sends HTML email with PDF attachment using the second mail account (if configured) with a template.
-     * Falls back to primary account if second account is not configured.
-     * 
-     * @param to Recipient email address
-     * @param subject Email subject
-     * @param templateName Name of the template (without .html extension)
-     * @param templateVariables Variables to be used in the template
-     * @param pdfBytes PDF file content as byte array
-     * @param pdfFileName Name of the PDF file attachment
-     * @param replyTo Optional reply-to email address
-     * @param fromPersonalName Optional sender personal name
-     */
-    @Async
-    public void sendHtmlMailWithPdfAttachmentSecondAccount(
-            String to,
-            String subject,
-            String templateName,
-            Map<String, Object> templateVariables,
-            byte[] pdfBytes,
-            String pdfFileName,
-            @Nullable String replyTo,
-            @Nullable String fromPersonalName
-    ) {
-        String htmlBody = mailTemplateService.render(templateName, templateVariables);
-        sendHtmlMailWithPdfAttachmentSecondAccount(
-                to,
-                subject,
-                htmlBody,
-                pdfBytes,
-                pdfFileName,
-                replyTo,
-                fromPersonalName
-        );
+        return sendSystemHtmlMail("dominikkniewald@gmail.com", subject, htmlBody);
     }
 }
-
@@ -1,27 +1,195 @@
 package com.profitmap_backend.service;
 
-import lombok.RequiredArgsConstructor;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.profitmap_backend.config.MailProperties;
+import com.profitmap_backend.util.CompiledTemplate;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.core.io.support.ResourcePatternResolver;
+import org.springframework.core.io.support.ResourcePatternUtils;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
 import org.thymeleaf.context.Context;
 import org.thymeleaf.spring6.SpringTemplateEngine;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 
+/**
+ * Renders mail templates. Templates whose markup only substitutes plain {@code ${variable}} values
+ * are compiled once into static segments (see {@link CompiledTemplate}), so sending an email does not
+ * run the Thymeleaf engine; anything else is rendered by Thymeleaf as before.
+ *
+ * <p>A company can override a template with {@code templates/companies/{companyId}/{name}.html};
+ * variants are looked up and compiled on first use and kept in a bounded cache.
+ */
 @Service
-@RequiredArgsConstructor
+@Slf4j
 public class MailTemplateService {
 
     private static final Locale DEFAULT_LOCALE = Locale.forLanguageTag("hr");
 
+    private static final String COMPANY_VARIANTS = "companies/";
+
+    private static final Pattern VARIABLE = Pattern.compile("\\$\\{\\s*([A-Za-z_][A-Za-z0-9_]*)\\s*}");
+
+    // Markup whose output can change shape with the variable values, or that uses other expression types
+    private static final Pattern DYNAMIC_MARKUP = Pattern.compile(
+            "th:(if|unless|each|switch|case|utext|insert|replace|include|with|object|inline|remove|block|fragment)\\b"
+                    + "|[*#@~]\\{|\\[\\(|\\$\\{[^}]*[^\\s\\w}][^}]*}");
+
+    // Characters Thymeleaf escapes, used to check a compiled template escapes exactly like the engine
+    private static final String PROBE = "<&\"'čđ>";
+
     private final SpringTemplateEngine templateEngine;
+    private final ResourcePatternResolver resources;
+    private final String prefix;
+    private final String suffix;
+
+    private final Map<String, ResolvedTemplate> templates = new ConcurrentHashMap<>();
+    private final Cache<String, Optional<ResolvedTemplate>> companyTemplates;
+
+    public MailTemplateService(SpringTemplateEngine templateEngine,
+                               ResourceLoader resourceLoader,
+                               MailProperties mailProperties,
+                               @Value("${spring.thymeleaf.prefix:classpath:/templates/}") String prefix,
+                               @Value("${spring.thymeleaf.suffix:.html}") String suffix) {
+        this.templateEngine = templateEngine;
+        this.resources = ResourcePatternUtils.getResourcePatternResolver(resourceLoader);
+        this.prefix = prefix;
+        this.suffix = suffix;
+        this.companyTemplates = Caffeine.newBuilder()
+                .maximumSize(mailProperties.getTemplates().getCompanyVariantCacheSize())
+                .build();
+    }
 
     public String render(String templateName, Map<String, Object> variables) {
+        return render(templateName, null, variables);
+    }
+
+    /**
+     * Renders the company's variant of the template if it has one, otherwise the default template.
+     */
+    public String render(String templateName, @Nullable Long companyId, Map<String, Object> variables) {
+        Map<String, Object> values = variables != null ? variables : Map.of();
+        ResolvedTemplate template = resolve(templateName, companyId);
+
+        CompiledTemplate compiled = template.compiled();
+        if (compiled != null && compiled.supports(values)) {
+            return compiled.render(values);
+        }
+        return process(template.name(), values);
+    }
+
+    /**
+     * Compiles all top-level templates at startup, so the first emails don't pay for it.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        try {
+            int compiled = 0;
+            Resource[] found = resources.getResources(prefix + "*" + suffix);
+            for (Resource resource : found) {
+                String filename = resource.getFilename();
+                if (filename == null) {
+                    continue;
+                }
+                String name = filename.substring(0, filename.length() - suffix.length());
+                if (templates.computeIfAbsent(name, this::compile).compiled() != null) {
+                    compiled++;
+                }
+            }
+            log.info("Precompiled {} of {} mail templates", compiled, found.length);
+        } catch (IOException ex) {
+            log.warn("Could not list mail templates, they will be compiled on first use", ex);
+        }
+    }
+
+    private ResolvedTemplate resolve(String templateName, @Nullable Long companyId) {
+        if (companyId != null) {
+            Optional<ResolvedTemplate> variant = companyTemplates.get(
+                    companyId + ":" + templateName, key -> findCompanyVariant(companyId, templateName));
+            if (variant.isPresent()) {
+                return variant.get();
+            }
+        }
+        return templates.computeIfAbsent(templateName, this::compile);
+    }
+
+    private Optional<ResolvedTemplate> findCompanyVariant(Long companyId, String templateName) {
+        String variantName = COMPANY_VARIANTS + companyId + "/" + templateName;
+        if (!resources.getResource(prefix + variantName + suffix).exists()) {
+            return Optional.empty();
+        }
+        return Optional.of(compile(variantName));
+    }
+
+    /**
+     * Renders the template once with a sentinel per variable and splits the output at the sentinels.
+     * The result is only used if rendering escape-sensitive probe values gives the same output as Thymeleaf.
+     */
+    private ResolvedTemplate compile(String templateName) {
+        Resource resource = resources.getResource(prefix + templateName + suffix);
+        String source;
+        try {
+            if (!resource.exists()) {
+                return new ResolvedTemplate(templateName, null); // Let Thymeleaf report the missing template
+            }
+            source = resource.getContentAsString(StandardCharsets.UTF_8);
+        } catch (IOException ex) {
+            log.warn("Could not read mail template {}, rendering it with Thymeleaf", templateName, ex);
+            return new ResolvedTemplate(templateName, null);
+        }
+
+        if (DYNAMIC_MARKUP.matcher(source).find()) {
+            log.debug("Mail template {} uses dynamic markup, rendering it with Thymeleaf", templateName);
+            return new ResolvedTemplate(templateName, null);
+        }
+
+        Set<String> variables = VARIABLE.matcher(source).results()
+                .map(match -> match.group(1))
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        String token = UUID.randomUUID().toString().replace("-", "");
+        Map<String, String> sentinels = new LinkedHashMap<>();
+        Map<String, Object> probes = new LinkedHashMap<>();
+        int i = 0;
+        for (String variable : variables) {
+            sentinels.put(variable, "TPL" + token + (i++) + "X");
+            probes.put(variable, PROBE + variable);
+        }
+
+        CompiledTemplate compiled = CompiledTemplate.compile(
+                process(templateName, new LinkedHashMap<>(sentinels)), sentinels);
+        if (!compiled.render(probes).equals(process(templateName, probes))) {
+            log.warn("Compiled mail template {} does not match Thymeleaf output, rendering it with Thymeleaf", templateName);
+            return new ResolvedTemplate(templateName, null);
+        }
+        return new ResolvedTemplate(templateName, compiled);
+    }
+
+    private String process(String templateName, Map<String, Object> variables) {
         Context context = new Context(DEFAULT_LOCALE);
-        if (variables != null && !variables.isEmpty()) {
+        if (!variables.isEmpty()) {
             context.setVariables(variables);
         }
         return templateEngine.process(templateName, context);
     }
-}
 
+    private record ResolvedTemplate(String name, @Nullable CompiledTemplate compiled) {
+    }
+}
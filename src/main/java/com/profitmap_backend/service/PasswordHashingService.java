@@ -0,0 +1,140 @@
+package com.profitmap_backend.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.profitmap_backend.config.AuthProperties;
+import com.profitmap_backend.util.TokenBucket;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.lang.Nullable;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Runs BCrypt for login and registration on the bounded {@code passwordHashExecutor}, so a burst
+ * of logins uses a fixed share of the CPUs instead of one core per request thread.
+ *
+ * <p>Callers first {@link #throttle} the attempt: each client IP and each account gets a token
+ * bucket of {@code auth.hashing.*} attempts per period, and an exhausted bucket fails fast with
+ * {@link TooManyAttemptsException} before any hashing or database work. A full queue fails with
+ * {@link TaskRejectedException}; both are answered with 429. Time spent waiting for a hashing
+ * thread is recorded in {@code password.hash.queue.wait}.
+ */
+@Service
+public class PasswordHashingService {
+
+    private final BCryptPasswordEncoder passwordEncoder;
+    private final ThreadPoolTaskExecutor executor;
+    private final AuthProperties.Hashing settings;
+    private final Cache<String, TokenBucket> accountBuckets;
+    private final Cache<String, TokenBucket> ipBuckets;
+    private final Timer queueWait;
+    private final Timer encodeTime;
+    private final Timer matchesTime;
+    private final Counter accountThrottled;
+    private final Counter ipThrottled;
+
+    public PasswordHashingService(BCryptPasswordEncoder passwordEncoder,
+                                  @Qualifier("passwordHashExecutor") ThreadPoolTaskExecutor executor,
+                                  AuthProperties authProperties,
+                                  MeterRegistry meterRegistry) {
+        this.passwordEncoder = passwordEncoder;
+        this.executor = executor;
+        this.settings = authProperties.getHashing();
+        this.accountBuckets = newBucketCache();
+        this.ipBuckets = newBucketCache();
+        this.queueWait = Timer.builder("password.hash.queue.wait")
+                .description("Time password hashing waited for a free hashing thread")
+                .register(meterRegistry);
+        this.encodeTime = hashTimer(meterRegistry, "encode");
+        this.matchesTime = hashTimer(meterRegistry, "matches");
+        this.accountThrottled = throttledCounter(meterRegistry, "account");
+        this.ipThrottled = throttledCounter(meterRegistry, "ip");
+    }
+
+    /**
+     * Takes one attempt from the client's and, if given, the account's bucket.
+     *
+     * @param account username or email as entered, or null when there is no account yet (registration)
+     * @throws TooManyAttemptsException if either bucket is empty
+     */
+    public void throttle(@Nullable String account, String clientIp) {
+        acquire(ipBuckets, clientIp, settings.getAttemptsPerIp(), ipThrottled);
+        if (account != null) {
+            acquire(accountBuckets, account.trim().toLowerCase(Locale.ROOT), settings.getAttemptsPerAccount(), accountThrottled);
+        }
+    }
+
+    public String encode(String rawPassword) {
+        return run(encodeTime, () -> passwordEncoder.encode(rawPassword));
+    }
+
+    public boolean matches(String rawPassword, String passwordHash) {
+        return run(matchesTime, () -> passwordEncoder.matches(rawPassword, passwordHash));
+    }
+
+    private <T> T run(Timer hashTime, Supplier<T> hash) {
+        long submittedAt = System.nanoTime();
+        Future<T> result = executor.submit(() -> {
+            queueWait.record(System.nanoTime() - submittedAt, TimeUnit.NANOSECONDS);
+            return hashTime.record(hash);
+        });
+        try {
+            return result.get(settings.getTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            result.cancel(true);
+            throw new TaskRejectedException("Password hashing timed out after " + settings.getTimeout(), e);
+        } catch (InterruptedException e) {
+            result.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new TaskRejectedException("Interrupted while waiting for password hashing", e);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException runtime
+                    ? runtime
+                    : new RuntimeException("Password hashing failed", e.getCause());
+        }
+    }
+
+    private void acquire(Cache<String, TokenBucket> buckets, String key, int attempts, Counter throttled) {
+        TokenBucket bucket = buckets.get(key, k -> new TokenBucket(attempts, settings.getAttemptsPeriod()));
+        if (!bucket.tryAcquire()) {
+            throttled.increment();
+            Duration retryAfter = Duration.ofNanos(bucket.nanosUntilAvailable());
+            throw new TooManyAttemptsException("Too many attempts, please try again later", retryAfter);
+        }
+    }
+
+    // A bucket left alone for a full period is full again, so it can be forgotten
+    private Cache<String, TokenBucket> newBucketCache() {
+        return Caffeine.newBuilder()
+                .maximumSize(settings.getMaxTracked())
+                .expireAfterAccess(settings.getAttemptsPeriod())
+                .build();
+    }
+
+    private static Timer hashTimer(MeterRegistry meterRegistry, String operation) {
+        return Timer.builder("password.hash.duration")
+                .description("Time spent in BCrypt, excluding the queue wait")
+                .tag("operation", operation)
+                .register(meterRegistry);
+    }
+
+    private static Counter throttledCounter(MeterRegistry meterRegistry, String scope) {
+        return Counter.builder("password.hash.throttled")
+                .description("Password attempts rejected because the account or client used up its attempts")
+                .tag("scope", scope)
+                .register(meterRegistry);
+    }
+}
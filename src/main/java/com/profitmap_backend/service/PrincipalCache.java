@@ -0,0 +1,74 @@
+package com.profitmap_backend.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.profitmap_backend.model.UserRole;
+import com.profitmap_backend.model.UserStatus;
+import com.profitmap_backend.repository.UserRepository;
+import com.profitmap_backend.util.AuthPrincipal;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Short-lived cache of authenticated principals by username, so authenticated requests do not
+ * query the user and its roles each time.
+ *
+ * <p>Code that changes a user's status, roles or company must call {@link #invalidate(String)};
+ * other changes (e.g. made directly in the database) are picked up within {@link #TTL}.
+ */
+@Service
+public class PrincipalCache {
+
+    private static final Duration TTL = Duration.ofSeconds(60);
+    private static final int MAX_SIZE = 10_000;
+
+    private final UserRepository userRepository;
+    private final Cache<String, AuthPrincipal> principals = Caffeine.newBuilder()
+            .maximumSize(MAX_SIZE)
+            .expireAfterWrite(TTL)
+            .build();
+
+    public PrincipalCache(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    /**
+     * @return empty if no user has this username; unknown usernames are not cached
+     */
+    public Optional<AuthPrincipal> get(String username) {
+        return Optional.ofNullable(principals.get(username, this::load));
+    }
+
+    /**
+     * Drops the cached principal now and, inside a transaction, again after commit, so a request
+     * running meanwhile cannot cache the state from before the change.
+     */
+    public void invalidate(String username) {
+        principals.invalidate(username);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    principals.invalidate(username);
+                }
+            });
+        }
+    }
+
+    private AuthPrincipal load(String username) {
+        // id, status, company id, role mask
+        List<Object[]> rows = userRepository.findPrincipalRows(username);
+        if (rows.isEmpty()) {
+            return null;
+        }
+        Object[] row = rows.get(0);
+        Set<UserRole> roles = UserRole.fromMask((Integer) row[3]);
+        return new AuthPrincipal((Long) row[0], username, roles, (Long) row[2], (UserStatus) row[1]);
+    }
+}
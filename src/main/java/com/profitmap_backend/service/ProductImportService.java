@@ -0,0 +1,258 @@
+package com.profitmap_backend.service;
+
+import com.profitmap_backend.dto.ProductImportResult;
+import com.profitmap_backend.model.Kpd;
+import com.profitmap_backend.repository.CompanyRepository;
+import com.profitmap_backend.util.CsvReader;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Imports a company's products from a CSV price list (name, price and optionally the KPD code or
+ * id).
+ *
+ * <p>The file is streamed and rows are inserted in JDBC batches of {@value #CHUNK_SIZE}, one short
+ * transaction per chunk, so memory use does not grow with the file. KPD references are resolved
+ * against {@link KpdCatalog} without touching the database. Invalid rows are skipped and reported
+ * with their line number; the rest of the file is still imported.
+ */
+@Service
+@Slf4j
+public class ProductImportService {
+
+    static final int CHUNK_SIZE = 500;
+    private static final int MAX_REPORTED_ERRORS = 1000;
+    private static final int MAX_NAME_LENGTH = 255;
+    private static final int PRICE_SCALE = 2;
+
+    // "1234" or "1234,5" / "1234.5"
+    private static final Pattern PLAIN_PRICE = Pattern.compile("(\\d+)(?:[.,](\\d+))?");
+    // "1.234", "1,234,567", "1 234" with an optional decimal part using another separator
+    private static final Pattern GROUPED_PRICE = Pattern.compile(
+            "(\\d{1,3}(?<group>[., \u00A0])\\d{3}(?:\\k<group>\\d{3})*)(?:(?<decimal>[.,])(\\d+))?");
+
+    private static final Set<String> NAME_HEADERS = Set.of("name", "naziv", "proizvod", "artikl");
+    private static final Set<String> PRICE_HEADERS = Set.of("price", "cijena");
+    private static final Set<String> KPD_HEADERS = Set.of("kpd", "kpd code", "kpd_code", "kpd šifra", "šifra kpd");
+    private static final Set<String> KPD_ID_HEADERS = Set.of("kpd id", "kpd_id", "kpdid");
+
+    private static final String INSERT_SQL =
+            "INSERT INTO products (company_id, name, price, kpd_id, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?)";
+
+    private record Row(long line, String name, BigDecimal price, Long kpdId) {
+    }
+
+    private record Columns(int name, int price, int kpd, int kpdId) {
+    }
+
+    private final CompanyRepository companyRepository;
+    private final KpdCatalog kpdCatalog;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public ProductImportService(CompanyRepository companyRepository,
+                                KpdCatalog kpdCatalog,
+                                JdbcTemplate jdbcTemplate,
+                                PlatformTransactionManager transactionManager) {
+        this.companyRepository = companyRepository;
+        this.kpdCatalog = kpdCatalog;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public ProductImportResult importCsv(Long companyId, InputStream in) throws IOException {
+        if (!companyRepository.existsById(companyId)) {
+            throw new RuntimeException("Company not found with id: " + companyId);
+        }
+        ProductImportResult result = new ProductImportResult();
+        List<Row> chunk = new ArrayList<>(CHUNK_SIZE);
+        try (CsvReader csv = CsvReader.open(in, StandardCharsets.UTF_8)) {
+            List<String> record = csv.next();
+            Columns columns = new Columns(0, 1, 2, -1);
+            if (record != null && isHeader(record)) {
+                columns = new Columns(
+                        columnIndex(record, NAME_HEADERS),
+                        columnIndex(record, PRICE_HEADERS),
+                        columnIndex(record, KPD_HEADERS),
+                        columnIndex(record, KPD_ID_HEADERS));
+                if (columns.name() < 0 || columns.price() < 0) {
+                    throw new RuntimeException("The header must name the product name and price columns");
+                }
+                record = csv.next();
+            }
+            for (; record != null; record = csv.next()) {
+                long line = csv.getLineNumber();
+                String name = field(record, columns.name());
+                String price = field(record, columns.price());
+                String kpd = field(record, columns.kpd());
+                String kpdId = field(record, columns.kpdId());
+                try {
+                    chunk.add(new Row(line, validateName(name), parsePrice(price), resolveKpd(kpd, kpdId)));
+                } catch (IllegalArgumentException e) {
+                    reportError(result, line, name, price, kpd != null && !kpd.isEmpty() ? kpd : kpdId, e.getMessage());
+                    continue;
+                }
+                if (chunk.size() == CHUNK_SIZE) {
+                    insertChunk(companyId, chunk, result);
+                    chunk.clear();
+                }
+            }
+        }
+        if (!chunk.isEmpty()) {
+            insertChunk(companyId, chunk, result);
+        }
+        log.info("Product import for company {}: {} inserted, {} failed", companyId, result.getInserted(), result.getFailed());
+        return result;
+    }
+
+    private void insertChunk(Long companyId, List<Row> chunk, ProductImportResult result) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                    jdbcTemplate.batchUpdate(INSERT_SQL, chunk, chunk.size(), (ps, row) -> {
+                        ps.setLong(1, companyId);
+                        ps.setString(2, row.name());
+                        ps.setBigDecimal(3, row.price());
+                        if (row.kpdId() != null) {
+                            ps.setLong(4, row.kpdId());
+                        } else {
+                            ps.setNull(4, Types.BIGINT);
+                        }
+                        ps.setTimestamp(5, now);
+                        ps.setTimestamp(6, now);
+                    }));
+            result.setInserted(result.getInserted() + chunk.size());
+        } catch (DataAccessException e) {
+            // The chunk rolled back as a whole; the next chunks still run
+            log.warn("Product import chunk starting at line {} failed", chunk.get(0).line(), e);
+            chunk.forEach(row -> reportError(result, row.line(), row.name(), row.price().toPlainString(),
+                    row.kpdId() != null ? row.kpdId().toString() : null,
+                    "Import failed: " + e.getMostSpecificCause().getMessage()));
+        }
+    }
+
+    private static String validateName(String name) {
+        if (name == null || name.isEmpty()) {
+            throw new IllegalArgumentException("Product name cannot be null or empty");
+        }
+        if (name.length() > MAX_NAME_LENGTH) {
+            throw new IllegalArgumentException("Product name must be at most " + MAX_NAME_LENGTH + " characters");
+        }
+        return name;
+    }
+
+    /**
+     * Accepts "1234.5", "1234,5" and grouped forms such as "1.234,50", "1,234.50", "1 234,50" or
+     * "1.000.000", where every group after the first has exactly three digits and the decimal
+     * separator differs from the grouping one. A lone separator followed by exactly three digits
+     * ("1.000", "12,500") could be either and is rejected rather than guessed, as is anything else.
+     */
+    static BigDecimal parsePrice(String price) {
+        if (price == null || price.isBlank()) {
+            throw new IllegalArgumentException("Price cannot be null or empty");
+        }
+        String trimmed = price.strip();
+        if (trimmed.startsWith("-")) {
+            throw new IllegalArgumentException("Price cannot be negative");
+        }
+        String integer;
+        String decimals;
+        Matcher grouped = GROUPED_PRICE.matcher(trimmed);
+        Matcher plain = PLAIN_PRICE.matcher(trimmed);
+        if (grouped.matches()) {
+            char group = grouped.group("group").charAt(0);
+            String decimal = grouped.group("decimal");
+            if (decimal != null && decimal.charAt(0) == group) {
+                throw new IllegalArgumentException("Invalid price: " + price);
+            }
+            if (decimal == null && group != ' ' && group != '\u00A0'
+                    && grouped.group(1).indexOf(group) == grouped.group(1).lastIndexOf(group)) {
+                throw new IllegalArgumentException("Ambiguous price: " + price
+                        + " (write thousands without a separator, or give the decimals)");
+            }
+            integer = grouped.group(1).replace(String.valueOf(group), "");
+            decimals = grouped.group(4);
+        } else if (plain.matches()) {
+            integer = plain.group(1);
+            decimals = plain.group(2);
+        } else {
+            throw new IllegalArgumentException("Invalid price: " + price);
+        }
+        BigDecimal parsed = new BigDecimal(decimals == null ? integer : integer + "." + decimals);
+        if (parsed.stripTrailingZeros().scale() > PRICE_SCALE) {
+            throw new IllegalArgumentException("Price must have at most " + PRICE_SCALE + " decimal places");
+        }
+        return parsed.setScale(PRICE_SCALE);
+    }
+
+    private Long resolveKpd(String code, String id) {
+        if (code != null && !code.isEmpty()) {
+            return kpdCatalog.findByCode(code)
+                    .map(Kpd::getId)
+                    .orElseThrow(() -> new IllegalArgumentException("KPD not found with code: " + code));
+        }
+        if (id != null && !id.isEmpty()) {
+            Optional<Kpd> kpd;
+            try {
+                kpd = kpdCatalog.findById(Long.parseLong(id));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid KPD id: " + id);
+            }
+            return kpd.map(Kpd::getId)
+                    .orElseThrow(() -> new IllegalArgumentException("KPD not found with id: " + id));
+        }
+        return null;
+    }
+
+    private static void reportError(ProductImportResult result, long line, String name, String price, String kpd, String message) {
+        result.setFailed(result.getFailed() + 1);
+        if (result.getErrors().size() < MAX_REPORTED_ERRORS) {
+            result.getErrors().add(ProductImportResult.RowError.builder()
+                    .line(line)
+                    .name(name)
+                    .price(price)
+                    .kpd(kpd)
+                    .errorMessage(message)
+                    .build());
+        }
+    }
+
+    private static boolean isHeader(List<String> record) {
+        return record.stream().anyMatch(value -> {
+            String header = value.trim().toLowerCase(Locale.ROOT);
+            return NAME_HEADERS.contains(header) || PRICE_HEADERS.contains(header);
+        });
+    }
+
+    private static int columnIndex(List<String> header, Set<String> names) {
+        for (int i = 0; i < header.size(); i++) {
+            if (names.contains(header.get(i).trim().toLowerCase(Locale.ROOT))) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static String field(List<String> record, int index) {
+        return index >= 0 && index < record.size() ? record.get(index).trim() : null;
+    }
+}
@@ -2,7 +2,6 @@ package com.profitmap_backend.service;
 
 import com.profitmap_backend.model.Product;
 import com.profitmap_backend.model.Kpd;
-import com.profitmap_backend.repository.KpdRepository;
 import com.profitmap_backend.repository.ProductRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
@@ -13,7 +12,7 @@ import java.util.List;
 @RequiredArgsConstructor
 public class ProductService {
     private final ProductRepository productRepository;
-    private final KpdRepository kpdRepository;
+    private final KpdCatalog kpdCatalog;
 
     public List<Product> getAll() {
         return productRepository.findAll();
@@ -61,14 +60,14 @@ public class ProductService {
         }
 
         if (incoming.getId() != null) {
-            Kpd kpd = kpdRepository.findById(incoming.getId())
+            Kpd kpd = kpdCatalog.findById(incoming.getId())
                     .orElseThrow(() -> new RuntimeException("KPD not found with id: " + incoming.getId()));
             product.setKpd(kpd);
             return;
         }
 
         if (incoming.getCode() != null) {
-            Kpd kpd = kpdRepository.findByCode(incoming.getCode())
+            Kpd kpd = kpdCatalog.findByCode(incoming.getCode())
                     .orElseThrow(() -> new RuntimeException("KPD not found with code: " + incoming.getCode()));
             product.setKpd(kpd);
             return;
@@ -0,0 +1,179 @@
+package com.profitmap_backend.service;
+
+import com.profitmap_backend.config.AuthProperties;
+import com.profitmap_backend.model.CompanyStatus;
+import com.profitmap_backend.model.UserStatus;
+import com.profitmap_backend.repository.CompanyRepository;
+import com.profitmap_backend.repository.UserRepository;
+import com.profitmap_backend.util.BloomFilter;
+import com.profitmap_backend.util.JwtUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Tells stateless authentication which signed tokens can no longer be trusted as they are.
+ *
+ * <p>Holds, in memory, the users whose status, roles or company changed within the token lifetime
+ * ({@code User.tokensNotBefore}) and the inactive companies, each behind a Bloom filter so the
+ * common case, a user with no recent change, is answered without a set lookup. The sets are
+ * refreshed incrementally from the database every {@code auth.revocation.refresh-interval} and
+ * rebuilt from scratch every {@code auth.revocation.full-refresh-interval}, so every node sees a
+ * deactivation within seconds. Snapshots are immutable and swapped atomically.
+ */
+@Service
+@Slf4j
+public class RevocationRegistry {
+
+    public enum Verdict {
+        /** The token's claims are current. */
+        VALID,
+        /** The user changed after the token was issued; look the user up instead of trusting the claims. */
+        STALE,
+        /** The user or the company is inactive. */
+        REVOKED
+    }
+
+    private record UserChange(LocalDateTime tokensNotBefore, boolean inactive) {
+    }
+
+    private record Snapshot(Map<Long, UserChange> users,
+                            Set<Long> inactiveCompanies,
+                            BloomFilter userFilter,
+                            BloomFilter companyFilter) {
+    }
+
+    private final UserRepository userRepository;
+    private final CompanyRepository companyRepository;
+    private final AuthProperties authProperties;
+    private final AuthProperties.Revocation settings;
+    private final JwtUtil jwtUtil;
+
+    private volatile Snapshot snapshot;
+    private LocalDateTime lastRefresh;
+    private LocalDateTime lastFullRefresh;
+
+    public RevocationRegistry(UserRepository userRepository,
+                              CompanyRepository companyRepository,
+                              AuthProperties authProperties,
+                              JwtUtil jwtUtil) {
+        this.userRepository = userRepository;
+        this.companyRepository = companyRepository;
+        this.authProperties = authProperties;
+        this.settings = authProperties.getRevocation();
+        this.jwtUtil = jwtUtil;
+    }
+
+    /**
+     * False until the first refresh completed; callers must not trust token claims before that.
+     */
+    public boolean isReady() {
+        return snapshot != null;
+    }
+
+    public Verdict check(JwtUtil.VerifiedToken token) {
+        Snapshot current = snapshot;
+        if (current == null || token.userId() == null || token.issuedAt() == null) {
+            return Verdict.STALE;
+        }
+        if (token.companyId() != null
+                && current.companyFilter().mightContain(token.companyId())
+                && current.inactiveCompanies().contains(token.companyId())) {
+            return Verdict.REVOKED;
+        }
+        if (!current.userFilter().mightContain(token.userId())) {
+            return Verdict.VALID;
+        }
+        UserChange change = current.users().get(token.userId());
+        if (change == null) {
+            return Verdict.VALID;
+        }
+        if (change.inactive()) {
+            return Verdict.REVOKED;
+        }
+        // Token timestamps have second precision, so compare at that precision
+        LocalDateTime issuedAt = LocalDateTime.ofInstant(token.issuedAt().toInstant(), ZoneId.systemDefault());
+        return issuedAt.isBefore(change.tokensNotBefore().truncatedTo(ChronoUnit.SECONDS))
+                ? Verdict.STALE
+                : Verdict.VALID;
+    }
+
+    @Scheduled(initialDelay = 0, fixedDelayString = "${auth.revocation.refresh-interval:PT5S}")
+    public void refresh() {
+        if (!authProperties.isStateless()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            if (snapshot == null || lastFullRefresh.isBefore(now.minus(settings.getFullRefreshInterval()))) {
+                fullRefresh(now);
+            } else {
+                incrementalRefresh(now);
+            }
+        } catch (RuntimeException ex) {
+            // Keep the previous snapshot; stale by one interval is better than trusting nothing
+            log.error("Refreshing the token revocation set failed", ex);
+        }
+    }
+
+    private void fullRefresh(LocalDateTime now) {
+        Map<Long, UserChange> users = new HashMap<>();
+        for (Object[] row : userRepository.findTokenChangesSinceOrInactive(now.minus(jwtUtil.getTokenLifetime()))) {
+            users.put((Long) row[0], userChange(row));
+        }
+        Set<Long> inactiveCompanies = new HashSet<>(companyRepository.findInactiveIds());
+
+        publish(users, inactiveCompanies);
+        lastRefresh = now;
+        lastFullRefresh = now;
+        log.debug("Token revocation set rebuilt: {} user(s), {} inactive company(ies)", users.size(), inactiveCompanies.size());
+    }
+
+    private void incrementalRefresh(LocalDateTime now) {
+        LocalDateTime since = lastRefresh.minus(settings.getOverlap());
+        var userRows = userRepository.findTokenChangesSince(since);
+        var companyRows = companyRepository.findStatusChangesSince(since);
+        lastRefresh = now;
+        if (userRows.isEmpty() && companyRows.isEmpty()) {
+            return;
+        }
+
+        Snapshot current = snapshot;
+        Map<Long, UserChange> users = new HashMap<>(current.users());
+        for (Object[] row : userRows) {
+            users.put((Long) row[0], userChange(row));
+        }
+        Set<Long> inactiveCompanies = new HashSet<>(current.inactiveCompanies());
+        for (Object[] row : companyRows) {
+            if (row[1] == CompanyStatus.INACTIVE) {
+                inactiveCompanies.add((Long) row[0]);
+            } else {
+                inactiveCompanies.remove(row[0]);
+            }
+        }
+        publish(users, inactiveCompanies);
+    }
+
+    // Filters cannot forget keys, so each change gets fresh ones; the sets are small
+    private void publish(Map<Long, UserChange> users, Set<Long> inactiveCompanies) {
+        double falsePositiveRate = settings.getFalsePositiveRate();
+        snapshot = new Snapshot(
+                Map.copyOf(users),
+                Set.copyOf(inactiveCompanies),
+                BloomFilter.of(users.keySet(), falsePositiveRate),
+                BloomFilter.of(inactiveCompanies, falsePositiveRate));
+    }
+
+    private static UserChange userChange(Object[] row) {
+        LocalDateTime tokensNotBefore = row[2] != null ? (LocalDateTime) row[2] : LocalDateTime.MIN;
+        return new UserChange(tokensNotBefore, row[1] == UserStatus.INACTIVE);
+    }
+}
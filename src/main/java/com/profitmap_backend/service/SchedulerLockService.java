@@ -0,0 +1,62 @@
+package com.profitmap_backend.service;
+
+import com.profitmap_backend.repository.SchedulerLockRepository;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Lets a scheduled job run on one node of the cluster at a time, using a row per job in
+ * {@code scheduler_locks} taken with a conditional update.
+ *
+ * <p>Locks expire after the given duration, so a node that dies while holding one blocks the job
+ * for at most that long. Pick a duration well above the job's normal run time.
+ */
+@Service
+public class SchedulerLockService {
+
+    private final SchedulerLockRepository schedulerLockRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final String owner = ManagementFactory.getRuntimeMXBean().getName() + "/" + UUID.randomUUID();
+
+    public SchedulerLockService(SchedulerLockRepository schedulerLockRepository,
+                                PlatformTransactionManager transactionManager) {
+        this.schedulerLockRepository = schedulerLockRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * @return true if this node now holds the lock, until {@code lockAtMostFor} or {@link #unlock}
+     */
+    public boolean tryLock(String name, Duration lockAtMostFor) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime until = now.plus(lockAtMostFor);
+        Boolean acquired = transactionTemplate.execute(status ->
+                schedulerLockRepository.acquire(name, owner, now, until) == 1);
+        if (Boolean.TRUE.equals(acquired)) {
+            return true;
+        }
+        try {
+            // First run of this job anywhere: create the row, holding the lock
+            Boolean created = transactionTemplate.execute(status ->
+                    !schedulerLockRepository.existsById(name)
+                            && schedulerLockRepository.create(name, owner, now, until) == 1);
+            return Boolean.TRUE.equals(created);
+        } catch (DataIntegrityViolationException ex) {
+            return false; // Another node created it first
+        }
+    }
+
+    public void unlock(String name) {
+        transactionTemplate.executeWithoutResult(status ->
+                schedulerLockRepository.release(name, owner, LocalDateTime.now()));
+    }
+}
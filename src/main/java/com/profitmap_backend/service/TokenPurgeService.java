@@ -0,0 +1,107 @@
+package com.profitmap_backend.service;
+
+import com.profitmap_backend.config.TokenProperties;
+import com.profitmap_backend.repository.TokenRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Deletes expired and used one-time tokens, which are never needed again.
+ *
+ * <p>Rows go in batches of {@code tokens.purge.batch-size}, one short transaction each, with a pause
+ * in between so a large backlog does not hold locks or flood replication. Only the node holding the
+ * {@value #LOCK_NAME} scheduler lock runs it. Deleted rows are counted in {@code tokens.purged}.
+ */
+@Service
+@Slf4j
+public class TokenPurgeService {
+
+    static final String LOCK_NAME = "token-purge";
+
+    private final TokenRepository tokenRepository;
+    private final SchedulerLockService schedulerLockService;
+    private final TokenProperties.Purge settings;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter expiredPurged;
+    private final Counter usedPurged;
+
+    public TokenPurgeService(TokenRepository tokenRepository,
+                             SchedulerLockService schedulerLockService,
+                             TokenProperties tokenProperties,
+                             PlatformTransactionManager transactionManager,
+                             MeterRegistry meterRegistry) {
+        this.tokenRepository = tokenRepository;
+        this.schedulerLockService = schedulerLockService;
+        this.settings = tokenProperties.getPurge();
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.expiredPurged = purgedCounter(meterRegistry, "expired");
+        this.usedPurged = purgedCounter(meterRegistry, "used");
+    }
+
+    @Scheduled(cron = "${tokens.purge.cron:0 15 * * * *}")
+    public void purge() {
+        if (!settings.isEnabled()) {
+            return;
+        }
+        // Held a bit longer than a run may take, so a slow run never overlaps the next one
+        if (!schedulerLockService.tryLock(LOCK_NAME, settings.getMaxRunTime().multipliedBy(2))) {
+            log.debug("Token purge is running on another node");
+            return;
+        }
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            long deadline = System.nanoTime() + settings.getMaxRunTime().toNanos();
+            int expired = purge(pageable -> tokenRepository.findExpiredIds(now, pageable), expiredPurged, deadline);
+            int used = purge(pageable -> tokenRepository.findUsedUnexpiredIds(now, pageable), usedPurged, deadline);
+            if (expired + used > 0) {
+                log.info("Purged {} expired and {} used token(s)", expired, used);
+            }
+        } finally {
+            schedulerLockService.unlock(LOCK_NAME);
+        }
+    }
+
+    private int purge(Function<Pageable, List<Long>> findIds, Counter purged, long deadline) {
+        Pageable batch = PageRequest.of(0, settings.getBatchSize());
+        int total = 0;
+        while (System.nanoTime() < deadline) {
+            Integer deleted = transactionTemplate.execute(status -> {
+                List<Long> ids = findIds.apply(batch);
+                return ids.isEmpty() ? 0 : tokenRepository.deleteByIds(ids);
+            });
+            if (deleted == null || deleted == 0) {
+                break;
+            }
+            total += deleted;
+            purged.increment(deleted);
+            if (deleted < settings.getBatchSize()) {
+                break;
+            }
+            try {
+                Thread.sleep(settings.getPause().toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        return total;
+    }
+
+    private static Counter purgedCounter(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("tokens.purged")
+                .description("One-time tokens deleted by the scheduled purge")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+}
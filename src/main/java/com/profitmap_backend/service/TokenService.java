@@ -1,6 +1,7 @@
 package com.profitmap_backend.service;
 
 import com.profitmap_backend.config.MailProperties;
+import com.profitmap_backend.config.TokenProperties;
 import com.profitmap_backend.model.Token;
 import com.profitmap_backend.model.TokenType;
 import com.profitmap_backend.model.User;
@@ -13,10 +14,17 @@ import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.InvalidKeyException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
 import java.time.LocalDateTime;
 import java.util.Base64;
 import java.util.HashMap;
+import java.util.HexFormat;
 import java.util.Map;
 
 @Service
@@ -30,8 +38,12 @@ public class TokenService {
     private final MailService mailService;
     private final MailTemplateService mailTemplateService;
     private final MailProperties mailProperties;
+    private final PrincipalCache principalCache;
+    private final TokenProperties tokenProperties;
     private static final SecureRandom secureRandom = new SecureRandom();
-    private static final int TOKEN_BYTES = 32; // 256 bits
+    private static final int SELECTOR_BYTES = 16; // 128 bits, lookup only
+    private static final int VERIFIER_BYTES = 32; // 256 bits
+    private static final char SEPARATOR = '.';
     private static final int DEFAULT_EXPIRATION_HOURS = 24;
     private static final String FRONTEND_BASE_URL = "http://localhost:3000/";
     
@@ -50,6 +62,8 @@ public class TokenService {
     
     /**
      * Creates a token for a user with the specified type and expiration time.
+     * The raw token is {@code selector.verifier}: the selector is stored as is and used to find
+     * the token, the verifier is only stored as a keyed hash.
      * 
      * @param user The user for whom the token is created
      * @param type The type of token
@@ -72,13 +86,13 @@ public class TokenService {
             log.info("Invalidated {} existing {} token(s) for user {}", existingValidTokens.size(), type, user.getEmail());
         }
         
-        // Generate random token
-        byte[] tokenBytes = new byte[TOKEN_BYTES];
-        secureRandom.nextBytes(tokenBytes);
-        String rawToken = Base64.getUrlEncoder().withoutPadding().encodeToString(tokenBytes);
+        // Generate random selector and verifier
+        String selector = randomPart(SELECTOR_BYTES);
+        String verifier = randomPart(VERIFIER_BYTES);
+        String rawToken = selector + SEPARATOR + verifier;
         
-        // Hash the token before storing
-        String tokenHash = passwordEncoder.encode(rawToken);
+        // Hash the verifier before storing
+        String tokenHash = verifierHash(verifier);
         
         // Create expiration date
         LocalDateTime expiresAt = LocalDateTime.now().plusHours(expirationHours);
@@ -86,6 +100,7 @@ public class TokenService {
         // Create and save token entity
         Token token = Token.builder()
                 .user(user)
+                .selector(selector)
                 .tokenHash(tokenHash)
                 .type(type)
                 .expiresAt(expiresAt)
@@ -109,27 +124,59 @@ public class TokenService {
      */
     @Transactional(readOnly = true)
     public java.util.Optional<Token> validateToken(String rawToken, TokenType type) {
-        // We need to check all tokens of this type and compare hashes
-        // Since we can't query by hash directly (it's hashed), we need to check all valid tokens
+        if (rawToken == null || rawToken.isBlank()) {
+            return java.util.Optional.empty();
+        }
         LocalDateTime now = LocalDateTime.now();
         
-        // Get all valid tokens of this type
-        java.util.List<Token> validTokens = tokenRepository.findAll().stream()
-                .filter(t -> t.getType() == type)
-                .filter(t -> !t.getUsed())
-                .filter(t -> t.getExpiresAt().isAfter(now))
-                .toList();
+        int separator = rawToken.indexOf(SEPARATOR);
+        if (separator < 0) {
+            return validateLegacyToken(rawToken, type, now);
+        }
         
-        // Check each token's hash against the provided raw token
-        for (Token token : validTokens) {
+        // One indexed lookup by selector, then a constant-time comparison of the verifier hash
+        String selector = rawToken.substring(0, separator);
+        String verifier = rawToken.substring(separator + 1);
+        return tokenRepository.findValidBySelector(selector, type, now)
+                .filter(token -> MessageDigest.isEqual(
+                        verifierHash(verifier).getBytes(StandardCharsets.US_ASCII),
+                        token.getTokenHash().getBytes(StandardCharsets.US_ASCII)));
+    }
+    
+    /**
+     * Tokens issued before selectors were introduced are BCrypt hashes of the whole token and can only
+     * be found by trying each one. Only those still valid are tried, so this path empties out once
+     * they expire.
+     */
+    private java.util.Optional<Token> validateLegacyToken(String rawToken, TokenType type, LocalDateTime now) {
+        for (Token token : tokenRepository.findValidLegacyTokens(type, now)) {
             if (passwordEncoder.matches(rawToken, token.getTokenHash())) {
                 return java.util.Optional.of(token);
             }
         }
-        
         return java.util.Optional.empty();
     }
     
+    private static String randomPart(int bytes) {
+        byte[] random = new byte[bytes];
+        secureRandom.nextBytes(random);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(random);
+    }
+    
+    private String verifierHash(String verifier) {
+        String secret = tokenProperties.getVerifierSecret();
+        if (secret == null || secret.isEmpty()) {
+            throw new IllegalStateException("tokens.verifier-secret is not configured");
+        }
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+            return HexFormat.of().formatHex(mac.doFinal(verifier.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException | InvalidKeyException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+    
     /**
      * Sends activation email with token link.
      * 
@@ -202,6 +249,7 @@ public class TokenService {
         // Activate the user
         user.setStatus(UserStatus.ACTIVE);
         userRepository.save(user);
+        principalCache.invalidate(user.getUsername());
         
         log.info("Successfully activated user account: {}", user.getEmail());
     }
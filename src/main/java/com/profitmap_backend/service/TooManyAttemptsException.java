@@ -0,0 +1,19 @@
+package com.profitmap_backend.service;
+
+import lombok.Getter;
+
+import java.time.Duration;
+
+/**
+ * Thrown when an account or client has used up its password attempts for now; answered with 429.
+ */
+@Getter
+public class TooManyAttemptsException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public TooManyAttemptsException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+}
@@ -0,0 +1,61 @@
+package com.profitmap_backend.service;
+
+import com.profitmap_backend.model.UserRole;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+/**
+ * Copies roles from the old {@code user_roles} table into {@code users.role_mask}, once.
+ *
+ * <p>Runs at startup, after Hibernate has added the column and before the web server takes
+ * requests. After copying, the table is renamed to {@value #MIGRATED_TABLE}, so later starts find
+ * nothing to copy and a user whose roles were cleared since does not get the old ones back. Nodes
+ * starting together are safe: the copy only touches masks that are still 0, and whichever node
+ * renames the table second just logs the failure. The renamed table is kept for inspection and can
+ * be dropped.
+ */
+@Component
+@Slf4j
+public class UserRoleMaskMigration {
+
+    static final String MIGRATED_TABLE = "user_roles_migrated";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // Taking the EntityManagerFactory makes this run after the schema update
+    public UserRoleMaskMigration(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    void migrate() {
+        String bits = Arrays.stream(UserRole.values())
+                .map(role -> "WHEN '" + role.name() + "' THEN " + role.bit())
+                .collect(Collectors.joining(" "));
+        String sql = "UPDATE users u SET role_mask = " +
+                "(SELECT COALESCE(SUM(CASE r.role " + bits + " ELSE 0 END), 0) FROM user_roles r WHERE r.user_id = u.id) " +
+                "WHERE u.role_mask = 0 AND EXISTS (SELECT 1 FROM user_roles r WHERE r.user_id = u.id)";
+        int migrated;
+        try {
+            migrated = jdbcTemplate.update(sql);
+        } catch (DataAccessException e) {
+            // Fresh databases never had the table, migrated ones no longer have it
+            log.debug("Skipping role migration, user_roles is not readable: {}", e.getMessage());
+            return;
+        }
+        log.info("Migrated roles of {} user(s) from user_roles to users.role_mask", migrated);
+        try {
+            jdbcTemplate.execute("ALTER TABLE user_roles RENAME TO " + MIGRATED_TABLE);
+        } catch (DataAccessException e) {
+            // Renamed by another node starting at the same time, or retried on the next start
+            log.warn("Could not rename user_roles after the role migration: {}", e.getMessage());
+        }
+    }
+}
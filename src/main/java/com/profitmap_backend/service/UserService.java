@@ -1,16 +1,20 @@
 package com.profitmap_backend.service;
 
+import com.profitmap_backend.dto.PageResponse;
 import com.profitmap_backend.dto.UserDto;
+import com.profitmap_backend.dto.UserSummaryDto;
 import com.profitmap_backend.model.User;
 import com.profitmap_backend.model.UserStatus;
 import com.profitmap_backend.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import com.profitmap_backend.util.PageRequests;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.List;
-import java.util.stream.Collectors;
+import java.time.LocalDateTime;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
@@ -18,12 +22,21 @@ import java.util.stream.Collectors;
 public class UserService {
 
     private final UserRepository userRepository;
+    private final PrincipalCache principalCache;
 
-    public List<UserDto> getAllUsers() {
-        return userRepository.findAll()
-                .stream()
-                .map(this::toDto)
-                .collect(Collectors.toList());
+    private static final Set<String> SORTABLE = Set.of("id", "username", "email", "firstName", "lastName", "status", "createdAt");
+    private static final Sort DEFAULT_SORT = Sort.by(Sort.Direction.DESC, "createdAt");
+
+    /**
+     * One page of users, optionally limited to a company and status and searched by username,
+     * email or name.
+     */
+    public PageResponse<UserSummaryDto> getUsers(Long companyId, UserStatus status, String query,
+                                                 int page, int size, String sort) {
+        return PageResponse.of(
+                userRepository.findSummaries(companyId, status, PageRequests.containsPattern(query),
+                        PageRequests.of(page, size, sort, SORTABLE, DEFAULT_SORT)),
+                user -> user);
     }
     
     /**
@@ -41,7 +54,9 @@ public class UserService {
         
         UserStatus oldStatus = user.getStatus();
         user.setStatus(status);
+        user.setTokensNotBefore(LocalDateTime.now());
         userRepository.save(user);
+        principalCache.invalidate(user.getUsername());
         
         log.info("Updated user {} status from {} to {}", user.getEmail(), oldStatus, status);
         
@@ -0,0 +1,38 @@
+package com.profitmap_backend.util;
+
+import com.profitmap_backend.model.UserRole;
+import com.profitmap_backend.model.UserStatus;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.security.Principal;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The authenticated user as seen by the request path: just what authorization needs, so requests
+ * do not load the {@code User} entity. {@code authentication.getName()} still returns the username.
+ *
+ * <p>{@code status} is null when the principal was built from token claims (stateless mode).
+ */
+public record AuthPrincipal(Long id,
+                            String username,
+                            Set<UserRole> roles,
+                            Long companyId,
+                            UserStatus status) implements Principal {
+
+    public AuthPrincipal {
+        roles = Set.copyOf(roles);
+    }
+
+    @Override
+    public String getName() {
+        return username;
+    }
+
+    public List<GrantedAuthority> authorities() {
+        return roles.stream()
+                .map(role -> (GrantedAuthority) new SimpleGrantedAuthority("ROLE_" + role.name()))
+                .toList();
+    }
+}
@@ -0,0 +1,67 @@
+package com.profitmap_backend.util;
+
+import java.util.Collection;
+
+/**
+ * Immutable Bloom filter over long keys (ids). Answers "definitely not present" without touching
+ * the exact set it summarises; "might be present" has to be confirmed there.
+ */
+public final class BloomFilter {
+
+    private static final BloomFilter EMPTY = new BloomFilter(new long[1], 1);
+
+    private final long[] bits;
+    private final int hashes;
+
+    private BloomFilter(long[] bits, int hashes) {
+        this.bits = bits;
+        this.hashes = hashes;
+    }
+
+    public static BloomFilter of(Collection<Long> keys, double falsePositiveRate) {
+        if (keys.isEmpty()) {
+            return EMPTY;
+        }
+        int n = keys.size();
+        long numBits = Math.max(64, (long) Math.ceil(-n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2))));
+        int hashes = Math.max(1, (int) Math.round((double) numBits / n * Math.log(2)));
+        BloomFilter filter = new BloomFilter(new long[(int) ((numBits + 63) / 64)], hashes);
+        for (Long key : keys) {
+            filter.put(key);
+        }
+        return filter;
+    }
+
+    public boolean mightContain(long key) {
+        long hash = mix(key);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        long numBits = bits.length * 64L;
+        for (int i = 0; i < hashes; i++) {
+            long bit = Math.floorMod(h1 + (long) i * h2, numBits);
+            if ((bits[(int) (bit >>> 6)] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void put(long key) {
+        long hash = mix(key);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        long numBits = bits.length * 64L;
+        for (int i = 0; i < hashes; i++) {
+            long bit = Math.floorMod(h1 + (long) i * h2, numBits);
+            bits[(int) (bit >>> 6)] |= 1L << bit;
+        }
+    }
+
+    // SplitMix64 finalizer, so sequential ids spread over the whole filter
+    private static long mix(long key) {
+        long z = key + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,84 @@
+package com.profitmap_backend.util;
+
+import org.unbescape.html.HtmlEscape;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A rendered template split into static HTML segments and variable slots, so rendering is
+ * string concatenation plus HTML escaping (the same escaping Thymeleaf applies for th:text).
+ *
+ * <p>Built from the output of a render where every variable was replaced by a unique sentinel.
+ * Only valid for templates whose structure does not depend on variable values.
+ */
+public final class CompiledTemplate {
+
+    private final String[] segments;
+    private final String[] slots;
+    private final int staticLength;
+
+    private CompiledTemplate(List<String> segments, List<String> slots) {
+        this.segments = segments.toArray(String[]::new);
+        this.slots = slots.toArray(String[]::new);
+        this.staticLength = segments.stream().mapToInt(String::length).sum();
+    }
+
+    /**
+     * @param rendered  template output rendered with {@code sentinels} as variable values
+     * @param sentinels variable name to the sentinel it was rendered with
+     */
+    public static CompiledTemplate compile(String rendered, Map<String, String> sentinels) {
+        List<String> segments = new ArrayList<>();
+        List<String> slots = new ArrayList<>();
+
+        int position = 0;
+        while (true) {
+            int next = -1;
+            String nextVariable = null;
+            for (Map.Entry<String, String> sentinel : sentinels.entrySet()) {
+                int index = rendered.indexOf(sentinel.getValue(), position);
+                if (index >= 0 && (next < 0 || index < next)) {
+                    next = index;
+                    nextVariable = sentinel.getKey();
+                }
+            }
+            if (next < 0) {
+                break;
+            }
+            segments.add(rendered.substring(position, next));
+            slots.add(nextVariable);
+            position = next + sentinels.get(nextVariable).length();
+        }
+        segments.add(rendered.substring(position));
+        return new CompiledTemplate(segments, slots);
+    }
+
+    /**
+     * @return true if every slot value can be rendered here (strings or null; other types may
+     *         have their own formatting in Thymeleaf)
+     */
+    public boolean supports(Map<String, ?> variables) {
+        for (String slot : slots) {
+            Object value = variables.get(slot);
+            if (value != null && !(value instanceof CharSequence)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public String render(Map<String, ?> variables) {
+        StringBuilder html = new StringBuilder(staticLength + 32 * slots.length);
+        for (int i = 0; i < slots.length; i++) {
+            html.append(segments[i]);
+            Object value = variables.get(slots[i]);
+            if (value != null) {
+                html.append(HtmlEscape.escapeHtml4Xml(value.toString()));
+            }
+        }
+        html.append(segments[slots.length]);
+        return html.toString();
+    }
+}
@@ -0,0 +1,145 @@
+package com.profitmap_backend.util;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Minimal streaming CSV reader for imports: one record at a time, so files of any size are read in
+ * constant memory.
+ *
+ * <p>Handles quoted fields (with {@code ""} as an escaped quote and line breaks inside quotes), a
+ * leading UTF-8 BOM, and detects the delimiter (';', ',' or tab) from the start of the first line,
+ * since spreadsheet exports in Croatian locales use ';'.
+ */
+public class CsvReader implements Closeable {
+
+    private static final char[] DELIMITERS = {';', ',', '\t'};
+
+    /**
+     * How much of the first line is looked at to detect the delimiter. Bounded so that a first line of
+     * any length stays within the reader's mark limit.
+     */
+    private static final int DETECT_CHARS = 8 * 1024;
+
+    private final BufferedReader reader;
+    private final char delimiter;
+    private long lineNumber;
+    private long recordLine;
+
+    private CsvReader(BufferedReader reader, char delimiter) {
+        this.reader = reader;
+        this.delimiter = delimiter;
+    }
+
+    public static CsvReader open(InputStream in, Charset charset) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, charset), 64 * 1024);
+        reader.mark(1);
+        if (reader.read() != '\uFEFF') {
+            reader.reset();
+        }
+        reader.mark(DETECT_CHARS);
+        char[] prefix = new char[DETECT_CHARS];
+        int length = 0;
+        int n;
+        while (length < prefix.length && (n = reader.read(prefix, length, prefix.length - length)) != -1) {
+            length += n;
+        }
+        reader.reset();
+        return new CsvReader(reader, detectDelimiter(prefix, length));
+    }
+
+    /**
+     * The next record, or null at the end of the input. Blank lines are skipped.
+     */
+    public List<String> next() throws IOException {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        boolean any = false;
+        int c;
+        recordLine = lineNumber + 1;
+        while ((c = reader.read()) != -1) {
+            any = true;
+            if (quoted) {
+                if (c == '"') {
+                    reader.mark(1);
+                    if (reader.read() == '"') {
+                        field.append('"');
+                    } else {
+                        reader.reset();
+                        quoted = false;
+                    }
+                } else {
+                    if (c == '\n') {
+                        lineNumber++;
+                    }
+                    field.append((char) c);
+                }
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+            } else if (c == delimiter) {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n' || c == '\r') {
+                if (c == '\r') {
+                    reader.mark(1);
+                    if (reader.read() != '\n') {
+                        reader.reset();
+                    }
+                }
+                lineNumber++;
+                if (fields.isEmpty() && field.isEmpty()) {
+                    // Blank line
+                    recordLine = lineNumber + 1;
+                    continue;
+                }
+                fields.add(field.toString());
+                return fields;
+            } else {
+                field.append((char) c);
+            }
+        }
+        if (!any || (fields.isEmpty() && field.isEmpty())) {
+            return null;
+        }
+        lineNumber++;
+        fields.add(field.toString());
+        return fields;
+    }
+
+    /**
+     * Line on which the record last returned by {@link #next()} starts, 1-based.
+     */
+    public long getLineNumber() {
+        return recordLine;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private static char detectDelimiter(char[] prefix, int length) {
+        int[] counts = new int[DELIMITERS.length];
+        for (int i = 0; i < length && prefix[i] != '\n' && prefix[i] != '\r'; i++) {
+            for (int d = 0; d < DELIMITERS.length; d++) {
+                if (prefix[i] == DELIMITERS[d]) {
+                    counts[d]++;
+                }
+            }
+        }
+        int best = 0;
+        for (int d = 1; d < DELIMITERS.length; d++) {
+            if (counts[d] > counts[best]) {
+                best = d;
+            }
+        }
+        return DELIMITERS[best];
+    }
+}
@@ -1,13 +1,13 @@
 package com.profitmap_backend.util;
 
-import com.profitmap_backend.model.User;
+import com.profitmap_backend.config.AuthProperties;
 import com.profitmap_backend.model.UserRole;
-import com.profitmap_backend.repository.UserRepository;
+import com.profitmap_backend.model.UserStatus;
+import com.profitmap_backend.service.PrincipalCache;
+import com.profitmap_backend.service.RevocationRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
@@ -19,8 +19,9 @@ import jakarta.servlet.http.Cookie;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
-import java.util.List;
-import java.util.stream.Collectors;
+import java.util.EnumSet;
+import java.util.Optional;
+import java.util.Set;
 
 @Component
 public class JwtRequestFilter extends OncePerRequestFilter {
@@ -29,13 +30,18 @@ public class JwtRequestFilter extends OncePerRequestFilter {
     private JwtUtil jwtUtil;
 
     @Autowired
-    private UserRepository userRepository;
+    private PrincipalCache principalCache;
+
+    @Autowired
+    private RevocationRegistry revocationRegistry;
+
+    @Autowired
+    private AuthProperties authProperties;
 
     @Override
     protected void doFilterInternal(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response, @NonNull FilterChain chain)
             throws ServletException, IOException {
         String jwt = null;
-        String username = null;
 
         // Check Authorization header first
         final String authHeader = request.getHeader("Authorization");
@@ -56,25 +62,50 @@ public class JwtRequestFilter extends OncePerRequestFilter {
             }
         }
 
-        if (jwt != null) {
-            username = jwtUtil.getUsernameFromToken(jwt);
+        // Verified once per token; malformed or forged tokens simply leave the request unauthenticated.
+        // Deactivated users are turned away as soon as their cached principal is invalidated.
+        if (jwt != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+            jwtUtil.verify(jwt)
+                    .flatMap(this::principal)
+                    .filter(principal -> principal.status() != UserStatus.INACTIVE)
+                    .ifPresent(principal -> {
+                        UsernamePasswordAuthenticationToken authentication =
+                                new UsernamePasswordAuthenticationToken(principal, null, principal.authorities());
+                        authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                        SecurityContextHolder.getContext().setAuthentication(authentication);
+                    });
         }
+        chain.doFilter(request, response);
+    }
 
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null && jwtUtil.validateToken(jwt)) {
-            User user = userRepository.findByUsername(username).orElse(null);
-            if (user != null) {
-                List<GrantedAuthority> authorities = user.getRoles().stream()
-                        .map(UserRole::name)
-                        .map(roleName -> "ROLE_" + roleName)
-                        .map(SimpleGrantedAuthority::new)
-                        .collect(Collectors.toList());
+    /**
+     * In stateless mode the token's own claims are trusted unless the revocation registry says the
+     * user or company changed since it was issued; otherwise the principal comes from the cache.
+     */
+    private Optional<AuthPrincipal> principal(JwtUtil.VerifiedToken token) {
+        if (authProperties.isStateless() && revocationRegistry.isReady()) {
+            switch (revocationRegistry.check(token)) {
+                case VALID:
+                    return Optional.of(new AuthPrincipal(
+                            token.userId(), token.username(), roles(token), token.companyId(), null));
+                case REVOKED:
+                    return Optional.empty();
+                case STALE:
+                    break;
+            }
+        }
+        return principalCache.get(token.username());
+    }
 
-                UsernamePasswordAuthenticationToken authentication =
-                        new UsernamePasswordAuthenticationToken(username, null, authorities);
-                authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                SecurityContextHolder.getContext().setAuthentication(authentication);
+    private static Set<UserRole> roles(JwtUtil.VerifiedToken token) {
+        Set<UserRole> roles = EnumSet.noneOf(UserRole.class);
+        for (String role : token.roles()) {
+            try {
+                roles.add(UserRole.valueOf(role));
+            } catch (IllegalArgumentException ignored) {
+                // Role removed since the token was issued
             }
         }
-        chain.doFilter(request, response);
+        return roles;
     }
-}
\ No newline at end of file
+}
@@ -1,5 +1,8 @@
 package com.profitmap_backend.util;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import com.profitmap_backend.model.User;
 import com.profitmap_backend.model.UserRole;
 import io.jsonwebtoken.*;
@@ -8,38 +11,136 @@ import org.springframework.stereotype.Component;
 
 import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Base64;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
+/**
+ * Issues and verifies the HS512 session tokens.
+ *
+ * <p>Verification results are cached by token digest: a token is parsed and its signature checked
+ * once, later requests with it only hash it. Valid tokens stay cached until they expire, invalid
+ * ones (bad signature, malformed, expired) for {@link #INVALID_TOKEN_TTL}.
+ */
 @Component
 public class JwtUtil {
     private static final String ROLES_CLAIM = "roles";
+    private static final String USER_ID_CLAIM = "uid";
+    private static final String COMPANY_ID_CLAIM = "cid";
+    private static final int VERIFIED_CACHE_SIZE = 10_000;
+    private static final Duration INVALID_TOKEN_TTL = Duration.ofMinutes(10);
 
     private final String jwtSecret = "guidoIsMySecretKeyforProfitMapJWT1guidoIsMySecretKeyforProfitMapJWT2guidoIsMySecretKeyforProfitMapJWT3";
     private final long jwtExpirationMs = 86400000; // 1 day
     private final Key signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
 
+    // Parsers are immutable and thread-safe, so one is shared by all requests
+    private final JwtParser parser = Jwts.parserBuilder().setSigningKey(signingKey).build();
+
+    private final Cache<String, Verification> verified = Caffeine.newBuilder()
+            .maximumSize(VERIFIED_CACHE_SIZE)
+            .expireAfter(new VerificationExpiry())
+            .build();
+
+    /**
+     * Claims of a token whose signature and expiry were checked. {@code userId} is null for tokens
+     * issued before it was added, {@code companyId} for users without a company.
+     */
+    public record VerifiedToken(String username,
+                                Long userId,
+                                Long companyId,
+                                List<String> roles,
+                                Date issuedAt,
+                                Date expiresAt) {
+    }
+
+    private record Verification(VerifiedToken token) {
+        static final Verification INVALID = new Verification(null);
+    }
+
     public String generateToken(User user) {
         List<String> roles = user.getRoles().stream()
                 .map(UserRole::name)
                 .toList();
 
+        Map<String, Object> claims = new HashMap<>();
+        claims.put(ROLES_CLAIM, roles);
+        claims.put(USER_ID_CLAIM, user.getId());
+        if (user.getCompany() != null) {
+            claims.put(COMPANY_ID_CLAIM, user.getCompany().getId());
+        }
+
         return Jwts.builder()
                 .setSubject(user.getUsername())
                 .setIssuedAt(new Date())
                 .setExpiration(new Date((new Date()).getTime() + jwtExpirationMs))
-                .addClaims(Map.of(ROLES_CLAIM, roles))
+                .addClaims(claims)
                 .signWith(signingKey, SignatureAlgorithm.HS512)
                 .compact();
     }
 
+    /**
+     * Verifies the token, answering repeats from the cache.
+     *
+     * @return empty if the token is malformed, badly signed or expired; never throws for bad input
+     */
+    public Optional<VerifiedToken> verify(String token) {
+        if (token == null || token.isBlank()) {
+            return Optional.empty();
+        }
+        Verification verification = verified.get(digest(token), key -> parse(token));
+        VerifiedToken verifiedToken = verification.token();
+        // The cache entry expires with the token, but the clock may have passed it since the last cleanup
+        if (verifiedToken == null || !verifiedToken.expiresAt().after(new Date())) {
+            return Optional.empty();
+        }
+        return Optional.of(verifiedToken);
+    }
+
+    /**
+     * Longest time a token is valid for.
+     */
+    public Duration getTokenLifetime() {
+        return Duration.ofMillis(jwtExpirationMs);
+    }
+
     public String getUsernameFromToken(String token) {
-        return Jwts.parserBuilder().setSigningKey(signingKey).build().parseClaimsJws(token).getBody().getSubject();
+        return verify(token).map(VerifiedToken::username).orElse(null);
     }
 
     public List<String> getRolesFromToken(String token) {
-        Claims claims = Jwts.parserBuilder().setSigningKey(signingKey).build().parseClaimsJws(token).getBody();
+        return verify(token).map(VerifiedToken::roles).orElse(List.of());
+    }
+
+    public boolean validateToken(String token) {
+        return verify(token).isPresent();
+    }
+
+    private Verification parse(String token) {
+        try {
+            Claims claims = parser.parseClaimsJws(token).getBody();
+            if (claims.getSubject() == null || claims.getExpiration() == null) {
+                return Verification.INVALID;
+            }
+            return new Verification(new VerifiedToken(
+                    claims.getSubject(),
+                    longClaim(claims, USER_ID_CLAIM),
+                    longClaim(claims, COMPANY_ID_CLAIM),
+                    roles(claims),
+                    claims.getIssuedAt(),
+                    claims.getExpiration()));
+        } catch (JwtException | IllegalArgumentException e) {
+            return Verification.INVALID;
+        }
+    }
+
+    private static List<String> roles(Claims claims) {
         Object roles = claims.get(ROLES_CLAIM);
         if (roles instanceof List<?>) {
             return ((List<?>) roles).stream()
@@ -50,12 +151,38 @@ public class JwtUtil {
         return List.of();
     }
 
-    public boolean validateToken(String token) {
+    private static Long longClaim(Claims claims, String name) {
+        return claims.get(name) instanceof Number number ? number.longValue() : null;
+    }
+
+    // Keeps raw tokens out of the heap and bounds the key size
+    private static String digest(String token) {
         try {
-            Jwts.parserBuilder().setSigningKey(signingKey).build().parseClaimsJws(token);
-            return true;
-        } catch (JwtException | IllegalArgumentException e) {
-            return false;
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return Base64.getEncoder().encodeToString(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static final class VerificationExpiry implements Expiry<String, Verification> {
+        @Override
+        public long expireAfterCreate(String key, Verification value, long currentTime) {
+            if (value.token() == null) {
+                return INVALID_TOKEN_TTL.toNanos();
+            }
+            long millisLeft = value.token().expiresAt().getTime() - System.currentTimeMillis();
+            return Duration.ofMillis(Math.max(millisLeft, 0)).toNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Verification value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, Verification value, long currentTime, long currentDuration) {
+            return currentDuration;
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,66 @@
+package com.profitmap_backend.util;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.lang.Nullable;
+
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Turns the {@code page}, {@code size}, {@code sort} and {@code q} query parameters of listing
+ * endpoints into a page request and a search pattern.
+ */
+public final class PageRequests {
+
+    public static final int MAX_PAGE_SIZE = 200;
+
+    private PageRequests() {
+    }
+
+    /**
+     * Page and size are clamped to sane bounds. {@code sort} is {@code property} or
+     * {@code property,asc|desc}; properties outside {@code sortable} are ignored in favour of
+     * {@code defaultSort}, so clients cannot order by unindexed or unmapped columns. The id is
+     * always the last sort key, so pages are stable when the sort key has duplicates.
+     */
+    public static PageRequest of(int page, int size, @Nullable String sort, Set<String> sortable, Sort defaultSort) {
+        Sort order = parseSort(sort, sortable, defaultSort);
+        if (order.getOrderFor("id") == null) {
+            order = order.and(Sort.by("id"));
+        }
+        return PageRequest.of(Math.max(page, 0), Math.min(Math.max(size, 1), MAX_PAGE_SIZE), order);
+    }
+
+    /**
+     * Lower-case LIKE pattern matching values that contain {@code query}, for use against
+     * {@code LOWER(column)}; '!' is the escape character so '%' and '_' in the query match
+     * literally. Null if there is nothing to search for.
+     */
+    @Nullable
+    public static String containsPattern(@Nullable String query) {
+        if (query == null || query.isBlank()) {
+            return null;
+        }
+        String escaped = query.trim().toLowerCase(Locale.ROOT)
+                .replace("!", "!!")
+                .replace("%", "!%")
+                .replace("_", "!_");
+        return "%" + escaped + "%";
+    }
+
+    private static Sort parseSort(@Nullable String sort, Set<String> sortable, Sort defaultSort) {
+        if (sort == null || sort.isBlank()) {
+            return defaultSort;
+        }
+        String[] parts = sort.split(",");
+        String property = parts[0].trim();
+        if (!sortable.contains(property)) {
+            return defaultSort;
+        }
+        Sort.Direction direction = parts.length > 1
+                ? Sort.Direction.fromOptionalString(parts[1].trim()).orElse(Sort.Direction.ASC)
+                : Sort.Direction.ASC;
+        return Sort.by(direction, property);
+    }
+}
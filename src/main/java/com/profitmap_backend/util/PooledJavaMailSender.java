@@ -0,0 +1,202 @@
+package com.profitmap_backend.util;
+
+import jakarta.mail.Address;
+import jakarta.mail.AuthenticationFailedException;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.lang.Nullable;
+import org.springframework.mail.MailAuthenticationException;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * JavaMailSenderImpl that keeps a small pool of connected, authenticated SMTP transports
+ * instead of doing TCP + STARTTLS + AUTH for every send.
+ *
+ * <p>Connections are reused LIFO (hot connections stay hot, the rest idle out), closed after any
+ * send error, after {@code maxMessagesPerConnection} messages, or when idle longer than {@code maxIdle}.
+ * At most {@code maxConnections} connections are in use at once; further senders wait up to
+ * {@code borrowTimeout}.
+ */
+@Slf4j
+public class PooledJavaMailSender extends JavaMailSenderImpl implements DisposableBean {
+
+    private static final String HEADER_MESSAGE_ID = "Message-ID";
+
+    // Idle connections younger than this are trusted without a NOOP round trip
+    private static final long VALIDATE_AFTER_IDLE_NANOS = TimeUnit.SECONDS.toNanos(2);
+
+    private final int maxConnections;
+    private final int maxMessagesPerConnection;
+    private final long maxIdleNanos;
+    private final Duration borrowTimeout;
+
+    private final LinkedBlockingDeque<PooledConnection> idle = new LinkedBlockingDeque<>();
+    private final Semaphore permits;
+    private final AtomicLong connectionsOpened = new AtomicLong();
+    private final AtomicLong messagesSent = new AtomicLong();
+    private volatile boolean closed;
+
+    public PooledJavaMailSender(int maxConnections, int maxMessagesPerConnection, Duration maxIdle, Duration borrowTimeout) {
+        if (maxConnections < 1 || maxMessagesPerConnection < 1) {
+            throw new IllegalArgumentException("maxConnections and maxMessagesPerConnection must be positive");
+        }
+        this.maxConnections = maxConnections;
+        this.maxMessagesPerConnection = maxMessagesPerConnection;
+        this.maxIdleNanos = maxIdle.toNanos();
+        this.borrowTimeout = borrowTimeout;
+        this.permits = new Semaphore(maxConnections, true);
+    }
+
+    @Override
+    protected void doSend(MimeMessage[] mimeMessages, @Nullable Object[] originalMessages) throws MailException {
+        Map<Object, Exception> failedMessages = new LinkedHashMap<>();
+
+        for (int i = 0; i < mimeMessages.length; i++) {
+            MimeMessage mimeMessage = mimeMessages[i];
+            PooledConnection connection = borrow();
+            boolean reusable = false;
+            try {
+                // Same preparation JavaMailSenderImpl does before Transport.sendMessage
+                if (mimeMessage.getSentDate() == null) {
+                    mimeMessage.setSentDate(new Date());
+                }
+                String messageId = mimeMessage.getMessageID();
+                mimeMessage.saveChanges();
+                if (messageId != null) {
+                    mimeMessage.setHeader(HEADER_MESSAGE_ID, messageId);
+                }
+
+                Address[] addresses = mimeMessage.getAllRecipients();
+                connection.transport.sendMessage(mimeMessage, (addresses != null ? addresses : new Address[0]));
+                connection.messagesSent++;
+                messagesSent.incrementAndGet();
+                reusable = connection.messagesSent < maxMessagesPerConnection;
+            } catch (Exception ex) {
+                Object original = (originalMessages != null ? originalMessages[i] : mimeMessage);
+                failedMessages.put(original, ex);
+            } finally {
+                giveBack(connection, reusable);
+            }
+        }
+
+        if (!failedMessages.isEmpty()) {
+            throw new MailSendException(failedMessages);
+        }
+    }
+
+    /**
+     * Number of SMTP connections opened so far (a cheap way to see how well connections are reused).
+     */
+    public long getConnectionsOpened() {
+        return connectionsOpened.get();
+    }
+
+    public long getMessagesSent() {
+        return messagesSent.get();
+    }
+
+    public int getIdleConnections() {
+        return idle.size();
+    }
+
+    @Override
+    public void destroy() {
+        closed = true;
+        PooledConnection connection;
+        while ((connection = idle.pollFirst()) != null) {
+            closeQuietly(connection);
+        }
+    }
+
+    private PooledConnection borrow() {
+        try {
+            if (!permits.tryAcquire(borrowTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                throw new MailSendException("No SMTP connection to " + getHost() + " available within " + borrowTimeout);
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new MailSendException("Interrupted while waiting for an SMTP connection", ex);
+        }
+
+        try {
+            PooledConnection connection;
+            while ((connection = idle.pollFirst()) != null) {
+                if (isUsable(connection)) {
+                    return connection;
+                }
+                closeQuietly(connection);
+            }
+            return open();
+        } catch (RuntimeException ex) {
+            permits.release();
+            throw ex;
+        }
+    }
+
+    private void giveBack(PooledConnection connection, boolean reusable) {
+        try {
+            if (reusable && !closed && idle.size() < maxConnections) {
+                connection.lastUsedNanos = System.nanoTime();
+                idle.offerFirst(connection);
+            } else {
+                closeQuietly(connection);
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    private PooledConnection open() {
+        try {
+            Transport transport = connectTransport();
+            connectionsOpened.incrementAndGet();
+            log.debug("Opened SMTP connection to {}:{}", getHost(), getPort());
+            return new PooledConnection(transport);
+        } catch (AuthenticationFailedException ex) {
+            throw new MailAuthenticationException(ex);
+        } catch (MessagingException ex) {
+            throw new MailSendException("Mail server connection failed", ex);
+        }
+    }
+
+    private boolean isUsable(PooledConnection connection) {
+        long idleNanos = System.nanoTime() - connection.lastUsedNanos;
+        if (idleNanos > maxIdleNanos) {
+            return false;
+        }
+        // isConnected() pings the server (NOOP), only worth it once the connection has sat for a while
+        return idleNanos < VALIDATE_AFTER_IDLE_NANOS || connection.transport.isConnected();
+    }
+
+    private void closeQuietly(PooledConnection connection) {
+        try {
+            connection.transport.close();
+        } catch (MessagingException ex) {
+            log.debug("Failed to close SMTP connection to {}", getHost(), ex);
+        }
+    }
+
+    private static final class PooledConnection {
+        private final Transport transport;
+        private int messagesSent;
+        private long lastUsedNanos = System.nanoTime();
+
+        private PooledConnection(Transport transport) {
+            this.transport = transport;
+        }
+    }
+}
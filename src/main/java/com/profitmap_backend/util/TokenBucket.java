@@ -0,0 +1,48 @@
+package com.profitmap_backend.util;
+
+import java.time.Duration;
+
+/**
+ * Thread-safe token bucket: holds up to {@code capacity} tokens and refills {@code capacity}
+ * tokens per {@code period}, spread evenly.
+ */
+public class TokenBucket {
+
+    private final double capacity;
+    private final double tokensPerNano;
+    private double tokens;
+    private long lastRefillNanos;
+
+    public TokenBucket(long capacity, Duration period) {
+        if (capacity < 1 || period.isZero() || period.isNegative()) {
+            throw new IllegalArgumentException("capacity and period must be positive");
+        }
+        this.capacity = capacity;
+        this.tokensPerNano = capacity / (double) period.toNanos();
+        this.tokens = capacity;
+        this.lastRefillNanos = System.nanoTime();
+    }
+
+    public synchronized boolean tryAcquire() {
+        refill();
+        if (tokens >= 1) {
+            tokens -= 1;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Nanoseconds until {@link #tryAcquire()} can succeed, 0 if a token is available now.
+     */
+    public synchronized long nanosUntilAvailable() {
+        refill();
+        return tokens >= 1 ? 0 : (long) Math.ceil((1 - tokens) / tokensPerNano);
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        tokens = Math.min(capacity, tokens + (now - lastRefillNanos) * tokensPerNano);
+        lastRefillNanos = now;
+    }
+}
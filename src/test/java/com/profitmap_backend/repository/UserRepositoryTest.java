@@ -0,0 +1,148 @@
+package com.profitmap_backend.repository;
+
+import com.profitmap_backend.model.Company;
+import com.profitmap_backend.model.CompanyStatus;
+import com.profitmap_backend.model.User;
+import com.profitmap_backend.model.UserRole;
+import com.profitmap_backend.model.UserStatus;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Login lookups must resolve the user, roles and company in one statement.
+ */
+@DataJpaTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:user-repository;MODE=MySQL;NON_KEYWORDS=YEAR;DB_CLOSE_DELAY=-1",
+		"spring.datasource.username=sa",
+		"spring.datasource.password=",
+		"spring.datasource.driver-class-name=org.h2.Driver",
+		"spring.jpa.hibernate.ddl-auto=create-drop",
+		"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+		"spring.jpa.show-sql=false",
+		"spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class UserRepositoryTest {
+
+	/**
+	 * Persistence layer only; the application class needs the web stack.
+	 */
+	@SpringBootConfiguration
+	@EnableAutoConfiguration
+	@EntityScan("com.profitmap_backend.model")
+	@EnableJpaRepositories("com.profitmap_backend.repository")
+	static class Config {
+	}
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private TestEntityManager entityManager;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	private Statistics statistics;
+	private User user;
+
+	@BeforeEach
+	void setUp() {
+		Company company = entityManager.persist(Company.builder()
+				.companyName("Acme d.o.o.")
+				.isPdvActive(true)
+				.isDemo(true)
+				.demoExpiration(LocalDateTime.now().plusDays(14))
+				.percentagePdv(25.0)
+				.offerPrefix("P")
+				.offerYear("2026")
+				.invoicePrefix("R")
+				.invoiceYear("2026")
+				.build());
+		user = userWithRoles("ana", "ana@profitmap.test", company, UserRole.USER, UserRole.ADMIN);
+		entityManager.flush();
+		entityManager.clear();
+
+		statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+	}
+
+	@Test
+	void findsByUsernameInOneStatement() {
+		User found = userRepository.findByLogin("ana").orElseThrow();
+
+		assertLoadedInOneStatement(found);
+	}
+
+	@Test
+	void findsByEmailInOneStatement() {
+		User found = userRepository.findByLogin("ana@profitmap.test").orElseThrow();
+
+		assertLoadedInOneStatement(found);
+	}
+
+	@Test
+	void findsByIdInOneStatement() {
+		User found = userRepository.findByIdWithCompany(user.getId()).orElseThrow();
+
+		assertLoadedInOneStatement(found);
+	}
+
+	@Test
+	void emailMatchWinsOverUsernameMatch() {
+		User other = userWithRoles("ana@profitmap.test", "other@profitmap.test", null, UserRole.USER);
+		entityManager.flush();
+		entityManager.clear();
+
+		assertEquals(user.getId(), userRepository.findByLogin("ana@profitmap.test").orElseThrow().getId());
+		assertEquals(other.getId(), userRepository.findByLogin("other@profitmap.test").orElseThrow().getId());
+	}
+
+	@Test
+	void unknownLoginFindsNothing() {
+		assertFalse(userRepository.findByLogin("nobody").isPresent());
+		assertEquals(1, statistics.getPrepareStatementCount());
+	}
+
+	private void assertLoadedInOneStatement(User found) {
+		assertTrue(Hibernate.isInitialized(found.getCompany()));
+		assertEquals(Set.of(UserRole.USER, UserRole.ADMIN), found.getRoles());
+		assertEquals(CompanyStatus.ACTIVE, found.getCompany().getStatus());
+		assertTrue(found.getCompany().getIsDemo());
+		assertTrue(found.getCompany().getDemoExpiration().isAfter(LocalDateTime.now()));
+		assertEquals(1, statistics.getPrepareStatementCount());
+	}
+
+	private User userWithRoles(String username, String email, Company company, UserRole... roles) {
+		User created = User.builder()
+				.username(username)
+				.email(email)
+				.passwordHash("hash")
+				.firstName("Ana")
+				.lastName("Horvat")
+				.status(UserStatus.ACTIVE)
+				.company(company)
+				.build();
+		created.getRoles().addAll(Set.of(roles));
+		return entityManager.persist(created);
+	}
+}
@@ -0,0 +1,97 @@
+package com.profitmap_backend.service;
+
+import com.profitmap_backend.model.Kpd;
+import org.junit.jupiter.api.Test;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class KpdSearchIndexTest {
+
+	private final KpdSearchIndex.Index index = KpdSearchIndex.Index.build(Stream.of(
+					kpd("01", "Proizvodi poljoprivrede, lova i usluge povezane s njima"),
+					kpd("01.1", "Jednogodišnji usjevi"),
+					kpd("01.11", "Žitarice (osim riže), mahunarke i uljano sjemenje"),
+					kpd("01.11.1", "Pšenica"),
+					kpd("01.11.11", "Durum pšenica"),
+					kpd("01.11.12", "Pšenica, osim durum pšenice"),
+					kpd("01.12", "Riža, neoljuštena"),
+					kpd("01.13.71", "Šećerna repa"),
+					kpd("10", "Prehrambeni proizvodi"),
+					kpd("10.71.12", "Svježi kolači"),
+					kpd("10.71.11", "Svježi kruh"),
+					kpd("62", "Usluge računalnog programiranja"),
+					kpd("62.01", "Računalno programiranje"),
+					kpd("62.01.1", "Usluge izrade i razvoja informatičkih aplikacija"),
+					kpd("62.01.11", "Usluge izrade i razvoja aplikacija za IT mreže i sustave"),
+					kpd("62.02", "Savjetovanje u vezi s računalima"),
+					kpd("99", "Usluge izvanteritorijalnih organizacija i tijela"),
+					kpd("99.00.1", "Đakovački poslovi"))
+			.sorted(Comparator.comparing(Kpd::getCode))
+			.toList(), new Object());
+
+	@Test
+	void searchesByCodePrefix() {
+		assertEquals(List.of("62.01", "62.01.1", "62.01.11"), codes(index.search("62.01", 20)));
+		assertEquals(List.of("01.11.1", "01.11.11", "01.11.12"), codes(index.search(" 01.11.1 ", 20)));
+		assertEquals(List.of("01", "01.1"), codes(index.search("01", 2)));
+		assertTrue(index.search("63", 20).isEmpty());
+	}
+
+	@Test
+	void searchesNamesIgnoringCaseAndDiacritics() {
+		assertEquals(List.of("01.11"), codes(index.search("zitarice", 20)));
+		assertEquals(List.of("01.13.71"), codes(index.search("SECERNA", 20)));
+		assertEquals(List.of("99.00.1"), codes(index.search("dakovacki", 20)));
+		assertEquals(List.of("99.00.1"), codes(index.search("Đakovački", 20)));
+	}
+
+	@Test
+	void matchesEveryQueryWordAsWordPrefix() {
+		assertEquals(List.of("62.01.1", "62.01.11"), codes(index.search("usl apl", 20)));
+		assertEquals(List.of("62.01.11"), codes(index.search("aplikacija mreže", 20)));
+		assertTrue(index.search("kruh mreže", 20).isEmpty());
+		assertTrue(index.search("itarice", 20).isEmpty());
+		assertTrue(index.search("  ", 20).isEmpty());
+		assertTrue(index.search(null, 20).isEmpty());
+	}
+
+	@Test
+	void ranksNamesStartingWithQueryAndShorterNamesFirst() {
+		// "Pšenica" is a whole-word match at the start and shortest; "Durum pšenica" only contains it
+		assertEquals(List.of("01.11.1", "01.11.12", "01.11.11"), codes(index.search("psenica", 20)));
+		assertEquals(List.of("01.11.1"), codes(index.search("psenica", 1)));
+		// Equal score: fewer name words first
+		assertEquals(List.of("62.01", "62", "62.02"), codes(index.search("racunal", 20)));
+		// Equal score and length: code order
+		assertEquals(List.of("10.71.11", "10.71.12"), codes(index.search("svjezi", 20)));
+	}
+
+	@Test
+	void listsTopLevelChildren() {
+		assertEquals(List.of("01", "10", "62", "99"), codes(index.children(null)));
+		assertEquals(List.of("01", "10", "62", "99"), codes(index.children(" ")));
+	}
+
+	@Test
+	void listsChildrenSkippingLevelsWithoutEntries() {
+		assertEquals(List.of("01.1"), codes(index.children("01")));
+		assertEquals(List.of("01.11", "01.12", "01.13.71"), codes(index.children("01.1")));
+		assertEquals(List.of("01.11.1"), codes(index.children("01.11")));
+		assertEquals(List.of("10.71.11", "10.71.12"), codes(index.children("10")));
+		assertEquals(List.of("99.00.1"), codes(index.children("99")));
+		assertTrue(index.children("01.11.11").isEmpty());
+	}
+
+	private static Kpd kpd(String code, String name) {
+		return Kpd.builder().code(code).name(name).build();
+	}
+
+	private static List<String> codes(List<Kpd> kpds) {
+		return kpds.stream().map(Kpd::getCode).toList();
+	}
+}
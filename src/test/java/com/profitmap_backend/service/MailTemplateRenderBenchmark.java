@@ -0,0 +1,94 @@
+package com.profitmap_backend.service;
+
+import com.profitmap_backend.config.MailProperties;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Invoice email render cost: plain Thymeleaf (what MailTemplateService did before) against the
+ * compiled template, with and without a per-company variant lookup.
+ *
+ * <p>Run the main method from the IDE (after {@code mvn test-compile}); not part of the test suite.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MailTemplateRenderBenchmark {
+
+	private static final Map<String, Object> VARIABLES = Map.of(
+			"customerName", "Ana Horvat",
+			"invoiceNumber", "42-1-1",
+			"issuerCompanyName", "Obrt Šišmiš & sinovi",
+			"appName", "ProfitMap"
+	);
+
+	private SpringTemplateEngine templateEngine;
+	private MailTemplateService mailTemplateService;
+
+	@Setup
+	public void setUp() {
+		ClassLoaderTemplateResolver resolver = new ClassLoaderTemplateResolver();
+		resolver.setPrefix("templates/");
+		resolver.setSuffix(".html");
+		resolver.setTemplateMode(TemplateMode.HTML);
+		resolver.setCharacterEncoding("UTF-8");
+		templateEngine = new SpringTemplateEngine();
+		templateEngine.setTemplateResolver(resolver);
+
+		mailTemplateService = new MailTemplateService(
+				templateEngine, new DefaultResourceLoader(), new MailProperties(), "classpath:/templates/", ".html");
+		mailTemplateService.warmUp();
+
+		if (!thymeleaf().equals(compiled())) {
+			throw new IllegalStateException("Compiled invoice-email output differs from Thymeleaf");
+		}
+	}
+
+	@Benchmark
+	public String thymeleaf() {
+		Context context = new Context(Locale.forLanguageTag("hr"));
+		context.setVariables(VARIABLES);
+		return templateEngine.process("invoice-email", context);
+	}
+
+	@Benchmark
+	public String compiled() {
+		return mailTemplateService.render("invoice-email", VARIABLES);
+	}
+
+	@Benchmark
+	public String compiledWithCompanyLookup() {
+		return mailTemplateService.render("invoice-email", 42L, VARIABLES);
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		Options options = new OptionsBuilder()
+				.include(MailTemplateRenderBenchmark.class.getSimpleName())
+				.build();
+		new Runner(options).run();
+	}
+}
@@ -0,0 +1,419 @@
+package com.profitmap_backend.service;
+
+import com.profitmap_backend.config.AsyncConfig;
+import com.profitmap_backend.config.ExecutorProperties;
+import com.profitmap_backend.config.MailProperties;
+import com.profitmap_backend.model.MailAccount;
+import com.profitmap_backend.model.MailOutbox;
+import com.profitmap_backend.model.MailOutboxStatus;
+import com.profitmap_backend.repository.MailOutboxRepository;
+import com.profitmap_backend.support.LocalSmtpServer;
+import com.profitmap_backend.util.PooledJavaMailSender;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongFunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * End-to-end mail throughput: callers queue emails through MailService, MailOutboxWorker delivers
+ * them through MailRouter and the pooled senders to a {@link LocalSmtpServer}, with the outbox on H2.
+ *
+ * <p>Scenarios: system mail ({@code sendSystemHtmlMail}, pinned to the primary account) and
+ * templated customer mail with a PDF attachment ({@code sendHtmlMailWithPdfAttachment}), routed
+ * over the primary and second account, once per attachment size. Each reports messages/second,
+ * p50/p99 of the enqueue call and of enqueue-to-sent, and heap allocated per message by the callers,
+ * the outbox poller and the mail workers. A second test compares a pooled sender against a plain
+ * one opening a connection per message, sending directly without the outbox.
+ *
+ * <p>Not part of the test suite; run with
+ * {@code mvn test -Dtest=MailThroughputBenchmark -Dbenchmark.messages=1000 -Dbenchmark.concurrency=16 -Dbenchmark.attachment-kb=16,256,1024}.
+ * Pool sizes can be changed the same way, e.g. {@code -Dexecutors.customer-mail.max-size=8}.
+ */
+@SpringBootTest(
+		classes = MailThroughputBenchmark.Config.class,
+		webEnvironment = SpringBootTest.WebEnvironment.NONE,
+		properties = {
+				"spring.datasource.url=jdbc:h2:mem:mail-benchmark;MODE=MySQL;NON_KEYWORDS=YEAR;DB_CLOSE_DELAY=-1",
+				"spring.datasource.username=sa",
+				"spring.datasource.password=",
+				"spring.datasource.driver-class-name=org.h2.Driver",
+				"spring.jpa.hibernate.ddl-auto=create-drop",
+				"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+				"spring.jpa.show-sql=false",
+				"mail.outbox.poll-interval=PT0.005S",
+				"mail.outbox.spool-dir=${java.io.tmpdir}/profitmap-mail-benchmark-spool",
+				"mail.routing.accounts.primary.max-per-minute=0",
+				"mail.routing.accounts.second.max-per-minute=0"
+		})
+class MailThroughputBenchmark {
+
+	private static final String PRIMARY_USERNAME = "hello@profitmap.test";
+	private static final String SECOND_USERNAME = "no-reply@profitmap.test";
+	private static final int RECIPIENTS = 50;
+	private static final Duration TIMEOUT = Duration.ofMinutes(10);
+
+	private final int messages = Integer.getInteger("benchmark.messages", 500);
+	private final int concurrency = Integer.getInteger("benchmark.concurrency", 8);
+	private final int[] attachmentSizesKb = Arrays.stream(System.getProperty("benchmark.attachment-kb", "16,256,1024").split(","))
+			.map(String::trim)
+			.mapToInt(Integer::parseInt)
+			.toArray();
+
+	@Autowired
+	private MailService mailService;
+
+	@Autowired
+	private MailAttachmentSpool mailAttachmentSpool;
+
+	@Autowired
+	private MailOutboxWorker mailOutboxWorker;
+
+	@Autowired
+	private MailOutboxRepository mailOutboxRepository;
+
+	@Autowired
+	private MailProperties mailProperties;
+
+	@Autowired
+	private LocalSmtpServer smtpServer;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	private ExecutorService callers;
+
+	@BeforeEach
+	void startCallers() {
+		callers = Executors.newFixedThreadPool(concurrency, named("bench-caller-"));
+	}
+
+	@AfterEach
+	void stopCallers() {
+		callers.shutdownNow();
+	}
+
+	@Test
+	void throughput() throws Exception {
+		String systemBody = "<p>Pozdrav,</p><p>Vaš račun je aktiviran.</p>";
+		Map<String, Object> variables = Map.of(
+				"customerName", "Ana Horvat",
+				"invoiceNumber", "42-1-1",
+				"issuerCompanyName", "Obrt Šišmiš & sinovi",
+				"appName", "ProfitMap");
+		TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+
+		LongFunction<Long> system = n -> mailService.sendSystemHtmlMail(
+				recipient(n), "Aktivacija računa " + n, systemBody);
+
+		// Warm up the JIT, the connection pools and the template cache
+		run("warm-up", Math.min(messages, 200), system);
+		run("warm-up", Math.min(messages, 200), customer(transactionTemplate, variables, new byte[1024]));
+
+		List<Result> results = new ArrayList<>();
+		results.add(run("system", messages, system));
+		for (int sizeKb : attachmentSizesKb) {
+			byte[] pdf = new byte[sizeKb * 1024];
+			results.add(run("customer-pdf-" + sizeKb + "kb", messages, customer(transactionTemplate, variables, pdf)));
+		}
+
+		System.out.printf("%nMail throughput: %d messages per scenario, %d callers, customer-mail workers %s, smtp pool %d%n",
+				messages, concurrency, System.getProperty("executors.customer-mail.max-size", "default"),
+				mailProperties.getPool().getMaxConnections());
+		System.out.printf("%-22s %9s %15s %15s %15s %15s %13s  %s%n",
+				"scenario", "msg/s", "enqueue p50 ms", "enqueue p99 ms", "sent p50 ms", "sent p99 ms", "alloc/msg KB", "accounts");
+		for (Result result : results) {
+			System.out.printf("%-22s %9.1f %15.2f %15.2f %15.1f %15.1f %13.1f  %s%n",
+					result.scenario, result.messagesPerSecond, result.enqueueP50Ms, result.enqueueP99Ms,
+					result.sentP50Ms, result.sentP99Ms, result.allocatedKbPerMessage, result.accounts);
+		}
+	}
+
+	@Test
+	void pooledAgainstPerMessageConnections() throws Exception {
+		JavaMailSenderImpl plain = smtpServer.newUnpooledSender(PRIMARY_USERNAME);
+		PooledJavaMailSender pooled = smtpServer.newSender(PRIMARY_USERNAME, mailProperties.getPool());
+		try {
+			// Warm up
+			sendAll(plain, Math.min(messages, 50));
+			sendAll(pooled, Math.min(messages, 50));
+			long connectionsBefore = pooled.getConnectionsOpened();
+
+			long plainNanos = sendAll(plain, messages);
+			long pooledNanos = sendAll(pooled, messages);
+
+			System.out.printf("%nSMTP senders, %d sequential messages: per-message connections %.0f msg/s, pooled %.0f msg/s (%d connection(s))%n",
+					messages, messages / (plainNanos / 1e9), messages / (pooledNanos / 1e9),
+					pooled.getConnectionsOpened() - connectionsBefore);
+		} finally {
+			pooled.destroy();
+		}
+	}
+
+	private long sendAll(JavaMailSenderImpl sender, int count) throws Exception {
+		long start = System.nanoTime();
+		for (int n = 0; n < count; n++) {
+			MimeMessage message = sender.createMimeMessage();
+			MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
+			helper.setFrom(PRIMARY_USERNAME);
+			helper.setTo(recipient(n));
+			helper.setSubject("Račun br. " + n);
+			helper.setText("<p>Poštovani,</p>", true);
+			sender.send(message);
+		}
+		long elapsed = System.nanoTime() - start;
+		smtpServer.purge();
+		return elapsed;
+	}
+
+	private LongFunction<Long> customer(TransactionTemplate transactionTemplate, Map<String, Object> variables, byte[] pdf) {
+		return n -> transactionTemplate.execute(status -> {
+			Path pdfFile;
+			try {
+				pdfFile = mailAttachmentSpool.spool(pdf);
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+			return mailService.sendHtmlMailWithPdfAttachment(
+					recipient(n),
+					"Račun br. " + n + " – Obrt Šišmiš & sinovi",
+					"invoice-email",
+					null,
+					variables,
+					pdfFile,
+					"racun-" + n + ".pdf",
+					"obrt@profitmap.test",
+					"Obrt Šišmiš & sinovi (via ProfitMap)");
+		});
+	}
+
+	private Result run(String scenario, int count, LongFunction<Long> send) throws Exception {
+		long firstId = nextOutboxId();
+		Map<Long, Long> allocatedBefore = allocatedBytes();
+		Poller poller = new Poller();
+		Thread pollerThread = named("bench-poller-").newThread(poller);
+
+		long start = System.nanoTime();
+		pollerThread.start();
+		AtomicInteger next = new AtomicInteger();
+		List<Future<long[]>> futures = new ArrayList<>();
+		for (int c = 0; c < concurrency; c++) {
+			futures.add(callers.submit(() -> {
+				long[] latencies = new long[count];
+				int done = 0;
+				int n;
+				while ((n = next.getAndIncrement()) < count) {
+					long sendStart = System.nanoTime();
+					send.apply(n);
+					latencies[done++] = System.nanoTime() - sendStart;
+				}
+				return Arrays.copyOf(latencies, done);
+			}));
+		}
+		long[] enqueueNanos = new long[0];
+		for (Future<long[]> future : futures) {
+			long[] latencies = future.get();
+			long[] merged = Arrays.copyOf(enqueueNanos, enqueueNanos.length + latencies.length);
+			System.arraycopy(latencies, 0, merged, enqueueNanos.length, latencies.length);
+			enqueueNanos = merged;
+		}
+
+		long deadline = start + TIMEOUT.toNanos();
+		while (sentSince(firstId) < count && System.nanoTime() < deadline) {
+			smtpServer.purge();
+			Thread.sleep(5);
+		}
+		long elapsed = System.nanoTime() - start;
+		poller.stop();
+		pollerThread.join();
+		long allocated = allocatedSince(allocatedBefore);
+		smtpServer.purge();
+
+		List<MailOutbox> sent = mailOutboxRepository.findAll().stream()
+				.filter(mail -> mail.getId() >= firstId)
+				.toList();
+		assertEquals(count, sent.stream().filter(mail -> mail.getStatus() == MailOutboxStatus.SENT).count(),
+				scenario + ": not all emails were sent within " + TIMEOUT);
+
+		long[] sentMillis = sent.stream()
+				.mapToLong(mail -> Duration.between(mail.getCreatedAt(), mail.getSentAt()).toMillis())
+				.toArray();
+		Map<MailAccount, Integer> accounts = new EnumMap<>(MailAccount.class);
+		sent.forEach(mail -> accounts.merge(mail.getAccount(), 1, Integer::sum));
+
+		return new Result(
+				scenario,
+				count / (elapsed / 1e9),
+				percentile(enqueueNanos, 0.50) / 1e6,
+				percentile(enqueueNanos, 0.99) / 1e6,
+				percentile(sentMillis, 0.50),
+				percentile(sentMillis, 0.99),
+				allocated / 1024.0 / count,
+				accounts);
+	}
+
+	private long nextOutboxId() {
+		Long max = jdbcTemplate.queryForObject("SELECT MAX(id) FROM mail_outbox", Long.class);
+		return max == null ? 1 : max + 1;
+	}
+
+	private int sentSince(long firstId) {
+		Integer sent = jdbcTemplate.queryForObject(
+				"SELECT COUNT(*) FROM mail_outbox WHERE id >= ? AND status = ?",
+				Integer.class, firstId, MailOutboxStatus.SENT.name());
+		return sent == null ? 0 : sent;
+	}
+
+	private static String recipient(long n) {
+		return "customer" + (n % RECIPIENTS) + "@profitmap.test";
+	}
+
+	private static long percentile(long[] values, double percentile) {
+		if (values.length == 0) {
+			return 0;
+		}
+		long[] sorted = values.clone();
+		Arrays.sort(sorted);
+		return sorted[(int) Math.min(sorted.length - 1, Math.ceil(percentile * sorted.length) - 1)];
+	}
+
+	/**
+	 * Bytes allocated so far by the benchmark callers, the outbox poller and the mail workers, per thread id.
+	 * The SMTP server threads are left out, they stand in for the remote server.
+	 */
+	private static Map<Long, Long> allocatedBytes() {
+		com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		Map<Long, Long> allocated = new HashMap<>();
+		for (Thread thread : Thread.getAllStackTraces().keySet()) {
+			String name = thread.getName();
+			if (name.startsWith("bench-") || name.startsWith("mail-")) {
+				allocated.put(thread.threadId(), threads.getThreadAllocatedBytes(thread.threadId()));
+			}
+		}
+		return allocated;
+	}
+
+	private static long allocatedSince(Map<Long, Long> before) {
+		long total = 0;
+		for (Map.Entry<Long, Long> entry : allocatedBytes().entrySet()) {
+			total += entry.getValue() - before.getOrDefault(entry.getKey(), 0L);
+		}
+		return total;
+	}
+
+	private static ThreadFactory named(String prefix) {
+		AtomicInteger count = new AtomicInteger();
+		return runnable -> {
+			Thread thread = new Thread(runnable, prefix + count.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		};
+	}
+
+	/**
+	 * Stands in for the scheduler, which is not started here, at the configured poll interval.
+	 */
+	private class Poller implements Runnable {
+
+		private volatile boolean running = true;
+
+		@Override
+		public void run() {
+			long intervalMillis = mailProperties.getOutbox().getPollInterval().toMillis();
+			while (running) {
+				mailOutboxWorker.drain();
+				try {
+					Thread.sleep(intervalMillis);
+				} catch (InterruptedException e) {
+					return;
+				}
+			}
+		}
+
+		void stop() {
+			running = false;
+		}
+	}
+
+	private record Result(String scenario,
+						  double messagesPerSecond,
+						  double enqueueP50Ms,
+						  double enqueueP99Ms,
+						  double sentP50Ms,
+						  double sentP99Ms,
+						  double allocatedKbPerMessage,
+						  Map<MailAccount, Integer> accounts) {
+	}
+
+	@SpringBootConfiguration
+	@EnableAutoConfiguration
+	@EntityScan("com.profitmap_backend.model")
+	@EnableJpaRepositories("com.profitmap_backend.repository")
+	@EnableConfigurationProperties(MailProperties.class)
+	@Import({
+			AsyncConfig.class,
+			ExecutorProperties.class,
+			MailService.class,
+			MailOutboxService.class,
+			MailTemplateService.class,
+			MailAttachmentSpool.class,
+			MailDeliveryService.class,
+			MailRouter.class,
+			MailOutboxWorker.class
+	})
+	static class Config {
+
+		@Bean(destroyMethod = "close")
+		LocalSmtpServer localSmtpServer() {
+			return LocalSmtpServer.start(PRIMARY_USERNAME, SECOND_USERNAME);
+		}
+
+		@Bean(destroyMethod = "destroy")
+		@Primary
+		PooledJavaMailSender javaMailSender(LocalSmtpServer localSmtpServer, MailProperties mailProperties) {
+			return localSmtpServer.newSender(PRIMARY_USERNAME, mailProperties.getPool());
+		}
+
+		@Bean(name = "secondMailSender", destroyMethod = "destroy")
+		PooledJavaMailSender secondMailSender(LocalSmtpServer localSmtpServer, MailProperties mailProperties) {
+			return localSmtpServer.newSender(SECOND_USERNAME, mailProperties.getPool());
+		}
+	}
+}
@@ -0,0 +1,56 @@
+package com.profitmap_backend.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProductImportServiceTest {
+
+	@ParameterizedTest
+	@CsvSource(delimiter = '|', value = {
+			"12|12.00",
+			"12.5|12.50",
+			"12,5|12.50",
+			"12,50|12.50",
+			"0.99|0.99",
+			"1.234,50|1234.50",
+			"1,234.50|1234.50",
+			"1.234.567,8|1234567.80",
+			"1.000.000|1000000.00",
+			"1,000,000|1000000.00",
+			"1 234,50|1234.50",
+			"1 000|1000.00",
+			"1\u00A0234\u00A0567.5|1234567.50",
+			"' 12,5 '|12.50"
+	})
+	void parsesDecimalAndGroupedPrices(String input, String expected) {
+		assertEquals(new BigDecimal(expected), ProductImportService.parsePrice(input));
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = {"1.000", "1,000", "12.500", "12,500", "999.999"})
+	void rejectsLoneSeparatorBeforeThreeDigits(String input) {
+		IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+				() -> ProductImportService.parsePrice(input));
+		assertTrue(e.getMessage().startsWith("Ambiguous price"), e.getMessage());
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = {"", "abc", "-1", "1,2345", "1.234,567", "1.2.3", "1.00.0", "1.234.5", "12,34.5",
+			"1.234.567,8.9", "1.234,567.8", "1e3", "1E3", "+1", "1 2 3", "1.", ",5", "1.000 000"})
+	void rejectsInvalidPrices(String input) {
+		assertThrows(IllegalArgumentException.class, () -> ProductImportService.parsePrice(input));
+	}
+
+	@Test
+	void rejectsMissingPrice() {
+		assertThrows(IllegalArgumentException.class, () -> ProductImportService.parsePrice(null));
+	}
+}
@@ -0,0 +1,100 @@
+package com.profitmap_backend.support;
+
+import com.icegreen.greenmail.configuration.GreenMailConfiguration;
+import com.icegreen.greenmail.store.FolderException;
+import com.icegreen.greenmail.util.GreenMail;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import com.profitmap_backend.config.MailProperties;
+import com.profitmap_backend.util.PooledJavaMailSender;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import java.util.Properties;
+
+/**
+ * Embedded SMTP server standing in for the Zoho accounts in tests and benchmarks.
+ *
+ * <p>Listens on a free port and accepts mail for the given account usernames (password "secret").
+ * Senders from {@link #newSender} are configured like the ones in MailConfig, except that the
+ * connection is plain SMTP, since the stand-in does not offer STARTTLS.
+ */
+public class LocalSmtpServer implements AutoCloseable {
+
+	public static final String PASSWORD = "secret";
+
+	private final GreenMail greenMail;
+
+	private LocalSmtpServer(GreenMail greenMail) {
+		this.greenMail = greenMail;
+	}
+
+	public static LocalSmtpServer start(String... usernames) {
+		GreenMailConfiguration configuration = GreenMailConfiguration.aConfig();
+		for (String username : usernames) {
+			configuration = configuration.withUser(username, PASSWORD);
+		}
+		GreenMail greenMail = new GreenMail(ServerSetupTest.SMTP.dynamicPort());
+		greenMail.withConfiguration(configuration);
+		greenMail.start();
+		return new LocalSmtpServer(greenMail);
+	}
+
+	public int getPort() {
+		return greenMail.getSmtp().getPort();
+	}
+
+	public int receivedCount() {
+		return greenMail.getReceivedMessages().length;
+	}
+
+	/**
+	 * Drops received messages, so long benchmark runs do not keep every message in memory.
+	 */
+	public void purge() {
+		try {
+			greenMail.purgeEmailFromAllMailboxes();
+		} catch (FolderException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Pooled sender for one account, with the pool settings from {@code mail.pool}.
+	 */
+	public PooledJavaMailSender newSender(String username, MailProperties.Pool pool) {
+		PooledJavaMailSender sender = new PooledJavaMailSender(
+				pool.getMaxConnections(),
+				pool.getMaxMessagesPerConnection(),
+				pool.getMaxIdle(),
+				pool.getBorrowTimeout());
+		configure(sender, username);
+		return sender;
+	}
+
+	/**
+	 * Plain Spring sender for one account, opening a connection per message.
+	 */
+	public JavaMailSenderImpl newUnpooledSender(String username) {
+		JavaMailSenderImpl sender = new JavaMailSenderImpl();
+		configure(sender, username);
+		return sender;
+	}
+
+	private void configure(JavaMailSenderImpl sender, String username) {
+		sender.setHost("localhost");
+		sender.setPort(getPort());
+		sender.setUsername(username);
+		sender.setPassword(PASSWORD);
+
+		Properties props = sender.getJavaMailProperties();
+		props.put("mail.transport.protocol", "smtp");
+		props.put("mail.smtp.auth", "true");
+		props.put("mail.smtp.from", username);
+		props.put("mail.smtp.connectiontimeout", "10000");
+		props.put("mail.smtp.timeout", "30000");
+	}
+
+	@Override
+	public void close() {
+		greenMail.stop();
+	}
+}
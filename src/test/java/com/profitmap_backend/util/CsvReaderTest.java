@@ -0,0 +1,112 @@
+package com.profitmap_backend.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class CsvReaderTest {
+
+	@ParameterizedTest
+	@ValueSource(strings = {";", ",", "\t"})
+	void detectsDelimiterFromFirstLine(String delimiter) throws IOException {
+		String csv = String.join(delimiter, "code", "name", "price") + "\n"
+				+ String.join(delimiter, "A1", "Kruh", "1.5") + "\n";
+
+		assertEquals(List.of(List.of("code", "name", "price"), List.of("A1", "Kruh", "1.5")), readAll(csv));
+	}
+
+	@Test
+	void prefersMostFrequentDelimiterOnFirstLine() throws IOException {
+		assertEquals(List.of(List.of("a,b", "c", "d")), readAll("a,b;c;d\n"));
+	}
+
+	@Test
+	void handlesQuotedFields() throws IOException {
+		String csv = "name;note\n"
+				+ "\"Kruh; bijeli\";\"rekao je \"\"dobar\"\"\"\n"
+				+ "\"dva\nreda\";x\n";
+
+		assertEquals(List.of(
+				List.of("name", "note"),
+				List.of("Kruh; bijeli", "rekao je \"dobar\""),
+				List.of("dva\nreda", "x")), readAll(csv));
+	}
+
+	@Test
+	void keepsEmptyFields() throws IOException {
+		assertEquals(List.of(List.of("a", "", "c", "")), readAll("a;;c;\n"));
+	}
+
+	@Test
+	void stripsBomAndHandlesCrLf() throws IOException {
+		String csv = "\uFEFFcode;name\r\nA1;Kruh\r\nA2;Mlijeko";
+
+		assertEquals(List.of(List.of("code", "name"), List.of("A1", "Kruh"), List.of("A2", "Mlijeko")),
+				readAll(csv));
+	}
+
+	@Test
+	void handlesBareCarriageReturns() throws IOException {
+		assertEquals(List.of(List.of("a", "b"), List.of("c", "d")), readAll("a;b\rc;d\r"));
+	}
+
+	@Test
+	void reportsStartLineOfEachRecordSkippingBlankLines() throws IOException {
+		String csv = "h1;h2\n\n\"multi\nline\";x\r\n\r\nlast;y";
+		try (CsvReader reader = open(csv)) {
+			assertEquals(List.of("h1", "h2"), reader.next());
+			assertEquals(1, reader.getLineNumber());
+			assertEquals(List.of("multi\nline", "x"), reader.next());
+			assertEquals(3, reader.getLineNumber());
+			assertEquals(List.of("last", "y"), reader.next());
+			assertEquals(6, reader.getLineNumber());
+			assertNull(reader.next());
+		}
+	}
+
+	@Test
+	void returnsNullForEmptyInput() throws IOException {
+		try (CsvReader reader = open("")) {
+			assertNull(reader.next());
+		}
+		try (CsvReader reader = open("\n\r\n")) {
+			assertNull(reader.next());
+		}
+	}
+
+	@Test
+	void readsFirstLineLongerThanReaderBuffer() throws IOException {
+		String longField = "x".repeat(200 * 1024);
+		String csv = "a," + longField + ",b\nc,d,e\n";
+
+		List<List<String>> records = readAll(csv);
+
+		assertEquals(2, records.size());
+		assertEquals(List.of("a", longField, "b"), records.get(0));
+		assertEquals(List.of("c", "d", "e"), records.get(1));
+	}
+
+	private static CsvReader open(String csv) throws IOException {
+		return CsvReader.open(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), StandardCharsets.UTF_8);
+	}
+
+	private static List<List<String>> readAll(String csv) throws IOException {
+		List<List<String>> records = new ArrayList<>();
+		try (CsvReader reader = open(csv)) {
+			List<String> record;
+			while ((record = reader.next()) != null) {
+				records.add(record);
+			}
+		}
+		return records;
+	}
+}
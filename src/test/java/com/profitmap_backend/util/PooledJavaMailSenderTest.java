@@ -0,0 +1,132 @@
+package com.profitmap_backend.util;
+
+import com.icegreen.greenmail.configuration.GreenMailConfiguration;
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.mail.javamail.MimeMessageHelper;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PooledJavaMailSenderTest {
+
+	@RegisterExtension
+	static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP)
+			.withConfiguration(GreenMailConfiguration.aConfig().withUser("sender@profitmap.test", "secret"))
+			.withPerMethodLifecycle(true);
+
+	private final List<PooledJavaMailSender> senders = new ArrayList<>();
+
+	@AfterEach
+	void closeSenders() {
+		senders.forEach(PooledJavaMailSender::destroy);
+	}
+
+	@Test
+	void reusesOneConnectionForSequentialSends() throws Exception {
+		PooledJavaMailSender sender = pooledSender(2, 100);
+
+		for (int i = 0; i < 50; i++) {
+			sender.send(message(sender, i));
+		}
+
+		assertEquals(50, greenMail.getReceivedMessages().length);
+		assertEquals(1, sender.getConnectionsOpened());
+	}
+
+	@Test
+	void recyclesConnectionAfterMaxMessages() throws Exception {
+		PooledJavaMailSender sender = pooledSender(2, 10);
+
+		for (int i = 0; i < 25; i++) {
+			sender.send(message(sender, i));
+		}
+
+		assertEquals(25, greenMail.getReceivedMessages().length);
+		assertEquals(3, sender.getConnectionsOpened());
+	}
+
+	@Test
+	void replacesConnectionAfterSendError() throws Exception {
+		PooledJavaMailSender sender = pooledSender(1, 100);
+		sender.send(message(sender, 0));
+
+		// Server restart kills the pooled connection under the sender
+		greenMail.stop();
+		greenMail.start();
+		greenMail.setUser("sender@profitmap.test", "secret");
+
+		assertThrows(MailSendException.class, () -> sender.send(message(sender, 1)));
+		sender.send(message(sender, 2));
+
+		assertEquals(2, sender.getConnectionsOpened());
+		assertEquals(1, greenMail.getReceivedMessages().length);
+	}
+
+	@Test
+	void neverExceedsMaxConnectionsUnderConcurrency() throws Exception {
+		PooledJavaMailSender sender = pooledSender(3, 1000);
+		int messages = 120;
+
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			List<Future<?>> futures = new ArrayList<>();
+			for (int i = 0; i < messages; i++) {
+				int n = i;
+				futures.add(executor.submit(() -> {
+					sender.send(message(sender, n));
+					return null;
+				}));
+			}
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		} finally {
+			executor.shutdown();
+		}
+
+		assertEquals(messages, greenMail.getReceivedMessages().length);
+		assertTrue(sender.getConnectionsOpened() <= 3, "opened " + sender.getConnectionsOpened());
+	}
+
+	private PooledJavaMailSender pooledSender(int maxConnections, int maxMessagesPerConnection) {
+		PooledJavaMailSender sender = new PooledJavaMailSender(
+				maxConnections, maxMessagesPerConnection, Duration.ofSeconds(30), Duration.ofSeconds(5));
+		configure(sender);
+		senders.add(sender);
+		return sender;
+	}
+
+	private static void configure(JavaMailSenderImpl sender) {
+		sender.setHost("localhost");
+		sender.setPort(ServerSetupTest.SMTP.getPort());
+		sender.setUsername("sender@profitmap.test");
+		sender.setPassword("secret");
+		sender.getJavaMailProperties().put("mail.smtp.auth", "true");
+		sender.getJavaMailProperties().put("mail.smtp.from", "sender@profitmap.test");
+	}
+
+	private static MimeMessage message(JavaMailSenderImpl sender, int n) throws Exception {
+		MimeMessage message = sender.createMimeMessage();
+		MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
+		helper.setFrom("sender@profitmap.test");
+		helper.setTo("customer" + n + "@profitmap.test");
+		helper.setSubject("Račun br. " + n);
+		helper.setText("<p>Poštovani,</p>", true);
+		return message;
+	}
+}